@@ -1,14 +1,14 @@
 package com.fallback.demo;
 
+import com.fallback.demo.config.HttpClientSystemProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.cache.annotation.EnableCaching;
 
 @SpringBootApplication
-@EnableCaching
 public class Application {
     public static void main(String[] args) {
-        SpringApplication.run(Application.class, args);
+        SpringApplication application = new SpringApplication(Application.class);
+        application.addListeners(new HttpClientSystemProperties());
+        application.run(args);
     }
 }
-
@@ -0,0 +1,313 @@
+package com.fallback.demo.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Caché en memoria para las respuestas de fallback.
+ *
+ * Características:
+ * - Acotada por número de entradas y por peso (bytes estimados de cada valor)
+ * - Desalojo consciente de la frecuencia: al llenarse, una entrada nueva solo desplaza
+ *   a otra si se pide más a menudo (ver {@link FrequencySketch})
+ * - TTL por entrada: pasado el TTL la entrada queda "stale" (obsoleta) pero se puede
+ *   seguir sirviendo durante la ventana de obsolescencia
+ * - Revalidación en segundo plano (stale-while-revalidate) con una sola recarga en
+ *   curso por clave
+ *
+ * Las lecturas no toman ningún lock; solo las escrituras que exceden la capacidad
+ * sincronizan para elegir la víctima del desalojo.
+ *
+ * @param <V> Tipo de los valores almacenados
+ */
+public class FallbackCache<V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(FallbackCache.class);
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
+    private final ConcurrentHashMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final AtomicLong totalWeight = new AtomicLong();
+    private final FrequencySketch sketch;
+    private final Object evictionLock = new Object();
+
+    private final long maximumSize;
+    private final long maximumWeight;
+    private final long timeToLiveNanos;
+    private final long staleWindowNanos;
+    private final ToLongFunction<V> weigher;
+    private final Executor refreshExecutor;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public FallbackCache(long maximumSize, long maximumWeight, Duration timeToLive, Duration staleWindow,
+                         ToLongFunction<V> weigher, Executor refreshExecutor) {
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.staleWindowNanos = staleWindow.toNanos();
+        this.weigher = weigher;
+        this.refreshExecutor = refreshExecutor;
+        this.sketch = new FrequencySketch((int) Math.min(maximumSize, 1 << 20));
+    }
+
+    /**
+     * Guarda un valor con el TTL por defecto.
+     */
+    public void put(String key, V value) {
+        put(key, value, Duration.ofNanos(timeToLiveNanos));
+    }
+
+    /**
+     * Guarda un valor con un TTL específico para esta entrada.
+     *
+     * @param key Clave
+     * @param value Valor (no debe modificarse después de guardarlo)
+     * @param timeToLive Tiempo durante el cual la entrada se considera fresca
+     */
+    public void put(String key, V value, Duration timeToLive) {
+        long weight = weigher.applyAsLong(value);
+        if (weight > maximumWeight) {
+            logger.warn("Valor para '{}' descartado: pesa {} bytes y el máximo es {}", key, weight, maximumWeight);
+            rejections.increment();
+            return;
+        }
+
+        long now = System.nanoTime();
+        long expiresAt = now + timeToLive.toNanos();
+        Entry<V> entry = new Entry<>(value, weight, expiresAt, expiresAt + staleWindowNanos, now);
+        sketch.increment(key);
+
+        Entry<V> previous = entries.put(key, entry);
+        totalWeight.addAndGet(weight - (previous != null ? previous.weight : 0));
+
+        if (isOverCapacity()) {
+            evict(key, previous != null);
+        }
+    }
+
+    /**
+     * Busca una entrada fresca u obsoleta (dentro de la ventana de obsolescencia).
+     *
+     * @param key Clave
+     * @return Resultado de la búsqueda o null si no hay nada utilizable
+     */
+    public Lookup<V> lookup(String key) {
+        sketch.increment(key);
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        long now = System.nanoTime();
+        if (now - entry.staleUntil >= 0) {
+            remove(key, entry);
+            misses.increment();
+            return null;
+        }
+
+        entry.lastAccess = now;
+        boolean fresh = now - entry.expiresAt < 0;
+        if (fresh) {
+            hits.increment();
+        } else {
+            staleHits.increment();
+        }
+        return new Lookup<>(entry.value, fresh);
+    }
+
+    /**
+     * Devuelve el valor (fresco u obsoleto) o null si no existe.
+     */
+    public V getIfPresent(String key) {
+        Lookup<V> lookup = lookup(key);
+        return lookup != null ? lookup.value() : null;
+    }
+
+    /**
+     * Valor (fresco u obsoleto) o null, sin contar como acceso: no suma aciertos ni fallos
+     * ni frecuencia para el desalojo. Para quien consulta la caché al escribir en ella.
+     */
+    public V peek(String key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || System.nanoTime() - entry.staleUntil >= 0) {
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Recarga la entrada en segundo plano si no hay ya una recarga en curso para esa clave.
+     *
+     * @param key Clave a revalidar
+     * @param loader Función que obtiene el valor actualizado (null si no hay valor nuevo)
+     * @return true si se lanzó la recarga
+     */
+    public boolean refreshAsync(String key, Supplier<V> loader) {
+        if (!refreshing.add(key)) {
+            return false;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    V value = loader.get();
+                    if (value != null) {
+                        put(key, value);
+                    }
+                } catch (Exception e) {
+                    logger.debug("Revalidación de '{}' fallida: {}", key, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            refreshing.remove(key);
+            logger.debug("No se pudo programar la revalidación de '{}': {}", key, e.getMessage());
+            return false;
+        }
+    }
+
+    public void invalidate(String key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            remove(key, entry);
+        }
+    }
+
+    public long size() {
+        return entries.size();
+    }
+
+    public long weight() {
+        return totalWeight.get();
+    }
+
+    /**
+     * Estadísticas de uso de la caché.
+     */
+    public Map<String, Object> stats() {
+        return Map.of(
+            "size", size(),
+            "weightBytes", weight(),
+            "hits", hits.sum(),
+            "staleHits", staleHits.sum(),
+            "misses", misses.sum(),
+            "evictions", evictions.sum(),
+            "rejections", rejections.sum()
+        );
+    }
+
+    private boolean isOverCapacity() {
+        return entries.size() > maximumSize || totalWeight.get() > maximumWeight;
+    }
+
+    /**
+     * Desaloja entradas hasta volver a la capacidad. Primero elimina las ya inservibles;
+     * después compara la entrada recién insertada con la víctima menos frecuente de una muestra.
+     * Una actualización de una clave existente siempre se admite.
+     */
+    private void evict(String candidateKey, boolean update) {
+        synchronized (evictionLock) {
+            long now = System.nanoTime();
+            entries.forEach((key, entry) -> {
+                if (now - entry.staleUntil >= 0) {
+                    remove(key, entry);
+                }
+            });
+
+            while (isOverCapacity()) {
+                String victimKey = selectVictim(candidateKey);
+                if (victimKey == null) {
+                    victimKey = candidateKey;
+                } else if (!update && sketch.frequency(candidateKey) < sketch.frequency(victimKey)) {
+                    // La entrada nueva es menos popular que la víctima: no se admite
+                    victimKey = candidateKey;
+                    rejections.increment();
+                }
+
+                Entry<V> victim = entries.get(victimKey);
+                if (victim == null || !remove(victimKey, victim)) {
+                    break;
+                }
+                if (victimKey.equals(candidateKey)) {
+                    break;
+                }
+                evictions.increment();
+            }
+        }
+    }
+
+    private String selectVictim(String candidateKey) {
+        String victimKey = null;
+        int victimFrequency = Integer.MAX_VALUE;
+        long victimAccess = Long.MAX_VALUE;
+        int sampled = 0;
+
+        Iterator<Map.Entry<String, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext() && sampled < EVICTION_SAMPLE_SIZE) {
+            Map.Entry<String, Entry<V>> current = iterator.next();
+            if (current.getKey().equals(candidateKey)) {
+                continue;
+            }
+            sampled++;
+            int frequency = sketch.frequency(current.getKey());
+            long access = current.getValue().lastAccess;
+            if (frequency < victimFrequency || (frequency == victimFrequency && access < victimAccess)) {
+                victimKey = current.getKey();
+                victimFrequency = frequency;
+                victimAccess = access;
+            }
+        }
+        return victimKey;
+    }
+
+    private boolean remove(String key, Entry<V> entry) {
+        if (entries.remove(key, entry)) {
+            totalWeight.addAndGet(-entry.weight);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Resultado de una búsqueda en la caché.
+     *
+     * @param value Valor almacenado
+     * @param fresh true si la entrada no ha superado su TTL
+     */
+    public record Lookup<V>(V value, boolean fresh) {
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long weight;
+        final long expiresAt;
+        final long staleUntil;
+        volatile long lastAccess;
+
+        Entry(V value, long weight, long expiresAt, long staleUntil, long lastAccess) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+            this.staleUntil = staleUntil;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
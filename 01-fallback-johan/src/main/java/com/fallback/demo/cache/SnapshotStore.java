@@ -0,0 +1,326 @@
+package com.fallback.demo.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * Copia en disco del último dato bueno de cada clave, para que tras un reinicio el fallback
+ * tenga datos desde la primera petición.
+ *
+ * El fichero es un registro de solo escritura al final. Cada registro es:
+ * {@code [longitud int][crc32 int][escrito long][longitud clave short][clave][valor]}, con el
+ * CRC calculado sobre todo lo que sigue a él.
+ *
+ * - {@link #append} no toca el disco: deja el valor pendiente y, si la misma clave se guarda
+ *   varias veces antes de escribir, solo se escribe la última. Un único hilo escribe los
+ *   pendientes cada {@code flushInterval} y hace {@code fsync}.
+ * - {@link #load} lee el fichero al arrancar y se queda con el último registro válido de cada
+ *   clave. Un registro con CRC erróneo o cortado (caída a mitad de escritura) marca el final:
+ *   el fichero se trunca ahí y se sigue escribiendo detrás.
+ * - Cuando el fichero supera {@code maxFileSize} se compacta: se reescribe en un temporal solo
+ *   con el último valor de cada clave, de más reciente a más antiguo, hasta la mitad del
+ *   máximo, y se sustituye de forma atómica.
+ */
+public class SnapshotStore implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotStore.class);
+
+    // crc32 + escrito + longitud de la clave
+    private static final int RECORD_OVERHEAD = Integer.BYTES + Long.BYTES + Short.BYTES;
+    private static final int HEADER = Integer.BYTES + RECORD_OVERHEAD;
+
+    private final Path file;
+    private final long maxFileSize;
+    private final long maxAgeMillis;
+    private final ConcurrentHashMap<String, Snapshot> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService writer;
+
+    // Solo los usa el hilo escritor (y load/close, antes y después de él)
+    private final Map<String, Snapshot> live = new LinkedHashMap<>();
+    private FileChannel channel;
+
+    private final AtomicLong fileSize = new AtomicLong();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder corrupted = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+
+    /**
+     * @param file Fichero del registro (se crea si no existe)
+     * @param maxFileSize Tamaño a partir del cual se compacta
+     * @param maxAge Antigüedad máxima de un dato para cargarlo o conservarlo al compactar
+     * @param flushInterval Cada cuánto se escriben los pendientes
+     */
+    public SnapshotStore(Path file, long maxFileSize, Duration maxAge, Duration flushInterval) {
+        this.file = file;
+        this.maxFileSize = maxFileSize;
+        this.maxAgeMillis = maxAge.toMillis();
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fallback-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = flushInterval.toMillis();
+        writer.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lee el fichero y devuelve el último valor de cada clave que no supera la antigüedad
+     * máxima. Debe llamarse una vez, antes de guardar nada.
+     *
+     * @return Valores por clave, de más antiguo a más reciente
+     */
+    public synchronized Map<String, Snapshot> load() throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES * 2);
+        while (position + HEADER <= size) {
+            header.clear();
+            readFully(header, position);
+            int length = header.getInt();
+            int crc = header.getInt();
+            int bodyLength = length - Integer.BYTES;
+            if (bodyLength < Long.BYTES + Short.BYTES || position + Integer.BYTES + length > size) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(bodyLength);
+            readFully(body, position + Integer.BYTES * 2);
+            if (crc32(body) != crc) {
+                break;
+            }
+            Snapshot snapshot = decode(body);
+            if (snapshot == null) {
+                break;
+            }
+            live.remove(snapshot.key());
+            live.put(snapshot.key(), snapshot);
+            position += Integer.BYTES + length;
+        }
+
+        if (position < size) {
+            corrupted.increment();
+            logger.warn("Snapshot {}: registro dañado en el byte {}; se descartan los {} bytes siguientes",
+                file, position, size - position);
+            channel.truncate(position);
+        }
+        channel.position(position);
+        fileSize.set(position);
+
+        long oldest = System.currentTimeMillis() - maxAgeMillis;
+        live.values().removeIf(snapshot -> snapshot.writtenAt() < oldest);
+        logger.info("Snapshot {}: {} entradas cargadas ({} bytes)", file, live.size(), position);
+        return new LinkedHashMap<>(live);
+    }
+
+    /**
+     * Deja un valor pendiente de escribir. El array no debe modificarse después.
+     */
+    public void append(String key, byte[] value) {
+        if (RECORD_OVERHEAD + Integer.BYTES + key.length() * 3L + value.length > maxFileSize / 2) {
+            rejected.increment();
+            return;
+        }
+        if (pending.put(key, new Snapshot(key, value, System.currentTimeMillis())) != null) {
+            coalesced.increment();
+        }
+    }
+
+    /**
+     * Escribe los pendientes y hace {@code fsync}; compacta si el fichero supera el máximo.
+     */
+    public synchronized void flush() throws IOException {
+        if (channel == null || pending.isEmpty()) {
+            return;
+        }
+        List<Snapshot> batch = new ArrayList<>(pending.size());
+        for (String key : pending.keySet()) {
+            Snapshot snapshot = pending.remove(key);
+            if (snapshot != null) {
+                batch.add(snapshot);
+            }
+        }
+        write(channel, batch);
+        channel.force(false);
+        for (Snapshot snapshot : batch) {
+            live.remove(snapshot.key());
+            live.put(snapshot.key(), snapshot);
+        }
+        written.add(batch.size());
+
+        if (fileSize.get() > maxFileSize) {
+            compact();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+            "file", file.toString(),
+            "fileBytes", fileSize.get(),
+            "pending", pending.size(),
+            "written", written.sum(),
+            "coalesced", coalesced.sum(),
+            "rejected", rejected.sum(),
+            "corrupted", corrupted.sum(),
+            "compactions", compactions.sum()
+        );
+    }
+
+    /**
+     * Escribe lo pendiente y cierra el fichero.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        writer.shutdown();
+        try {
+            flush();
+        } finally {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Snapshot {}: no se pudo escribir: {}", file, e.getMessage());
+        }
+    }
+
+    private void compact() throws IOException {
+        long oldest = System.currentTimeMillis() - maxAgeMillis;
+        List<Snapshot> kept = new ArrayList<>(live.values());
+        kept.removeIf(snapshot -> snapshot.writtenAt() < oldest);
+        kept.sort(Comparator.comparingLong(Snapshot::writtenAt).reversed());
+
+        long budget = maxFileSize / 2;
+        int count = 0;
+        for (Snapshot snapshot : kept) {
+            budget -= recordSize(snapshot);
+            if (budget < 0) {
+                break;
+            }
+            count++;
+        }
+        List<Snapshot> survivors = new ArrayList<>(kept.subList(0, count));
+        survivors.sort(Comparator.comparingLong(Snapshot::writtenAt));
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(out, survivors);
+            out.force(false);
+        }
+        long before = fileSize.get();
+        channel.close();
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        fileSize.set(channel.size());
+
+        live.clear();
+        survivors.forEach(snapshot -> live.put(snapshot.key(), snapshot));
+        compactions.increment();
+        logger.info("Snapshot {} compactado: {} -> {} bytes, {} entradas", file, before, fileSize.get(), live.size());
+    }
+
+    private void write(FileChannel out, List<Snapshot> snapshots) throws IOException {
+        int total = 0;
+        for (Snapshot snapshot : snapshots) {
+            total += recordSize(snapshot);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        for (Snapshot snapshot : snapshots) {
+            encode(snapshot, buffer);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            fileSize.addAndGet(out.write(buffer));
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+    }
+
+    private static int recordSize(Snapshot snapshot) {
+        return HEADER + snapshot.key().getBytes(StandardCharsets.UTF_8).length + snapshot.value().length;
+    }
+
+    private static void encode(Snapshot snapshot, ByteBuffer buffer) {
+        byte[] key = snapshot.key().getBytes(StandardCharsets.UTF_8);
+        int start = buffer.position();
+        buffer.putInt(RECORD_OVERHEAD + key.length + snapshot.value().length);
+        buffer.putInt(0);
+        int bodyStart = buffer.position();
+        buffer.putLong(snapshot.writtenAt());
+        buffer.putShort((short) key.length);
+        buffer.put(key);
+        buffer.put(snapshot.value());
+
+        ByteBuffer body = buffer.duplicate().position(bodyStart).limit(buffer.position());
+        buffer.putInt(start + Integer.BYTES, crc32(body));
+    }
+
+    private static Snapshot decode(ByteBuffer body) {
+        long writtenAt = body.getLong();
+        int keyLength = Short.toUnsignedInt(body.getShort());
+        if (keyLength > body.remaining()) {
+            return null;
+        }
+        byte[] key = new byte[keyLength];
+        body.get(key);
+        byte[] value = new byte[body.remaining()];
+        body.get(value);
+        return new Snapshot(new String(key, StandardCharsets.UTF_8), value, writtenAt);
+    }
+
+    private static int crc32(ByteBuffer body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Último valor guardado de una clave.
+     *
+     * @param key Clave
+     * @param value Valor tal como se guardó
+     * @param writtenAt Instante en que se guardó (epoch en milisegundos)
+     */
+    public record Snapshot(String key, byte[] value, long writtenAt) {
+    }
+}
@@ -0,0 +1,122 @@
+package com.fallback.demo.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Último cuerpo bueno de un recurso externo junto con sus validadores (ETag y Last-Modified),
+ * para revalidarlo con peticiones condicionales y recibirlo comprimido.
+ *
+ * {@link #addRequestHeaders} añade {@code Accept-Encoding: gzip} y, si hay un cuerpo guardado,
+ * {@code If-None-Match} / {@code If-Modified-Since} con los validadores tal como llegaron.
+ * Si el recurso no ha cambiado el servidor responde 304 sin cuerpo y {@link #notModified()}
+ * devuelve el guardado, ya procesado: no se transfiere ni se deserializa otra vez.
+ *
+ * Contadores: respuestas completas y 304, y bytes recibidos frente a bytes descomprimidos.
+ *
+ * @param <T> Cuerpo ya procesado que se reutiliza con un 304
+ */
+public class ConditionalResponseCache<T> {
+
+    private final boolean conditional;
+    private final boolean compression;
+    private volatile Entry<T> last;
+
+    private final AtomicLong fullResponses = new AtomicLong();
+    private final AtomicLong notModifiedResponses = new AtomicLong();
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicLong decodedBytes = new AtomicLong();
+
+    /**
+     * @param conditional Enviar los validadores del último cuerpo bueno
+     * @param compression Pedir la respuesta con gzip
+     */
+    public ConditionalResponseCache(boolean conditional, boolean compression) {
+        this.conditional = conditional;
+        this.compression = compression;
+    }
+
+    public void addRequestHeaders(BiConsumer<String, String> header) {
+        if (compression) {
+            header.accept("Accept-Encoding", "gzip");
+        }
+        Entry<T> entry = last;
+        if (entry == null) {
+            return;
+        }
+        if (entry.etag() != null) {
+            header.accept("If-None-Match", entry.etag());
+        }
+        if (entry.lastModified() != null) {
+            header.accept("If-Modified-Since", entry.lastModified());
+        }
+    }
+
+    /**
+     * Cuerpo que corresponde a una respuesta 304.
+     *
+     * @throws IllegalStateException si no hay cuerpo guardado (no se envió petición condicional)
+     */
+    public T notModified() {
+        Entry<T> entry = last;
+        if (entry == null) {
+            throw new IllegalStateException("Respuesta 304 sin cuerpo guardado con el que reutilizarla");
+        }
+        notModifiedResponses.incrementAndGet();
+        return entry.body();
+    }
+
+    /**
+     * Cuerpo de una respuesta completa, descomprimido según su {@code Content-Encoding}.
+     */
+    public byte[] decode(byte[] body, String contentEncoding) throws IOException {
+        fullResponses.incrementAndGet();
+        receivedBytes.addAndGet(body.length);
+        byte[] decoded;
+        if (contentEncoding == null || contentEncoding.isBlank() || "identity".equalsIgnoreCase(contentEncoding)) {
+            decoded = body;
+        } else if ("gzip".equalsIgnoreCase(contentEncoding.trim())) {
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                decoded = in.readAllBytes();
+            }
+        } else {
+            throw new IOException("Content-Encoding no soportado: " + contentEncoding);
+        }
+        decodedBytes.addAndGet(decoded.length);
+        return decoded;
+    }
+
+    /**
+     * Guarda el cuerpo bueno de una respuesta completa con sus validadores. Sin validadores no
+     * hay con qué revalidarlo y se descarta el anterior.
+     */
+    public void store(T body, String etag, String lastModified) {
+        if (!conditional) {
+            return;
+        }
+        last = etag == null && lastModified == null ? null : new Entry<>(body, etag, lastModified);
+    }
+
+    public long getFullResponses() {
+        return fullResponses.get();
+    }
+
+    public long getNotModifiedResponses() {
+        return notModifiedResponses.get();
+    }
+
+    public long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+
+    public long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+
+    private record Entry<T>(T body, String etag, String lastModified) {
+    }
+}
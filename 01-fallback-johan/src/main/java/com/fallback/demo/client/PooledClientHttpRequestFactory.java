@@ -0,0 +1,305 @@
+package com.fallback.demo.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fábrica de peticiones HTTP con pool de conexiones por ruta (esquema + host + puerto).
+ *
+ * Cada petición debe obtener un "lease" del pool de su ruta antes de ejecutarse y lo
+ * devuelve al cerrar la respuesta. Así el número de conexiones abiertas contra cada
+ * destino está acotado y, como el cliente subyacente mantiene las conexiones vivas
+ * (keep-alive), las peticiones siguientes reutilizan conexiones ya establecidas en lugar
+ * de abrir una nueva por llamada.
+ *
+ * Las llamadas asíncronas con el mismo HttpClient pasan por {@link #executeAsync}, que usa
+ * los mismos leases: el límite cubre todas las peticiones salientes, no solo las de
+ * RestTemplate.
+ *
+ * Si no hay conexión disponible en {@code acquireTimeout} la petición falla con
+ * {@link PoolAcquireTimeoutException}, en lugar de quedarse esperando indefinidamente.
+ *
+ * Métricas publicadas por ruta: {@code http.client.pool.leased}, {@code http.client.pool.pending},
+ * {@code http.client.pool.leases.available} y {@code http.client.pool.acquire.timeouts}. Los
+ * leases disponibles son permisos libres del semáforo de la ruta, es decir, peticiones que aún
+ * pueden empezar; no conexiones ociosas, que las gestiona el HttpClient.
+ */
+public class PooledClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final ClientHttpRequestFactory delegate;
+    private final int maxPerRoute;
+    private final Semaphore totalPermits;
+    private final int maxTotal;
+    private final long acquireTimeoutNanos;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RoutePool> pools = new ConcurrentHashMap<>();
+
+    public PooledClientHttpRequestFactory(ClientHttpRequestFactory delegate, int maxPerRoute, int maxTotal,
+                                          Duration acquireTimeout, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxPerRoute = maxPerRoute;
+        this.maxTotal = maxTotal;
+        this.totalPermits = new Semaphore(maxTotal, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        return new PooledRequest(delegate.createRequest(uri, httpMethod), poolOf(uri));
+    }
+
+    /**
+     * Lanza una petición asíncrona con un lease del pool de su ruta, que se devuelve cuando el
+     * futuro se completa (también si se cancela).
+     *
+     * No espera: si no hay lease libre el futuro falla enseguida con
+     * {@link PoolAcquireTimeoutException}, porque esperar bloquearía el hilo que lanza la llamada.
+     *
+     * @param uri Destino de la petición
+     * @param send Lanza la petición; cancelar su futuro debe cancelarla
+     * @return El futuro de {@code send}
+     */
+    public <T> CompletableFuture<T> executeAsync(URI uri, Supplier<CompletableFuture<T>> send) {
+        RoutePool pool = poolOf(uri);
+        if (!tryAcquireNow(pool)) {
+            return CompletableFuture.failedFuture(acquireTimeout(pool, "sin espera"));
+        }
+        CompletableFuture<T> future;
+        try {
+            future = send.get();
+        } catch (RuntimeException | Error e) {
+            release(pool);
+            throw e;
+        }
+        future.whenComplete((result, error) -> release(pool));
+        return future;
+    }
+
+    /**
+     * Estado actual de los pools, por ruta.
+     */
+    public Map<String, Map<String, Integer>> stats() {
+        Map<String, Map<String, Integer>> stats = new LinkedHashMap<>();
+        pools.forEach((route, pool) -> stats.put(route, Map.of(
+            "leased", pool.leased.get(),
+            "pending", pool.pending.get(),
+            "availableLeases", pool.permits.availablePermits(),
+            "max", maxPerRoute
+        )));
+        return stats;
+    }
+
+    private RoutePool poolOf(URI uri) {
+        return pools.computeIfAbsent(routeOf(uri), this::createPool);
+    }
+
+    private RoutePool createPool(String route) {
+        RoutePool pool = new RoutePool(maxPerRoute);
+        Gauge.builder("http.client.pool.leased", pool.leased, AtomicInteger::get)
+            .description("Conexiones en uso")
+            .tag("route", route)
+            .register(meterRegistry);
+        Gauge.builder("http.client.pool.pending", pool.pending, AtomicInteger::get)
+            .description("Peticiones esperando una conexión")
+            .tag("route", route)
+            .register(meterRegistry);
+        Gauge.builder("http.client.pool.leases.available", pool.permits, Semaphore::availablePermits)
+            .description("Leases disponibles: peticiones que aún pueden empezar antes de alcanzar el máximo")
+            .tag("route", route)
+            .register(meterRegistry);
+        pool.acquireTimeouts = Counter.builder("http.client.pool.acquire.timeouts")
+            .description("Peticiones que no obtuvieron conexión a tiempo")
+            .tag("route", route)
+            .register(meterRegistry);
+        return pool;
+    }
+
+    private static String routeOf(URI uri) {
+        int port = uri.getPort();
+        if (port == -1) {
+            port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        }
+        return uri.getScheme() + "://" + uri.getHost() + ":" + port;
+    }
+
+    /**
+     * Obtiene un lease del pool de la ruta y del límite global, respetando el timeout.
+     */
+    private void acquire(RoutePool pool) throws IOException {
+        long deadline = System.nanoTime() + acquireTimeoutNanos;
+        pool.pending.incrementAndGet();
+        try {
+            if (!pool.permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw acquireTimeout(pool, "tras " + TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos) + " ms");
+            }
+            if (!totalPermits.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                pool.permits.release();
+                throw acquireTimeout(pool, "tras " + TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos) + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrumpido esperando una conexión del pool", e);
+        } finally {
+            pool.pending.decrementAndGet();
+        }
+        pool.leased.incrementAndGet();
+    }
+
+    private boolean tryAcquireNow(RoutePool pool) {
+        if (!pool.permits.tryAcquire()) {
+            return false;
+        }
+        if (!totalPermits.tryAcquire()) {
+            pool.permits.release();
+            return false;
+        }
+        pool.leased.incrementAndGet();
+        return true;
+    }
+
+    private void release(RoutePool pool) {
+        pool.leased.decrementAndGet();
+        totalPermits.release();
+        pool.permits.release();
+    }
+
+    private PoolAcquireTimeoutException acquireTimeout(RoutePool pool, String wait) {
+        pool.acquireTimeouts.increment();
+        return new PoolAcquireTimeoutException(
+            "No hay conexión disponible " + wait + " (máximo por ruta " + maxPerRoute + ", total " + maxTotal + ")");
+    }
+
+    private static final class RoutePool {
+        final Semaphore permits;
+        final AtomicInteger leased = new AtomicInteger();
+        final AtomicInteger pending = new AtomicInteger();
+        Counter acquireTimeouts;
+
+        RoutePool(int maxPerRoute) {
+            this.permits = new Semaphore(maxPerRoute, true);
+        }
+    }
+
+    /**
+     * Excepción lanzada cuando no se obtiene una conexión del pool a tiempo.
+     */
+    public static class PoolAcquireTimeoutException extends IOException {
+        public PoolAcquireTimeoutException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Petición que obtiene el lease al ejecutarse y lo ata a la respuesta.
+     */
+    private final class PooledRequest implements ClientHttpRequest {
+
+        private final ClientHttpRequest request;
+        private final RoutePool pool;
+
+        PooledRequest(ClientHttpRequest request, RoutePool pool) {
+            this.request = request;
+            this.pool = pool;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            acquire(pool);
+            try {
+                return new PooledResponse(request.execute(), pool);
+            } catch (IOException | RuntimeException e) {
+                release(pool);
+                throw e;
+            }
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return request.getBody();
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return request.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return request.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return request.getHeaders();
+        }
+    }
+
+    /**
+     * Respuesta que devuelve el lease al pool (una sola vez) cuando se cierra.
+     */
+    private final class PooledResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+        private final RoutePool pool;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        PooledResponse(ClientHttpResponse response, RoutePool pool) {
+            this.response = response;
+            this.pool = pool;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    release(pool);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package com.fallback.demo.cluster;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparte el estado del Circuit Breaker {@code externalService} entre instancias por UDP
+ * ({@code cluster.gossip.enabled=true}).
+ *
+ * Cada instancia envía a sus {@code peers} su estado en cuanto cambia y, cada
+ * {@code interval}, junto con las llamadas registradas y fallidas de su ventana. Con eso:
+ * - Cuando una instancia abre el circuito por sus propios fallos, las demás lo abren también,
+ *   sin esperar a acumular {@code minimumNumberOfCalls} fallos cada una
+ * - La tasa de fallos se suma entre las instancias con el circuito cerrado: si el total ya
+ *   supera el umbral (con el mínimo de llamadas entre todas), se abre en todas
+ * - Solo las {@code probe-instances} primeras instancias vivas (por identificador) hacen las
+ *   llamadas de prueba en {@code HALF_OPEN}; las demás vuelven a {@code OPEN} y cierran
+ *   cuando una de ellas informa de que ha cerrado
+ *
+ * Solo se propagan las transiciones decididas con llamadas reales (de la instancia o sumadas
+ * entre todas); las que solo siguen a otra instancia se anuncian marcadas como tales y no
+ * vuelven a propagarse. Para ordenar transiciones de
+ * instancias distintas se usa el reloj del sistema, por lo que está pensado para instancias en
+ * el mismo host o con relojes sincronizados. Un mensaje perdido se recupera con el siguiente
+ * anuncio periódico; una instancia que deja de anunciarse durante {@code peer-timeout} deja de
+ * contar (y, si hacía las pruebas, otra ocupa su lugar).
+ *
+ * Métricas: {@code cluster.gossip.peers} y {@code cluster.gossip.transitions{cause}}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "cluster.gossip", name = "enabled", havingValue = "true")
+public class BreakerGossip {
+
+    private static final Logger logger = LoggerFactory.getLogger(BreakerGossip.class);
+
+    private static final String CIRCUIT_BREAKER_NAME = "externalService";
+    private static final String PROTOCOL = "cb1";
+    private static final int MAX_PACKET_SIZE = 512;
+
+    /**
+     * Origen de una transición. Las aperturas {@code LOCAL} y {@code FLEET} se propagan a las
+     * demás instancias; las demás son consecuencia de otra transición y no se propagan.
+     */
+    enum Cause {
+        /** Llamadas reales de esta instancia */
+        LOCAL,
+        /** Transición de otra instancia */
+        REMOTE,
+        /** Tasa de fallos sumada entre instancias (las que la cumplen ya no suman: se propaga) */
+        FLEET,
+        /** Vuelta a OPEN de una instancia que no hace las llamadas de prueba */
+        HOLD
+    }
+
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final String instanceId;
+    private final InetSocketAddress bindAddress;
+    private final List<InetSocketAddress> peers;
+    private final long intervalMillis;
+    private final long peerTimeoutMillis;
+    private final int probeInstances;
+    private final Map<String, PeerState> peerStates = new ConcurrentHashMap<>();
+    private final ThreadLocal<Cause> drivingCause = new ThreadLocal<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "breaker-gossip");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile long lastTransitionAt = System.currentTimeMillis();
+    // Última apertura que no es una vuelta a OPEN para no hacer pruebas: un cierre posterior
+    // de la instancia que las hace significa que el servicio se ha recuperado
+    private volatile long lastOpenedAt;
+    private volatile Cause lastCause = Cause.LOCAL;
+    private DatagramSocket socket;
+
+    public BreakerGossip(CircuitBreakerRegistry circuitBreakerRegistry,
+                         MeterRegistry meterRegistry,
+                         @Value("${cluster.gossip.instance-id:}") String instanceId,
+                         @Value("${cluster.gossip.bind-address:127.0.0.1}") String bindAddress,
+                         @Value("${cluster.gossip.port:47100}") int port,
+                         @Value("${cluster.gossip.peers:}") List<String> peers,
+                         @Value("${cluster.gossip.interval:1s}") Duration interval,
+                         @Value("${cluster.gossip.peer-timeout:3s}") Duration peerTimeout,
+                         @Value("${cluster.gossip.probe-instances:1}") int probeInstances) {
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER_NAME);
+        this.meterRegistry = meterRegistry;
+        this.instanceId = instanceId.isBlank() ? bindAddress + ":" + port : instanceId;
+        this.bindAddress = new InetSocketAddress(bindAddress, port);
+        this.peers = new ArrayList<>();
+        for (String peer : peers) {
+            if (!peer.isBlank()) {
+                InetSocketAddress address = parseAddress(peer.trim());
+                if (!address.equals(this.bindAddress)) {
+                    this.peers.add(address);
+                }
+            }
+        }
+        this.intervalMillis = interval.toMillis();
+        this.peerTimeoutMillis = peerTimeout.toMillis();
+        this.probeInstances = Math.max(1, probeInstances);
+    }
+
+    @PostConstruct
+    public void start() throws SocketException {
+        socket = new DatagramSocket(bindAddress);
+
+        Gauge.builder("cluster.gossip.peers", this, gossip -> gossip.livePeers().size())
+            .description("Instancias que se han anunciado dentro de peer-timeout")
+            .register(meterRegistry);
+
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            Cause cause = drivingCause.get();
+            lastTransitionAt = System.currentTimeMillis();
+            lastCause = cause != null ? cause : Cause.LOCAL;
+            CircuitBreaker.State toState = event.getStateTransition().getToState();
+            if (toState == CircuitBreaker.State.OPEN && lastCause != Cause.HOLD) {
+                lastOpenedAt = lastTransitionAt;
+            }
+            if (cause == null && toState == CircuitBreaker.State.HALF_OPEN && !isProber()) {
+                submit(this::holdOpen);
+            }
+            submit(this::announce);
+        });
+
+        Thread receiver = new Thread(this::receiveLoop, "breaker-gossip-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+        scheduler.scheduleAtFixedRate(this::announce, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("Gossip del Circuit Breaker {} como {} en {}, peers {}",
+            CIRCUIT_BREAKER_NAME, instanceId, bindAddress, peers);
+    }
+
+    /**
+     * Estado de esta instancia y de las demás tal como se ven desde aquí.
+     */
+    public Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("instanceId", instanceId);
+        description.put("state", circuitBreaker.getState().toString());
+        description.put("lastCause", lastCause.name());
+        description.put("prober", isProber());
+        List<Map<String, Object>> peerList = new ArrayList<>();
+        for (PeerState peer : livePeers()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("instanceId", peer.instanceId());
+            entry.put("state", peer.state().toString());
+            entry.put("cause", peer.cause().name());
+            entry.put("bufferedCalls", peer.bufferedCalls());
+            entry.put("failedCalls", peer.failedCalls());
+            peerList.add(entry);
+        }
+        description.put("peers", peerList);
+        return description;
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        if (socket != null) {
+            socket.close();
+        }
+    }
+
+    private void announce() {
+        CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+        String message = String.join("|", PROTOCOL, instanceId, CIRCUIT_BREAKER_NAME,
+            circuitBreaker.getState().name(), String.valueOf(lastTransitionAt), lastCause.name(),
+            String.valueOf(metrics.getNumberOfBufferedCalls()), String.valueOf(metrics.getNumberOfFailedCalls()));
+        byte[] data = message.getBytes(StandardCharsets.UTF_8);
+        for (InetSocketAddress peer : peers) {
+            try {
+                socket.send(new DatagramPacket(data, data.length, peer));
+            } catch (IOException e) {
+                logger.debug("No se pudo enviar el estado a {}: {}", peer, e.getMessage());
+            }
+        }
+    }
+
+    private void receiveLoop() {
+        byte[] buffer = new byte[MAX_PACKET_SIZE];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    logger.warn("Error al recibir del gossip: {}", e.getMessage());
+                }
+                continue;
+            }
+            PeerState peer = PeerState.parse(new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8));
+            if (peer != null && !peer.instanceId().equals(instanceId)) {
+                peerStates.put(peer.instanceId(), peer);
+                submit(() -> onPeerState(peer));
+            }
+        }
+    }
+
+    /**
+     * Decide si el estado de otra instancia cambia el de esta. Se ejecuta en el hilo del
+     * gossip, uno cada vez.
+     */
+    private void onPeerState(PeerState peer) {
+        CircuitBreaker.State local = circuitBreaker.getState();
+        boolean newer = peer.transitionAt() > lastTransitionAt;
+
+        if (local == CircuitBreaker.State.CLOSED && peer.state() == CircuitBreaker.State.OPEN
+                && (peer.cause() == Cause.LOCAL || peer.cause() == Cause.FLEET) && newer) {
+            logger.warn("Circuito abierto por {}: se abre también aquí", peer.instanceId());
+            transition(Cause.REMOTE, circuitBreaker::transitionToOpenState);
+            return;
+        }
+        if ((local == CircuitBreaker.State.OPEN || local == CircuitBreaker.State.HALF_OPEN)
+                && peer.state() == CircuitBreaker.State.CLOSED && peer.cause() == Cause.LOCAL
+                && peer.transitionAt() > lastOpenedAt && !isProber() && probers().contains(peer.instanceId())) {
+            logger.info("{} cerró el circuito tras sus llamadas de prueba: se cierra también aquí", peer.instanceId());
+            transition(Cause.REMOTE, circuitBreaker::transitionToClosedState);
+            return;
+        }
+        if (local == CircuitBreaker.State.CLOSED && fleetFailureRateExceeded()) {
+            logger.warn("Tasa de fallos sumada entre instancias por encima del umbral: se abre el circuito");
+            transition(Cause.FLEET, circuitBreaker::transitionToOpenState);
+        }
+    }
+
+    private boolean fleetFailureRateExceeded() {
+        CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+        long buffered = metrics.getNumberOfBufferedCalls();
+        long failed = metrics.getNumberOfFailedCalls();
+        for (PeerState peer : livePeers()) {
+            if (peer.state() == CircuitBreaker.State.CLOSED) {
+                buffered += peer.bufferedCalls();
+                failed += peer.failedCalls();
+            }
+        }
+        return buffered > 0
+            && buffered >= circuitBreaker.getCircuitBreakerConfig().getMinimumNumberOfCalls()
+            && failed * 100f / buffered >= circuitBreaker.getCircuitBreakerConfig().getFailureRateThreshold();
+    }
+
+    /**
+     * Esta instancia no hace llamadas de prueba: vuelve a OPEN (y a esperar
+     * {@code waitDurationInOpenState}) hasta que una de las que las hacen cierre el circuito.
+     */
+    private void holdOpen() {
+        if (circuitBreaker.getState() == CircuitBreaker.State.HALF_OPEN && !isProber()) {
+            transition(Cause.HOLD, circuitBreaker::transitionToOpenState);
+        }
+    }
+
+    private void transition(Cause cause, Runnable transition) {
+        drivingCause.set(cause);
+        try {
+            transition.run();
+            Counter.builder("cluster.gossip.transitions")
+                .description("Transiciones del Circuit Breaker provocadas por el gossip")
+                .tag("cause", cause.name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+        } catch (RuntimeException e) {
+            // p. ej. la transición ya no es válida porque el estado cambió entretanto
+            logger.debug("Transición {} descartada: {}", cause, e.getMessage());
+        } finally {
+            drivingCause.remove();
+        }
+    }
+
+    private boolean isProber() {
+        return probers().contains(instanceId);
+    }
+
+    /**
+     * Las {@code probe-instances} primeras instancias vivas por identificador, esta incluida.
+     */
+    private List<String> probers() {
+        List<String> members = new ArrayList<>();
+        members.add(instanceId);
+        for (PeerState peer : livePeers()) {
+            members.add(peer.instanceId());
+        }
+        members.sort(null);
+        return members.subList(0, Math.min(probeInstances, members.size()));
+    }
+
+    private List<PeerState> livePeers() {
+        long now = System.currentTimeMillis();
+        List<PeerState> live = new ArrayList<>();
+        for (PeerState peer : peerStates.values()) {
+            if (now - peer.receivedAt() <= peerTimeoutMillis) {
+                live.add(peer);
+            }
+        }
+        return live;
+    }
+
+    private void submit(Runnable task) {
+        try {
+            scheduler.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Apagando
+        }
+    }
+
+    private static InetSocketAddress parseAddress(String value) {
+        int separator = value.lastIndexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("cluster.gossip.peers debe tener la forma host:puerto: " + value);
+        }
+        try {
+            return new InetSocketAddress(InetAddress.getByName(value.substring(0, separator)),
+                Integer.parseInt(value.substring(separator + 1)));
+        } catch (IOException | NumberFormatException e) {
+            throw new IllegalArgumentException("Peer de gossip no válido: " + value, e);
+        }
+    }
+
+    /**
+     * Último anuncio recibido de otra instancia.
+     */
+    record PeerState(String instanceId, CircuitBreaker.State state, long transitionAt, Cause cause,
+                     int bufferedCalls, int failedCalls, long receivedAt) {
+
+        /**
+         * @return El estado anunciado, o null si el mensaje no es de este protocolo o de este
+         *         Circuit Breaker
+         */
+        static PeerState parse(String message) {
+            String[] fields = message.split("\\|");
+            if (fields.length != 8 || !PROTOCOL.equals(fields[0]) || !CIRCUIT_BREAKER_NAME.equals(fields[2])) {
+                return null;
+            }
+            try {
+                return new PeerState(fields[1], CircuitBreaker.State.valueOf(fields[3]), Long.parseLong(fields[4]),
+                    Cause.valueOf(fields[5]), Integer.parseInt(fields[6]), Integer.parseInt(fields[7]),
+                    System.currentTimeMillis());
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
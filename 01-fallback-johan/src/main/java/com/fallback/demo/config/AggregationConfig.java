@@ -0,0 +1,13 @@
+package com.fallback.demo.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Habilita la configuración del endpoint de agregación. La lista de servicios no cabe en
+ * propiedades sueltas con {@code @Value}, así que se enlaza como un solo objeto.
+ */
+@Configuration
+@EnableConfigurationProperties(AggregationProperties.class)
+public class AggregationConfig {
+}
@@ -0,0 +1,32 @@
+package com.fallback.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Servicios que combina el endpoint de agregación ({@code external.aggregation.*}).
+ *
+ * @param deadline Tiempo máximo de la petición agregada; lo que no haya respondido se da por
+ *                 agotado y se devuelve lo que haya
+ * @param maxConcurrentCalls Llamadas simultáneas por servicio si no se indica otra cosa
+ * @param upstreams Servicios por nombre
+ */
+@ConfigurationProperties(prefix = "external.aggregation")
+public record AggregationProperties(@DefaultValue("1500ms") Duration deadline,
+                                    @DefaultValue("20") int maxConcurrentCalls,
+                                    Map<String, Upstream> upstreams) {
+
+    /**
+     * @param url URL del servicio
+     * @param maxConcurrentCalls Llamadas simultáneas (null = valor general)
+     */
+    public record Upstream(String url, Integer maxConcurrentCalls) {
+    }
+
+    public Map<String, Upstream> upstreams() {
+        return upstreams != null ? upstreams : Map.of();
+    }
+}
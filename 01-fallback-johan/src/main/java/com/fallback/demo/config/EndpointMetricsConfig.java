@@ -0,0 +1,20 @@
+package com.fallback.demo.config;
+
+import com.arquitectura.resilience.metrics.EndpointMetrics;
+import com.fallback.demo.metrics.Endpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Métricas por endpoint y resultado: se consultan en
+ * {@code /actuator/metrics/demo.endpoint.requests} filtrando por {@code endpoint} y {@code outcome}.
+ */
+@Configuration
+public class EndpointMetricsConfig {
+
+    @Bean
+    public EndpointMetrics<Endpoint> endpointMetrics(MeterRegistry meterRegistry) {
+        return new EndpointMetrics<>(meterRegistry, Endpoint.class, Endpoint::getTag);
+    }
+}
@@ -0,0 +1,58 @@
+package com.fallback.demo.config;
+
+import com.fallback.demo.cache.FallbackCache;
+import com.fallback.demo.cache.SnapshotStore;
+import com.fallback.demo.model.PreparedResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Configuración de la caché de fallback.
+ * El peso de cada entrada es el tamaño de su representación JSON, que ya viene serializada.
+ * La copia en disco de los últimos datos buenos ({@link SnapshotStore}) se puede desactivar
+ * con {@code fallback.snapshot.enabled=false}.
+ */
+@Configuration
+public class FallbackCacheConfig {
+
+    @Bean
+    public FallbackCache<PreparedResponse> fallbackCache(
+            @Value("${fallback.cache.maximum-size:1000}") long maximumSize,
+            @Value("${fallback.cache.maximum-weight:10MB}") DataSize maximumWeight,
+            @Value("${fallback.cache.time-to-live:30s}") Duration timeToLive,
+            @Value("${fallback.cache.stale-window:10m}") Duration staleWindow) {
+
+        ExecutorService refreshExecutor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "fallback-cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        return new FallbackCache<>(
+            maximumSize,
+            maximumWeight.toBytes(),
+            timeToLive,
+            staleWindow,
+            value -> value.json().length,
+            refreshExecutor
+        );
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "fallback.snapshot", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public SnapshotStore snapshotStore(
+            @Value("${fallback.snapshot.file:data/fallback-snapshot.log}") Path file,
+            @Value("${fallback.snapshot.max-file-size:4MB}") DataSize maxFileSize,
+            @Value("${fallback.snapshot.max-age:${fallback.cache.stale-window:10m}}") Duration maxAge,
+            @Value("${fallback.snapshot.flush-interval:1s}") Duration flushInterval) {
+        return new SnapshotStore(file, maxFileSize.toBytes(), maxAge, flushInterval);
+    }
+}
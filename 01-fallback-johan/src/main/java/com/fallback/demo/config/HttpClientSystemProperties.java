@@ -0,0 +1,36 @@
+package com.fallback.demo.config;
+
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.time.Duration;
+
+/**
+ * Fija las propiedades del sistema que configuran el pool interno del HttpClient del JDK.
+ *
+ * El JDK las lee una sola vez, al crear el primer cliente, así que no pueden fijarse desde
+ * un {@code @Bean}: otro bean podría haber creado ya un HttpClient. Se registra en
+ * {@code Application.main} y se ejecuta en cuanto se carga la configuración, antes de crear
+ * ningún bean. Una propiedad pasada con {@code -D} tiene prioridad.
+ */
+public class HttpClientSystemProperties implements ApplicationListener<ApplicationEnvironmentPreparedEvent> {
+
+    @Override
+    public void onApplicationEvent(ApplicationEnvironmentPreparedEvent event) {
+        ConfigurableEnvironment environment = event.getEnvironment();
+        Duration keepAlive = environment.getProperty("external.service.client.keep-alive", Duration.class,
+            Duration.ofSeconds(30));
+        int maxConnectionsTotal = environment.getProperty("external.service.client.max-connections-total",
+            Integer.class, 200);
+
+        setIfAbsent("jdk.httpclient.keepalive.timeout", String.valueOf(keepAlive.toSeconds()));
+        setIfAbsent("jdk.httpclient.connectionPoolSize", String.valueOf(maxConnectionsTotal));
+    }
+
+    private static void setIfAbsent(String property, String value) {
+        if (System.getProperty(property) == null) {
+            System.setProperty(property, value);
+        }
+    }
+}
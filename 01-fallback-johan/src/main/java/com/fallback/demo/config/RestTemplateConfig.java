@@ -1,18 +1,82 @@
 package com.fallback.demo.config;
 
+import com.fallback.demo.client.PooledClientHttpRequestFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * Configuración para RestTemplate usado para llamar al servicio externo.
+ *
+ * Usa el HttpClient del JDK (conexiones persistentes con keep-alive) detrás de un pool
+ * por ruta con timeouts estrictos de conexión, lectura y obtención de conexión, para que
+ * una llamada nunca se quede colgada más allá del umbral del Circuit Breaker.
  */
 @Configuration
 public class RestTemplateConfig {
 
+    @Value("${external.service.client.connect-timeout:500ms}")
+    private Duration connectTimeout;
+
+    @Value("${external.service.client.read-timeout:2s}")
+    private Duration readTimeout;
+
+    @Value("${external.service.client.pool-acquire-timeout:200ms}")
+    private Duration poolAcquireTimeout;
+
+    @Value("${external.service.client.max-connections-per-route:50}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${external.service.client.max-connections-total:200}")
+    private int maxConnectionsTotal;
+
+    @Value("${external.service.client.io-threads:4}")
+    private int ioThreads;
+
+    @Bean
+    public HttpClient externalHttpClient() {
+        // El keep-alive y el tamaño del pool interno los fija HttpClientSystemProperties al arrancar
+        // Hilos fijos para completar las llamadas asíncronas: el número de llamadas en curso
+        // no depende del número de hilos
+        ExecutorService executor = Executors.newFixedThreadPool(ioThreads, runnable -> {
+            Thread thread = new Thread(runnable, "external-http-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        return HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(executor)
+            .connectTimeout(connectTimeout)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    }
+
+    @Bean
+    public PooledClientHttpRequestFactory pooledClientHttpRequestFactory(HttpClient externalHttpClient,
+                                                                         MeterRegistry meterRegistry) {
+        JdkClientHttpRequestFactory jdkFactory = new JdkClientHttpRequestFactory(externalHttpClient);
+        jdkFactory.setReadTimeout(readTimeout);
+
+        return new PooledClientHttpRequestFactory(
+            jdkFactory,
+            maxConnectionsPerRoute,
+            maxConnectionsTotal,
+            poolAcquireTimeout,
+            meterRegistry
+        );
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(PooledClientHttpRequestFactory pooledClientHttpRequestFactory) {
+        return new RestTemplate(pooledClientHttpRequestFactory);
     }
 }
-
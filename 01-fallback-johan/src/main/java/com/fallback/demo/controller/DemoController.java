@@ -1,16 +1,34 @@
 package com.fallback.demo.controller;
 
+import com.arquitectura.resilience.metrics.CallOutcome;
+import com.arquitectura.resilience.metrics.EndpointMetrics;
+import com.fallback.demo.client.PooledClientHttpRequestFactory;
+import com.fallback.demo.cluster.BreakerGossip;
+import com.fallback.demo.metrics.CircuitBreakerSnapshot;
+import com.fallback.demo.metrics.CircuitBreakerStream;
+import com.fallback.demo.metrics.Endpoint;
+import com.fallback.demo.model.AggregatedResponse;
+import com.fallback.demo.model.PreparedResponse;
+import com.fallback.demo.model.SourceResult;
+import com.fallback.demo.service.AggregationService;
+import com.fallback.demo.service.CachedDataService;
 import com.fallback.demo.service.ExternalApiService;
+import com.fallback.demo.service.ExternalDataResult;
+import com.fallback.demo.service.FallbackService;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controlador REST para demostrar el funcionamiento del Circuit Breaker y Fallback.
@@ -19,55 +37,141 @@ import java.util.Map;
 @RequestMapping("/api/demo")
 public class DemoController {
 
+    @Autowired
+    private CachedDataService cachedDataService;
+
     @Autowired
     private ExternalApiService externalApiService;
 
+    @Autowired
+    private FallbackService fallbackService;
+
     @Autowired
     private CircuitBreakerRegistry circuitBreakerRegistry;
 
+    @Autowired
+    private PooledClientHttpRequestFactory pooledClientHttpRequestFactory;
+
+    @Autowired
+    private EndpointMetrics<Endpoint> endpointMetrics;
+
+    @Autowired
+    private CircuitBreakerStream circuitBreakerStream;
+
+    @Autowired
+    private AggregationService aggregationService;
+
+    @Autowired(required = false)
+    private BreakerGossip breakerGossip;
+
+    private volatile ComposedBody lastComposed;
+
     /**
      * Endpoint principal de demostración.
      * Llama al servicio externo y muestra el resultado (o fallback si falla).
      * 
      * @return Respuesta con datos del servicio externo o del fallback
      */
-    @GetMapping("/data")
-    public ResponseEntity<Map<String, Object>> getData() {
-        Map<String, Object> response = externalApiService.getExternalData();
-        
-        // Agregar información del Circuit Breaker
-        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("externalService");
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("circuitBreakerState", circuitBreaker.getState().toString());
-        metadata.put("failureRate", circuitBreaker.getMetrics().getFailureRate());
-        metadata.put("numberOfSuccessfulCalls", circuitBreaker.getMetrics().getNumberOfSuccessfulCalls());
-        metadata.put("numberOfFailedCalls", circuitBreaker.getMetrics().getNumberOfFailedCalls());
-        
-        response.put("_metadata", metadata);
-        
-        return ResponseEntity.ok(response);
+    @GetMapping(value = "/data", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getData() {
+        long start = System.nanoTime();
+        ExternalDataResult result = cachedDataService.getData();
+        endpointMetrics.record(Endpoint.DATA, result.outcome(), start);
+        return ResponseEntity.ok(withMetadata(result.data()));
+    }
+
+    /**
+     * Variante no bloqueante del endpoint principal.
+     * El hilo del servidor se libera mientras se espera al servicio externo.
+     *
+     * @return Futuro con los datos del servicio externo o del fallback
+     */
+    @GetMapping(value = "/data/async", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<byte[]>> getDataAsync() {
+        long start = System.nanoTime();
+        return externalApiService.getExternalDataAsync()
+            .thenApply(result -> {
+                endpointMetrics.record(Endpoint.DATA_ASYNC, result.outcome(), start);
+                return ResponseEntity.ok(withMetadata(result.data()));
+            });
+    }
+
+    /**
+     * Endpoint de agregación: llama en paralelo a todos los servicios configurados en
+     * {@code external.aggregation.upstreams}, cada uno con su Circuit Breaker, Bulkhead y
+     * fallback, y responde como tarde al vencer el plazo con lo que haya.
+     *
+     * @return Resultado por servicio y si la respuesta está completa
+     */
+    @GetMapping("/aggregate")
+    public CompletableFuture<ResponseEntity<AggregatedResponse>> aggregate() {
+        long start = System.nanoTime();
+        return aggregationService.aggregate()
+            .thenApply(response -> {
+                endpointMetrics.record(Endpoint.AGGREGATE, outcomeOf(response), start);
+                return ResponseEntity.ok(response);
+            });
+    }
+
+    /**
+     * Agrega la información del Circuit Breaker a la respuesta ya serializada, sin
+     * modificar la original (puede venir de la caché) ni pasar por Jackson. Los metadatos son
+     * la última foto del stream, también serializada.
+     *
+     * Se recuerda el último resultado: durante una caída todas las peticiones sirven el mismo
+     * fallback con la misma foto, así que el cuerpo se reutiliza sin reservar memoria.
+     */
+    private byte[] withMetadata(PreparedResponse data) {
+        byte[] metadata = circuitBreakerStream.currentMetadataJson();
+        ComposedBody last = lastComposed;
+        if (last != null && last.data() == data && last.metadata() == metadata) {
+            return last.json();
+        }
+        byte[] json = data.withField("_metadata", metadata);
+        lastComposed = new ComposedBody(data, metadata, json);
+        return json;
     }
 
     /**
      * Endpoint para obtener el estado del Circuit Breaker.
+     * Devuelve la última foto publicada (como mucho un intervalo del stream de antigüedad).
      * 
      * @return Estado actual del Circuit Breaker
      */
     @GetMapping("/circuit-breaker/status")
     public ResponseEntity<Map<String, Object>> getCircuitBreakerStatus() {
-        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("externalService");
-        
-        Map<String, Object> status = new HashMap<>();
-        status.put("state", circuitBreaker.getState().toString());
-        status.put("failureRate", circuitBreaker.getMetrics().getFailureRate());
-        status.put("numberOfSuccessfulCalls", circuitBreaker.getMetrics().getNumberOfSuccessfulCalls());
-        status.put("numberOfFailedCalls", circuitBreaker.getMetrics().getNumberOfFailedCalls());
-        status.put("numberOfNotPermittedCalls", circuitBreaker.getMetrics().getNumberOfNotPermittedCalls());
-        status.put("numberOfBufferedCalls", circuitBreaker.getMetrics().getNumberOfBufferedCalls());
-        
+        CircuitBreakerSnapshot snapshot = circuitBreakerStream.current();
+
+        Map<String, Object> status = new LinkedHashMap<>(snapshot.toMap());
+        status.put("timestamp", snapshot.timestamp());
+
         return ResponseEntity.ok(status);
     }
 
+    /**
+     * Stream SSE del Circuit Breaker: foto completa al conectar, cambios de estado en cuanto
+     * ocurren y, en cada intervalo, solo las métricas que cambiaron.
+     *
+     * @return Emisor de eventos {@code snapshot}, {@code state} y {@code metrics}
+     */
+    @GetMapping(value = "/circuit-breaker/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCircuitBreaker() {
+        return circuitBreakerStream.subscribe();
+    }
+
+    /**
+     * Endpoint para consultar el estado compartido del Circuit Breaker entre instancias.
+     *
+     * @return Estado de esta instancia y de las demás que se anuncian por gossip
+     */
+    @GetMapping("/cluster/status")
+    public ResponseEntity<Map<String, Object>> getClusterStatus() {
+        if (breakerGossip == null) {
+            return ResponseEntity.ok(Map.of("enabled", false));
+        }
+        return ResponseEntity.ok(breakerGossip.describe());
+    }
+
     /**
      * Endpoint para resetear el Circuit Breaker manualmente.
      * 
@@ -84,5 +188,85 @@ public class DemoController {
         
         return ResponseEntity.ok(response);
     }
-}
 
+    /**
+     * Endpoint para consultar las estadísticas de la caché de fallback.
+     *
+     * @return Tamaño, peso y contadores de aciertos/fallos/desalojos
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(fallbackService.getCacheStats());
+    }
+
+    /**
+     * Endpoint para consultar el estado del pool de conexiones HTTP.
+     *
+     * @return Leases en uso, peticiones en espera y leases libres por ruta
+     */
+    @GetMapping("/http-pool/stats")
+    public ResponseEntity<Map<String, Map<String, Integer>>> getHttpPoolStats() {
+        return ResponseEntity.ok(pooledClientHttpRequestFactory.stats());
+    }
+
+    /**
+     * Endpoint para consultar el hedging de peticiones al servicio externo.
+     *
+     * @return Duplicados enviados, ganados y denegados, y el retardo actual
+     */
+    @GetMapping("/hedging/stats")
+    public ResponseEntity<Map<String, Object>> getHedgingStats() {
+        return ResponseEntity.ok(externalApiService.getHedgingStats());
+    }
+
+    /**
+     * Endpoint para consultar la agrupación de peticiones al servicio externo.
+     *
+     * @return Llamadas originadas frente a peticiones agrupadas
+     */
+    @GetMapping("/coalescing/stats")
+    public ResponseEntity<Map<String, Object>> getCoalescingStats() {
+        return ResponseEntity.ok(externalApiService.getCoalescingStats());
+    }
+
+    /**
+     * Endpoint para consultar la revalidación y la compresión de las respuestas externas.
+     *
+     * @return Respuestas completas frente a 304, y bytes recibidos frente a descomprimidos
+     */
+    @GetMapping("/revalidation/stats")
+    public ResponseEntity<Map<String, Object>> getRevalidationStats() {
+        return ResponseEntity.ok(externalApiService.getRevalidationStats());
+    }
+
+    /**
+     * Etiqueta de una respuesta agregada. Si todos los servicios que fallaron lo hicieron por
+     * el mismo rechazo, la del rechazo: {@code bulkhead_rejected} (Bulkhead lleno) o
+     * {@code not_permitted} (circuito abierto). Si no, {@code fallback}.
+     */
+    private static CallOutcome outcomeOf(AggregatedResponse response) {
+        if (response.complete()) {
+            return CallOutcome.SUCCESS;
+        }
+        CallOutcome outcome = null;
+        for (SourceResult source : response.sources().values()) {
+            CallOutcome sourceOutcome = switch (source.status()) {
+                case OK -> null;
+                case REJECTED -> CallOutcome.BULKHEAD_REJECTED;
+                case CIRCUIT_OPEN -> CallOutcome.NOT_PERMITTED;
+                case ERROR, TIMEOUT -> CallOutcome.FALLBACK;
+            };
+            if (sourceOutcome == null || sourceOutcome == outcome) {
+                continue;
+            }
+            if (outcome != null) {
+                return CallOutcome.FALLBACK;
+            }
+            outcome = sourceOutcome;
+        }
+        return outcome != null ? outcome : CallOutcome.FALLBACK;
+    }
+
+    private record ComposedBody(PreparedResponse data, byte[] metadata, byte[] json) {
+    }
+}
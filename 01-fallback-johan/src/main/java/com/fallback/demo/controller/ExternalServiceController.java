@@ -1,62 +1,129 @@
 package com.fallback.demo.controller;
 
+import com.fallback.demo.model.ExternalData;
+import com.fallback.demo.simulator.UpstreamSimulator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Controlador mock que simula un servicio externo.
- * Simula fallos aleatorios para demostrar el Circuit Breaker.
+ * La latencia y los fallos los decide el {@link UpstreamSimulator}; por defecto falla el 50%
+ * de las peticiones tras 100ms, para demostrar el Circuit Breaker.
+ *
+ * Los datos cambian cada {@code external.mock.content-interval}. Cada versión lleva ETag y
+ * Last-Modified, responde 304 a las peticiones condicionales que ya la tienen y se envía con
+ * gzip si el cliente lo acepta (JSON y gzip se generan una vez por versión).
  */
 @RestController
 @RequestMapping("/external")
 public class ExternalServiceController {
 
-    private final Random random = new Random();
-    private int requestCount = 0;
+    @Autowired
+    private UpstreamSimulator simulator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${external.mock.content-interval:10s}")
+    private Duration contentInterval;
+
+    private static final ExternalData.Payload ACTIVE_PAYLOAD =
+        new ExternalData.Payload("Información importante", 12345, "active");
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    private final AtomicInteger contentVersion = new AtomicInteger();
+
+    private volatile Representation current;
 
     /**
-     * Endpoint que simula un servicio externo con fallos aleatorios.
-     * Tiene un 50% de probabilidad de fallar.
+     * Endpoint que simula un servicio externo con la latencia y los fallos configurados
+     * en el simulador (por defecto, 50% de probabilidad de fallar).
      * 
-     * @return Respuesta exitosa o error 500
+     * @return Respuesta exitosa (304 si el cliente ya tiene la versión actual) o error 500
      */
     @GetMapping("/data")
-    public ResponseEntity<Map<String, Object>> getExternalData() {
-        requestCount++;
-        
-        // Simula fallo aleatorio (50% de probabilidad)
-        if (random.nextBoolean()) {
-            // Simula timeout o error del servicio externo
+    public ResponseEntity<?> getExternalData(WebRequest webRequest,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                             String acceptEncoding) {
+        int requestId = requestCount.incrementAndGet();
+        UpstreamSimulator.Decision decision = simulator.next();
+
+        // Simula la latencia del servicio externo
+        if (decision.latencyMillis() > 0) {
             try {
-                Thread.sleep(100); // Simula latencia
+                Thread.sleep(decision.latencyMillis());
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
-            
+        }
+
+        // Simula fallo según la tasa de error del escenario actual
+        if (decision.fail()) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse("Servicio externo no disponible"));
         }
 
-        // Respuesta exitosa
-        Map<String, Object> response = new HashMap<>();
-        response.put("id", requestCount);
-        response.put("message", "Datos del servicio externo");
-        response.put("timestamp", LocalDateTime.now().toString());
-        response.put("data", Map.of(
-            "value1", "Información importante",
-            "value2", 12345,
-            "status", "active"
-        ));
-
-        return ResponseEntity.ok(response);
+        // Respuesta exitosa: 304 si If-None-Match / If-Modified-Since coinciden con la versión actual
+        Representation representation = currentRepresentation();
+        if (webRequest.checkNotModified(representation.etag(), representation.lastModified().toEpochMilli())) {
+            return null;
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(representation.gzip());
+        }
+        return response.body(representation.json());
+    }
+
+    /**
+     * Configuración y estado actuales del simulador (fase del escenario, tasa de error...).
+     */
+    @GetMapping("/simulator")
+    public ResponseEntity<Map<String, Object>> getSimulator() {
+        return ResponseEntity.ok(simulator.describe());
+    }
+
+    /**
+     * Cambia la configuración del simulador y reinicia el escenario.
+     * Acepta como parámetros las mismas claves que {@code external.simulator.*},
+     * por ejemplo {@code ?scenario=outage&phase-duration=20s&latency=long-tail&latency-ms=50&seed=7}.
+     */
+    @PostMapping("/simulator")
+    public ResponseEntity<Map<String, Object>> configureSimulator(@RequestParam Map<String, String> params) {
+        try {
+            return ResponseEntity.ok(simulator.reconfigure(params));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        }
     }
 
     /**
@@ -67,10 +134,53 @@ public class ExternalServiceController {
         Map<String, Object> health = new HashMap<>();
         health.put("status", "UP");
         health.put("service", "Mock External Service");
-        health.put("totalRequests", requestCount);
+        health.put("totalRequests", requestCount.get());
         return ResponseEntity.ok(health);
     }
 
+    /**
+     * Versión actual de los datos; se genera otra cuando la anterior supera el intervalo.
+     */
+    private Representation currentRepresentation() {
+        Representation representation = current;
+        Instant now = Instant.now();
+        if (representation != null && representation.lastModified().plus(contentInterval).isAfter(now)) {
+            return representation;
+        }
+        synchronized (this) {
+            representation = current;
+            if (representation == null || !representation.lastModified().plus(contentInterval).isAfter(now)) {
+                representation = createRepresentation(contentVersion.incrementAndGet(), now);
+                current = representation;
+            }
+            return representation;
+        }
+    }
+
+    private Representation createRepresentation(int version, Instant now) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new ExternalData(
+                version,
+                null,
+                "Datos del servicio externo",
+                LocalDateTime.now().toString(),
+                ACTIVE_PAYLOAD,
+                null,
+                null
+            ));
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(json);
+            }
+            // Débil: el mismo ETag vale para la representación con y sin gzip.
+            // Last-Modified tiene resolución de segundos
+            String etag = "W/\"" + version + "-" + Integer.toHexString(Arrays.hashCode(json)) + "\"";
+            return new Representation(json, compressed.toByteArray(), etag, now.truncatedTo(ChronoUnit.SECONDS));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private Map<String, Object> createErrorResponse(String message) {
         Map<String, Object> error = new HashMap<>();
         error.put("error", true);
@@ -78,5 +188,7 @@ public class ExternalServiceController {
         error.put("timestamp", LocalDateTime.now().toString());
         return error;
     }
-}
 
+    private record Representation(byte[] json, byte[] gzip, String etag, Instant lastModified) {
+    }
+}
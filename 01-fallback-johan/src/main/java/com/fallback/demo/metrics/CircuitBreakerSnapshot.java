@@ -0,0 +1,83 @@
+package com.fallback.demo.metrics;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Foto inmutable del estado y las métricas de un Circuit Breaker.
+ *
+ * Se toma una vez por intervalo (o por cambio de estado) y la comparten el stream SSE, el
+ * endpoint de estado y los metadatos de las respuestas, en lugar de consultar el registro
+ * y construir un mapa nuevo en cada petición.
+ */
+public record CircuitBreakerSnapshot(long sequence,
+                                     long timestamp,
+                                     String state,
+                                     float failureRate,
+                                     float slowCallRate,
+                                     int numberOfSuccessfulCalls,
+                                     int numberOfFailedCalls,
+                                     long numberOfNotPermittedCalls,
+                                     int numberOfBufferedCalls) {
+
+    public static CircuitBreakerSnapshot of(CircuitBreaker circuitBreaker, long sequence) {
+        CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+        return new CircuitBreakerSnapshot(
+            sequence,
+            System.currentTimeMillis(),
+            circuitBreaker.getState().toString(),
+            metrics.getFailureRate(),
+            metrics.getSlowCallRate(),
+            metrics.getNumberOfSuccessfulCalls(),
+            metrics.getNumberOfFailedCalls(),
+            metrics.getNumberOfNotPermittedCalls(),
+            metrics.getNumberOfBufferedCalls()
+        );
+    }
+
+    /**
+     * Campos de la foto como mapa de solo lectura (sin secuencia ni instante).
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("state", state);
+        map.put("failureRate", failureRate);
+        map.put("slowCallRate", slowCallRate);
+        map.put("numberOfSuccessfulCalls", numberOfSuccessfulCalls);
+        map.put("numberOfFailedCalls", numberOfFailedCalls);
+        map.put("numberOfNotPermittedCalls", numberOfNotPermittedCalls);
+        map.put("numberOfBufferedCalls", numberOfBufferedCalls);
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Metadatos que {@code /data} agrega a cada respuesta, con los nombres de siempre.
+     */
+    public Map<String, Object> toMetadata() {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("circuitBreakerState", state);
+        metadata.put("failureRate", failureRate);
+        metadata.put("numberOfSuccessfulCalls", numberOfSuccessfulCalls);
+        metadata.put("numberOfFailedCalls", numberOfFailedCalls);
+        return Collections.unmodifiableMap(metadata);
+    }
+
+    /**
+     * Campos que cambiaron respecto a otra foto.
+     *
+     * @return Mapa vacío si no cambió nada
+     */
+    public Map<String, Object> changesSince(CircuitBreakerSnapshot previous) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        Map<String, Object> before = previous.toMap();
+        toMap().forEach((field, value) -> {
+            if (!value.equals(before.get(field))) {
+                changes.put(field, value);
+            }
+        });
+        return changes;
+    }
+}
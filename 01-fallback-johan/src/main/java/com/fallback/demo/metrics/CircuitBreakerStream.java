@@ -0,0 +1,314 @@
+package com.fallback.demo.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnStateTransitionEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stream SSE con el estado y las métricas del Circuit Breaker del servicio externo.
+ *
+ * Un único hilo toma una {@link CircuitBreakerSnapshot} por intervalo y envía a todos los
+ * suscriptores el mismo evento ya serializado, así que el coste no crece con el número de
+ * dashboards conectados. Eventos:
+ * - {@code snapshot}: foto completa, al suscribirse
+ * - {@code metrics}: solo los campos que cambiaron desde la foto anterior; si no cambió nada
+ *   no se envía
+ * - {@code state}: cambio de estado, en cuanto ocurre, con la foto completa
+ *
+ * Cada {@code heartbeat} sin eventos se envía un comentario para mantener viva la conexión y
+ * detectar clientes desconectados. La última foto queda disponible en {@link #current()}.
+ *
+ * El hilo del stream no escribe en las conexiones: deja el evento en la cola de cada
+ * suscriptor (como mucho {@code max-pending}) y unos pocos hilos de envío las vacían. Un
+ * cliente lento solo retrasa su propia cola; si se llena se le desconecta, en lugar de
+ * acumular eventos o frenar a los demás.
+ */
+@Component
+public class CircuitBreakerStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreakerStream.class);
+
+    private static final String CIRCUIT_BREAKER_NAME = "externalService";
+
+    private final CircuitBreaker circuitBreaker;
+    private final ObjectMapper objectMapper;
+    private final long emitterTimeoutMillis;
+    private final long heartbeatNanos;
+    private final int maxPending;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "circuit-breaker-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile CircuitBreakerSnapshot current;
+    private volatile byte[] currentMetadataJson;
+    // Solo se usan desde el hilo del scheduler
+    private long sequence;
+    private long lastSentNanos = System.nanoTime();
+
+    public CircuitBreakerStream(CircuitBreakerRegistry circuitBreakerRegistry,
+                                ObjectMapper objectMapper,
+                                @Value("${external.service.stream.interval:1s}") Duration interval,
+                                @Value("${external.service.stream.heartbeat:15s}") Duration heartbeat,
+                                @Value("${external.service.stream.emitter-timeout:30m}") Duration emitterTimeout,
+                                @Value("${external.service.stream.max-pending:16}") int maxPending,
+                                @Value("${external.service.stream.sender-threads:2}") int senderThreads) {
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER_NAME);
+        this.objectMapper = objectMapper;
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+        this.heartbeatNanos = heartbeat.toNanos();
+        this.maxPending = maxPending;
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "circuit-breaker-stream-send");
+            thread.setDaemon(true);
+            return thread;
+        });
+        update(CircuitBreakerSnapshot.of(circuitBreaker, 0));
+
+        circuitBreaker.getEventPublisher()
+            .onStateTransition(event -> submit(() -> publishTransition(event)));
+        scheduler.scheduleAtFixedRate(guarded(this::publishMetrics),
+            interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Última foto tomada. Puede tener hasta un intervalo de antigüedad, salvo tras un cambio
+     * de estado, que se refleja de inmediato.
+     */
+    public CircuitBreakerSnapshot current() {
+        return current;
+    }
+
+    /**
+     * Metadatos de la última foto, ya serializados: cada respuesta de {@code /data} comparte
+     * el mismo array, que no debe modificarse.
+     */
+    public byte[] currentMetadataJson() {
+        return currentMetadataJson;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Registra un suscriptor y le envía la foto completa. Se encola desde el hilo del stream,
+     * así que la foto inicial siempre llega antes que los deltas.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, maxPending);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        submit(() -> {
+            CircuitBreakerSnapshot snapshot = current;
+            subscribers.add(subscriber);
+            subscriber.offer(event("snapshot", snapshot.sequence(), fullPayload(snapshot)));
+        });
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        sender.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void publishMetrics() {
+        CircuitBreakerSnapshot previous = current;
+        CircuitBreakerSnapshot next = CircuitBreakerSnapshot.of(circuitBreaker, ++sequence);
+        update(next);
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> changes = next.changesSince(previous);
+        if (!changes.isEmpty()) {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("sequence", next.sequence());
+            payload.put("timestamp", next.timestamp());
+            payload.putAll(changes);
+            broadcast(event("metrics", next.sequence(), payload));
+        } else if (System.nanoTime() - lastSentNanos >= heartbeatNanos) {
+            broadcast(SseEmitter.event().comment("heartbeat").build());
+        }
+    }
+
+    private void publishTransition(CircuitBreakerOnStateTransitionEvent event) {
+        CircuitBreakerSnapshot next = CircuitBreakerSnapshot.of(circuitBreaker, ++sequence);
+        update(next);
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("from", event.getStateTransition().getFromState().toString());
+        payload.put("to", event.getStateTransition().getToState().toString());
+        payload.putAll(fullPayload(next));
+        broadcast(event("state", next.sequence(), payload));
+    }
+
+    private void update(CircuitBreakerSnapshot snapshot) {
+        try {
+            currentMetadataJson = objectMapper.writeValueAsBytes(snapshot.toMetadata());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudieron serializar los metadatos", e);
+        }
+        current = snapshot;
+    }
+
+    private Map<String, Object> fullPayload(CircuitBreakerSnapshot snapshot) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("sequence", snapshot.sequence());
+        payload.put("timestamp", snapshot.timestamp());
+        payload.putAll(snapshot.toMap());
+        return payload;
+    }
+
+    /**
+     * Serializa el evento una sola vez; el mismo contenido se envía a todos los suscriptores.
+     */
+    private Set<DataWithMediaType> event(String name, long id, Map<String, Object> payload) {
+        try {
+            return SseEmitter.event()
+                .name(name)
+                .id(Long.toString(id))
+                .data(objectMapper.writeValueAsString(payload), MediaType.APPLICATION_JSON)
+                .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento " + name, e);
+        }
+    }
+
+    /**
+     * Solo encola: ninguna escritura en una conexión bloquea el hilo del stream.
+     */
+    private void broadcast(Set<DataWithMediaType> event) {
+        lastSentNanos = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    /**
+     * Suscriptor con su cola de eventos pendientes. Como mucho un hilo de envío la vacía a la
+     * vez, así que los eventos llegan en orden.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> pending;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, int maxPending) {
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(maxPending);
+        }
+
+        void offer(Set<DataWithMediaType> event) {
+            if (!pending.offer(event)) {
+                logger.info("Suscriptor desconectado: {} eventos sin enviar", pending.size());
+                close(null);
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Set<DataWithMediaType> event;
+                while ((event = pending.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        logger.debug("Suscriptor desconectado: {}", e.getMessage());
+                        close(e);
+                        return;
+                    }
+                }
+                draining.set(false);
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        /**
+         * Deja de encolarle eventos y cierra la conexión desde un hilo de envío: el emitter
+         * puede estar ocupado en una escritura bloqueada.
+         */
+        private void close(Throwable error) {
+            if (!subscribers.remove(this)) {
+                return;
+            }
+            pending.clear();
+            execute(() -> {
+                if (error != null) {
+                    emitter.completeWithError(error);
+                } else {
+                    emitter.complete();
+                }
+            });
+        }
+
+        private void execute(Runnable task) {
+            try {
+                sender.execute(task);
+            } catch (RejectedExecutionException e) {
+                // La aplicación se está cerrando
+            }
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            scheduler.execute(guarded(task));
+        } catch (RejectedExecutionException e) {
+            // La aplicación se está cerrando
+        }
+    }
+
+    /**
+     * Una excepción no debe cancelar la tarea periódica del scheduler.
+     */
+    private static Runnable guarded(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.warn("Error publicando el estado del Circuit Breaker: {}", e.getMessage());
+            }
+        };
+    }
+}
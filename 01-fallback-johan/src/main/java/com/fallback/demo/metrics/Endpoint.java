@@ -0,0 +1,21 @@
+package com.fallback.demo.metrics;
+
+/**
+ * Endpoints instrumentados en {@code demo.endpoint.requests}
+ * (ver {@link com.arquitectura.resilience.metrics.EndpointMetrics}).
+ */
+public enum Endpoint {
+    DATA("data"),
+    DATA_ASYNC("data-async"),
+    AGGREGATE("aggregate");
+
+    private final String tag;
+
+    Endpoint(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
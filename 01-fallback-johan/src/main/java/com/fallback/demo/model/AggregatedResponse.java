@@ -0,0 +1,13 @@
+package com.fallback.demo.model;
+
+import java.util.Map;
+
+/**
+ * Respuesta del endpoint de agregación.
+ *
+ * @param complete true si todos los servicios respondieron bien dentro del plazo
+ * @param elapsedMs Duración total de la petición
+ * @param sources Resultado por servicio, en el orden de la configuración
+ */
+public record AggregatedResponse(boolean complete, long elapsedMs, Map<String, SourceResult> sources) {
+}
@@ -0,0 +1,41 @@
+package com.fallback.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Respuesta del servicio externo (o del fallback estático), inmutable.
+ *
+ * Los campos que no vienen en la respuesta quedan en null y no se serializan; los campos
+ * desconocidos se ignoran al leer.
+ *
+ * @param id Versión de los datos en el servicio externo
+ * @param source Origen de los datos cuando no vienen del servicio externo
+ * @param message Mensaje descriptivo
+ * @param timestamp Instante en que se generaron los datos
+ * @param data Datos de negocio
+ * @param note Aclaración para el cliente
+ * @param error true si el servicio externo indica error
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ExternalData(Integer id,
+                           String source,
+                           String message,
+                           String timestamp,
+                           Payload data,
+                           String note,
+                           Boolean error) {
+
+    /**
+     * Datos de negocio de la respuesta.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Payload(String value1, Integer value2, String status) {
+    }
+
+    public boolean hasError() {
+        return Boolean.TRUE.equals(error);
+    }
+}
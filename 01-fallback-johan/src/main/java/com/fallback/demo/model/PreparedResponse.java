@@ -0,0 +1,54 @@
+package com.fallback.demo.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Datos ya serializados a JSON, listos para escribirse en la respuesta sin volver a pasar
+ * por Jackson.
+ *
+ * Se serializa una vez al obtener los datos (o al arrancar, para el fallback estático) y la
+ * misma instancia se sirve desde la caché a todas las peticiones. El array {@code json} se
+ * comparte: nadie debe modificarlo.
+ *
+ * @param value Datos tipados
+ * @param json Representación JSON (un objeto)
+ */
+public record PreparedResponse(ExternalData value, byte[] json) {
+
+    public static PreparedResponse of(ExternalData value, ObjectMapper objectMapper) {
+        try {
+            return new PreparedResponse(value, objectMapper.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta", e);
+        }
+    }
+
+    /**
+     * Copia del JSON con un campo más al final del objeto, sin deserializarlo.
+     *
+     * @param name Nombre del campo
+     * @param valueJson Valor del campo ya serializado
+     * @return JSON con el campo agregado
+     */
+    public byte[] withField(String name, byte[] valueJson) {
+        int end = json.length - 1;
+        while (end > 0 && json[end] != '}') {
+            end--;
+        }
+        int last = end - 1;
+        while (last > 0 && Character.isWhitespace(json[last])) {
+            last--;
+        }
+        byte[] prefix = ((json[last] == '{' ? "" : ",") + "\"" + name + "\":").getBytes(StandardCharsets.UTF_8);
+
+        byte[] result = new byte[end + prefix.length + valueJson.length + 1];
+        System.arraycopy(json, 0, result, 0, end);
+        System.arraycopy(prefix, 0, result, end, prefix.length);
+        System.arraycopy(valueJson, 0, result, end + prefix.length, valueJson.length);
+        result[result.length - 1] = '}';
+        return result;
+    }
+}
@@ -0,0 +1,36 @@
+package com.fallback.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Resultado de un servicio dentro de una respuesta agregada.
+ *
+ * @param status Cómo terminó la llamada
+ * @param latencyMs Tiempo hasta obtener el resultado
+ * @param fromCache true si {@code data} es el último dato bueno de caché
+ * @param data Datos del servicio o de caché; null si no hay ninguno
+ * @param error Motivo del fallo, si lo hubo
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SourceResult(Status status, long latencyMs, boolean fromCache, ExternalData data, String error) {
+
+    public enum Status {
+        OK("ok"),
+        ERROR("error"),
+        CIRCUIT_OPEN("circuit_open"),
+        REJECTED("rejected"),
+        TIMEOUT("timeout");
+
+        private final String value;
+
+        Status(String value) {
+            this.value = value;
+        }
+
+        @JsonValue
+        public String getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.fallback.demo.service;
+
+import com.fallback.demo.client.PooledClientHttpRequestFactory;
+import com.fallback.demo.config.AggregationProperties;
+import com.fallback.demo.model.AggregatedResponse;
+import com.fallback.demo.model.ExternalData;
+import com.fallback.demo.model.PreparedResponse;
+import com.fallback.demo.model.SourceResult;
+import com.fallback.demo.model.SourceResult.Status;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Combina las respuestas de varios servicios externos llamándolos en paralelo.
+ *
+ * Cada servicio tiene su propio Bulkhead ({@code aggregation-<nombre>}, sin espera) y su
+ * propio Circuit Breaker (configuración {@code aggregation}), y como fallback el último dato
+ * bueno que devolvió. El Bulkhead va por fuera del Circuit Breaker: un rechazo por saturación
+ * local no cuenta como fallo del servicio.
+ *
+ * La petición completa tiene un plazo único ({@code external.aggregation.deadline}): lo que no
+ * haya respondido para entonces se marca como {@code timeout} y se devuelve el resultado
+ * parcial. Las llamadas usan el HttpClient asíncrono, así que la latencia es la del servicio
+ * sano más lento (acotada por el plazo) y no la suma de todas. Cada llamada toma un lease del
+ * pool de conexiones de su ruta, igual que las de RestTemplate.
+ */
+@Service
+public class AggregationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AggregationService.class);
+    private static final String CIRCUIT_BREAKER_CONFIG = "aggregation";
+    private static final String CACHE_KEY_PREFIX = "aggregation:";
+
+    @Autowired
+    private AggregationProperties properties;
+
+    @Autowired
+    private HttpClient externalHttpClient;
+
+    @Autowired
+    private PooledClientHttpRequestFactory connectionPool;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    @Autowired
+    private FallbackService fallbackService;
+
+    private List<Source> sources;
+
+    @PostConstruct
+    public void init() {
+        sources = new ArrayList<>();
+        properties.upstreams().forEach((name, upstream) -> {
+            String instanceName = "aggregation-" + name;
+            int maxConcurrentCalls = upstream.maxConcurrentCalls() != null
+                ? upstream.maxConcurrentCalls()
+                : properties.maxConcurrentCalls();
+            Bulkhead bulkhead = bulkheadRegistry.bulkhead(instanceName, BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .writableStackTraceEnabled(false)
+                .build());
+            CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(instanceName, CIRCUIT_BREAKER_CONFIG);
+            sources.add(new Source(name, URI.create(upstream.url()), circuitBreaker, bulkhead));
+        });
+        logger.info("Agregación configurada con {} servicios y plazo de {} ms",
+            sources.size(), properties.deadline().toMillis());
+    }
+
+    /**
+     * Llama a todos los servicios en paralelo y combina sus resultados.
+     *
+     * @return Futuro que se completa, como tarde, al vencer el plazo
+     */
+    public CompletableFuture<AggregatedResponse> aggregate() {
+        long start = System.nanoTime();
+        long deadlineNanos = properties.deadline().toNanos();
+
+        Map<String, CompletableFuture<SourceResult>> calls = new LinkedHashMap<>();
+        for (Source source : sources) {
+            calls.put(source.name, call(source, start)
+                .orTimeout(deadlineNanos, TimeUnit.NANOSECONDS)
+                .exceptionally(timeout -> fallback(source, Status.TIMEOUT, "Plazo agotado", start)));
+        }
+
+        return CompletableFuture.allOf(calls.values().toArray(new CompletableFuture<?>[0]))
+            .thenApply(ignored -> {
+                Map<String, SourceResult> results = new LinkedHashMap<>();
+                boolean complete = true;
+                for (Map.Entry<String, CompletableFuture<SourceResult>> call : calls.entrySet()) {
+                    SourceResult result = call.getValue().join();
+                    complete &= result.status() == Status.OK;
+                    results.put(call.getKey(), result);
+                }
+                return new AggregatedResponse(complete, elapsedMillis(start), results);
+            });
+    }
+
+    private CompletableFuture<SourceResult> call(Source source, long start) {
+        HttpRequest request = HttpRequest.newBuilder(source.uri)
+            .timeout(properties.deadline())
+            .header("Accept", "application/json")
+            .GET()
+            .build();
+
+        Supplier<CompletionStage<ExternalData>> send = () -> {
+            CompletableFuture<HttpResponse<byte[]>> exchange = connectionPool.executeAsync(source.uri,
+                () -> externalHttpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()));
+            cancelAtDeadline(exchange, start);
+            return exchange.thenApply(response -> parse(source, response));
+        };
+
+        return Bulkhead.decorateCompletionStage(source.bulkhead,
+                CircuitBreaker.decorateCompletionStage(source.circuitBreaker, send))
+            .get()
+            .toCompletableFuture()
+            .handle((data, error) -> {
+                if (error == null) {
+                    return new SourceResult(Status.OK, elapsedMillis(start), false, data, null);
+                }
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error;
+                Status status = cause instanceof CallNotPermittedException ? Status.CIRCUIT_OPEN
+                    : cause instanceof BulkheadFullException ? Status.REJECTED
+                    : cause instanceof CancellationException ? Status.TIMEOUT
+                    : Status.ERROR;
+                return fallback(source, status, cause.getMessage(), start);
+            });
+    }
+
+    /**
+     * Cancela la petición si sigue en curso al vencer el plazo. El {@code orTimeout} de
+     * {@link #aggregate()} solo completa el resultado: sin cancelarla, la petición seguiría
+     * ocupando el permiso del Bulkhead y el lease del pool hasta responder. Al cancelarse, el
+     * Bulkhead y el pool los liberan y el Circuit Breaker la registra como fallo.
+     */
+    private void cancelAtDeadline(CompletableFuture<?> exchange, long start) {
+        long remainingNanos = properties.deadline().toNanos() - (System.nanoTime() - start);
+        CompletableFuture.delayedExecutor(Math.max(0, remainingNanos), TimeUnit.NANOSECONDS)
+            .execute(() -> exchange.cancel(true));
+    }
+
+    private ExternalData parse(Source source, HttpResponse<byte[]> response) {
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException("HTTP " + response.statusCode());
+        }
+        ExternalData data;
+        try {
+            data = objectMapper.readValue(response.body(), ExternalData.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Respuesta inválida de " + source.name, e);
+        }
+        if (data.hasError()) {
+            throw new IllegalStateException(data.message());
+        }
+        fallbackService.saveToCache(CACHE_KEY_PREFIX + source.name, PreparedResponse.of(data, objectMapper));
+        return data;
+    }
+
+    /**
+     * Resultado de un servicio que falló: su último dato bueno, si lo hay.
+     */
+    private SourceResult fallback(Source source, Status status, String reason, long start) {
+        PreparedResponse cached = fallbackService.getCachedData(CACHE_KEY_PREFIX + source.name);
+        return new SourceResult(status, elapsedMillis(start), cached != null,
+            cached != null ? cached.value() : null, reason);
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private record Source(String name, URI uri, CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+    }
+}
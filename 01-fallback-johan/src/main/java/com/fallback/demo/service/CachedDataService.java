@@ -0,0 +1,65 @@
+package com.fallback.demo.service;
+
+import com.fallback.demo.cache.FallbackCache;
+import com.fallback.demo.model.PreparedResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Servicio que aplica stale-while-revalidate delante del ExternalApiService.
+ *
+ * Con el modo activado:
+ * - Dato fresco en caché: se responde desde memoria sin llamar al servicio externo
+ * - Dato obsoleto: se responde desde memoria y se revalida en segundo plano
+ * - Sin dato: se llama al servicio externo (con Circuit Breaker y fallback)
+ *
+ * Con el modo desactivado se llama siempre al servicio externo; la caché solo se usa
+ * como primer nivel del fallback.
+ */
+@Service
+public class CachedDataService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachedDataService.class);
+
+    @Autowired
+    private ExternalApiService externalApiService;
+
+    @Autowired
+    private FallbackService fallbackService;
+
+    @Value("${fallback.cache.stale-while-revalidate:false}")
+    private boolean staleWhileRevalidate;
+
+    /**
+     * Obtiene los datos del servicio externo, sirviendo desde caché cuando el modo
+     * stale-while-revalidate está activo.
+     *
+     * @return Datos del servicio externo, de caché o del fallback, con el resultado de la llamada
+     */
+    public ExternalDataResult getData() {
+        if (!staleWhileRevalidate) {
+            return externalApiService.getExternalData();
+        }
+
+        FallbackCache.Lookup<PreparedResponse> cached = fallbackService.lookup(ExternalApiService.CACHE_KEY);
+        if (cached == null) {
+            return externalApiService.getExternalData();
+        }
+
+        if (!cached.fresh()) {
+            boolean started = fallbackService.revalidateAsync(ExternalApiService.CACHE_KEY, () -> {
+                // En caso de éxito getExternalData ya actualiza la caché; si falla devuelve
+                // el fallback, que no debe sobrescribir el último dato bueno
+                externalApiService.getExternalData();
+                return null;
+            });
+            if (started) {
+                logger.debug("Sirviendo dato obsoleto y revalidando en segundo plano");
+            }
+        }
+        return ExternalDataResult.success(cached.value());
+    }
+}
@@ -0,0 +1,19 @@
+package com.fallback.demo.service;
+
+/**
+ * Excepción que reciben las peticiones que se unieron a una llamada en curso cuando esa
+ * llamada falla.
+ *
+ * El Circuit Breaker no la ve: va dentro de la llamada compartida, así que el fallo ya lo
+ * registró la petición que la originó, y contarlo una vez por cada petición agrupada llenaría
+ * la ventana con fallos correlacionados. El fallback se ejecuta igualmente, elegido por la causa.
+ *
+ * Sin traza propia: cuando la llamada compartida falla se crea una por cada petición agrupada,
+ * y todas llevan como causa el mismo fallo.
+ */
+public class CoalescedCallException extends RuntimeException {
+
+    public CoalescedCallException(Throwable cause) {
+        super("Fallo compartido de una llamada agrupada: " + cause.getMessage(), cause, false, false);
+    }
+}
@@ -1,15 +1,45 @@
 package com.fallback.demo.service;
 
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import com.arquitectura.resilience.AsyncResiliencePipeline;
+import com.arquitectura.resilience.CallResult;
+import com.arquitectura.resilience.ResiliencePipeline;
+import com.arquitectura.resilience.ResiliencePipelines;
+import com.arquitectura.resilience.metrics.CallOutcome;
+import com.fallback.demo.client.ConditionalResponseCache;
+import com.fallback.demo.client.PooledClientHttpRequestFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fallback.demo.model.ExternalData;
+import com.fallback.demo.model.PreparedResponse;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CachePut;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
 
 /**
  * Servicio que llama al endpoint externo con Circuit Breaker.
@@ -20,6 +50,7 @@ public class ExternalApiService {
 
     private static final Logger logger = LoggerFactory.getLogger(ExternalApiService.class);
     private static final String CIRCUIT_BREAKER_NAME = "externalService";
+    public static final String CACHE_KEY = "lastSuccessfulResponse";
 
     @Autowired
     private RestTemplate restTemplate;
@@ -27,84 +58,405 @@ public class ExternalApiService {
     @Autowired
     private FallbackService fallbackService;
 
+    @Autowired
+    private HttpClient externalHttpClient;
+
+    @Autowired
+    private PooledClientHttpRequestFactory connectionPool;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private ResiliencePipelines resiliencePipelines;
+
     @Value("${external.service.url:http://localhost:8081/external/data}")
     private String externalServiceUrl;
 
+    @Value("${external.service.client.read-timeout:2s}")
+    private Duration readTimeout;
+
+    @Value("${external.service.revalidation.enabled:true}")
+    private boolean revalidationEnabled;
+
+    @Value("${external.service.compression.enabled:true}")
+    private boolean compressionEnabled;
+
+    @Value("${external.service.coalescing.enabled:false}")
+    private boolean coalescingEnabled;
+
+    @Value("${external.service.coalescing.reuse-window:0ms}")
+    private Duration coalescingReuseWindow;
+
+    @Value("${external.service.hedging.enabled:false}")
+    private boolean hedgingEnabled;
+
+    @Value("${external.service.hedging.delay:0ms}")
+    private Duration hedgingDelay;
+
+    @Value("${external.service.hedging.min-delay:20ms}")
+    private Duration hedgingMinDelay;
+
+    @Value("${external.service.hedging.percentile:95}")
+    private double hedgingPercentile;
+
+    @Value("${external.service.hedging.budget-ratio:0.1}")
+    private double hedgingBudgetRatio;
+
+    @Value("${external.service.hedging.budget-max:10}")
+    private double hedgingBudgetMax;
+
+    private RequestCoalescer<PreparedResponse> requestCoalescer;
+
+    private HedgingPolicy hedgingPolicy;
+
+    private ResiliencePipeline<Void, ExternalDataResult> externalDataPipeline;
+
+    private AsyncResiliencePipeline<Void, ExternalDataResult> externalDataAsyncPipeline;
+
+    // Programa el plazo del TimeLimiter de /data/async; un hilo basta porque solo lo vigila
+    private final ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "external-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ConditionalResponseCache<PreparedResponse> upstreamCache;
+
+    @PostConstruct
+    public void init() {
+        upstreamCache = new ConditionalResponseCache<>(revalidationEnabled, compressionEnabled);
+        FunctionCounter.builder("external.responses", upstreamCache, ConditionalResponseCache::getFullResponses)
+            .description("Respuestas del servicio externo con cuerpo")
+            .tag("result", "full")
+            .register(meterRegistry);
+        FunctionCounter.builder("external.responses", upstreamCache, ConditionalResponseCache::getNotModifiedResponses)
+            .description("Respuestas 304 servidas con el último cuerpo bueno")
+            .tag("result", "not_modified")
+            .register(meterRegistry);
+        FunctionCounter.builder("external.responses.bytes", upstreamCache, ConditionalResponseCache::getReceivedBytes)
+            .description("Bytes de cuerpo recibidos del servicio externo")
+            .tag("stage", "received")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        FunctionCounter.builder("external.responses.bytes", upstreamCache, ConditionalResponseCache::getDecodedBytes)
+            .description("Bytes de cuerpo tras descomprimir")
+            .tag("stage", "decoded")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+
+        // La variante asíncrona cuenta en el mismo Circuit Breaker y por el mismo camino; el
+        // plazo va por dentro para que el Circuit Breaker registre los timeouts
+        externalDataAsyncPipeline = resiliencePipelines
+            .<Void, ExternalDataResult>asyncPipeline(CIRCUIT_BREAKER_NAME, input -> fetchAsync())
+            .withTimeLimiter(timeoutScheduler)
+            .withCircuitBreaker()
+            .withFallback((input, failure) -> fallback(failure))
+            .build();
+
+        requestCoalescer = new RequestCoalescer<>(coalescingReuseWindow);
+        if (coalescingEnabled) {
+            // El Circuit Breaker va dentro de la llamada que se agrupa: solo la petición que la
+            // origina pide permiso y registra el resultado. Las que se unen a ella o reutilizan
+            // su resultado no cuentan, ni si sale bien ni si sale mal
+            ResiliencePipeline<Void, PreparedResponse> upstreamCall = resiliencePipelines
+                .<Void, PreparedResponse>pipeline(CIRCUIT_BREAKER_NAME, input -> call())
+                .withCircuitBreaker()
+                .build();
+            externalDataPipeline = resiliencePipelines
+                .<Void, ExternalDataResult>pipeline(CIRCUIT_BREAKER_NAME,
+                    input -> ExternalDataResult.success(requestCoalescer.execute(externalServiceUrl, () -> upstreamCall.execute(null))))
+                .withFallback((input, failure) -> fallback(sharedFailure(failure)))
+                .build();
+        } else {
+            externalDataPipeline = resiliencePipelines
+                .<Void, ExternalDataResult>pipeline(CIRCUIT_BREAKER_NAME, input -> ExternalDataResult.success(call()))
+                .withCircuitBreaker()
+                .withFallback((input, failure) -> fallback(failure))
+                .build();
+        }
+        FunctionCounter.builder("external.requests.coalescing", requestCoalescer, RequestCoalescer::getOriginatedCalls)
+            .description("Llamadas reales al servicio externo")
+            .tag("result", "originated")
+            .register(meterRegistry);
+        FunctionCounter.builder("external.requests.coalescing", requestCoalescer, RequestCoalescer::getCoalescedCalls)
+            .description("Peticiones que se unieron a una llamada en curso")
+            .tag("result", "coalesced")
+            .register(meterRegistry);
+        FunctionCounter.builder("external.requests.coalescing", requestCoalescer, RequestCoalescer::getReusedResults)
+            .description("Peticiones servidas con un resultado reciente reutilizado")
+            .tag("result", "reused")
+            .register(meterRegistry);
+
+        hedgingPolicy = new HedgingPolicy(hedgingDelay, hedgingMinDelay, hedgingPercentile,
+            hedgingBudgetRatio, hedgingBudgetMax);
+        FunctionCounter.builder("external.requests.hedging", hedgingPolicy, HedgingPolicy::getHedgesSent)
+            .description("Peticiones duplicadas enviadas al servicio externo")
+            .tag("result", "sent")
+            .register(meterRegistry);
+        FunctionCounter.builder("external.requests.hedging", hedgingPolicy, HedgingPolicy::getHedgesWon)
+            .description("Peticiones duplicadas que respondieron antes que la original")
+            .tag("result", "won")
+            .register(meterRegistry);
+        FunctionCounter.builder("external.requests.hedging", hedgingPolicy, HedgingPolicy::getHedgesDenied)
+            .description("Duplicados no enviados por falta de presupuesto o de permiso del Circuit Breaker")
+            .tag("result", "denied")
+            .register(meterRegistry);
+    }
+
     /**
      * Llama al servicio externo con protección de Circuit Breaker.
      * Si falla, automáticamente ejecuta el método de fallback.
+     *
+     * Con la agrupación activada, las peticiones concurrentes comparten una sola llamada
+     * real al servicio externo (y su resultado o su fallo); el Circuit Breaker solo cuenta
+     * esa llamada, no cada petición que la comparte.
+     *
+     * Con hedging activado, si la llamada tarda más que el retardo configurado (o el p95
+     * observado) se lanza un único duplicado y se usa la primera respuesta.
+     *
+     * Las peticiones piden gzip y, con un dato bueno guardado, son condicionales: si el
+     * servicio responde 304 se reutiliza ese dato sin descargarlo ni deserializarlo.
+     *
+     * El Circuit Breaker y el fallback se aplican con un {@link ResiliencePipeline} construido
+     * al arrancar, sin aspecto ni búsqueda del fallback por reflexión en cada llamada.
      * 
-     * @return Datos del servicio externo o del fallback
+     * @return Datos del servicio externo o del fallback, con el resultado de la llamada
+     */
+    public ExternalDataResult getExternalData() {
+        return externalDataPipeline.execute(null);
+    }
+
+    private PreparedResponse call() {
+        return hedgingEnabled ? fetchHedged() : fetchExternalData();
+    }
+
+    /**
+     * Una petición agrupada recibe el fallo de la llamada compartida envuelto en una
+     * {@link CoalescedCallException}; el fallback se elige por el fallo original, así que si el
+     * circuito estaba abierto todas quedan como no permitidas.
      */
-    @CircuitBreaker(name = CIRCUIT_BREAKER_NAME, fallbackMethod = "fallback")
-    public Map<String, Object> getExternalData() {
-        logger.info("Intentando llamar al servicio externo: {}", externalServiceUrl);
+    private static CallResult<?> sharedFailure(CallResult<?> failure) {
+        if (failure.cause() instanceof CoalescedCallException coalesced && coalesced.getCause() != null) {
+            return CallResult.failure(coalesced.getCause());
+        }
+        return failure;
+    }
+
+    /**
+     * Variante no bloqueante de {@link #getExternalData()}.
+     *
+     * La llamada HTTP se hace con el HttpClient asíncrono del JDK, así que ningún hilo queda
+     * bloqueado mientras se espera al servicio externo. Aplica el mismo Circuit Breaker
+     * ({@code externalService}) más un TimeLimiter que cancela la llamada si se excede el
+     * tiempo configurado, con un {@link AsyncResiliencePipeline} construido al arrancar. El
+     * fallback (caché y luego estático) está en memoria y también se resuelve sin bloquear.
+     *
+     * @return Futuro con los datos del servicio externo o del fallback
+     */
+    public CompletableFuture<ExternalDataResult> getExternalDataAsync() {
+        logger.debug("Llamada asíncrona al servicio externo: {}", externalServiceUrl);
+        return externalDataAsyncPipeline.execute(null);
+    }
+
+    /**
+     * Cancelar el futuro devuelto (plazo vencido) cancela también la petición HTTP.
+     */
+    private CompletableFuture<ExternalDataResult> fetchAsync() {
+        CompletableFuture<PreparedResponse> call = sendAsync();
+        CompletableFuture<ExternalDataResult> result = call.thenApply(ExternalDataResult::success);
+        result.whenComplete((value, error) -> {
+            if (error instanceof CancellationException) {
+                call.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timeoutScheduler.shutdownNow();
+    }
+
+    /**
+     * Estadísticas del hedging.
+     *
+     * @return Duplicados enviados, ganados y denegados, y el retardo actual
+     */
+    public Map<String, Object> getHedgingStats() {
+        return Map.of(
+            "enabled", hedgingEnabled,
+            "currentDelayMs", hedgingPolicy.currentDelay().toMillis(),
+            "sent", hedgingPolicy.getHedgesSent(),
+            "won", hedgingPolicy.getHedgesWon(),
+            "denied", hedgingPolicy.getHedgesDenied()
+        );
+    }
+
+    /**
+     * Estadísticas de la agrupación de peticiones.
+     *
+     * @return Llamadas originadas, agrupadas y resultados reutilizados
+     */
+    public Map<String, Object> getCoalescingStats() {
+        return Map.of(
+            "enabled", coalescingEnabled,
+            "originated", requestCoalescer.getOriginatedCalls(),
+            "coalesced", requestCoalescer.getCoalescedCalls(),
+            "reused", requestCoalescer.getReusedResults()
+        );
+    }
+
+    /**
+     * Estadísticas de la revalidación condicional y de la compresión.
+     *
+     * @return Respuestas completas y 304, y bytes recibidos y descomprimidos
+     */
+    public Map<String, Object> getRevalidationStats() {
+        return Map.of(
+            "revalidationEnabled", revalidationEnabled,
+            "compressionEnabled", compressionEnabled,
+            "full", upstreamCache.getFullResponses(),
+            "notModified", upstreamCache.getNotModifiedResponses(),
+            "receivedBytes", upstreamCache.getReceivedBytes(),
+            "decodedBytes", upstreamCache.getDecodedBytes()
+        );
+    }
+
+    private PreparedResponse fetchExternalData() {
+        logger.debug("Intentando llamar al servicio externo: {}", externalServiceUrl);
         
         try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = restTemplate.getForObject(
-                externalServiceUrl, 
-                Map.class
-            );
-            
-            // Si la respuesta es exitosa, guardar en caché para uso futuro
-            if (response != null && !isErrorResponse(response)) {
-                saveToCache("lastSuccessfulResponse", response);
-                logger.info("Respuesta exitosa del servicio externo");
-            }
-            
+            HttpHeaders headers = new HttpHeaders();
+            upstreamCache.addRequestHeaders(headers::set);
+            ResponseEntity<byte[]> entity = restTemplate.exchange(externalServiceUrl, HttpMethod.GET,
+                new HttpEntity<>(headers), byte[].class);
+            PreparedResponse response = handleResponse(entity.getStatusCode().value(), entity.getBody(),
+                entity.getHeaders()::getFirst);
+            logger.debug("Respuesta exitosa del servicio externo");
             return response;
         } catch (Exception e) {
             logger.error("Error al llamar al servicio externo: {}", e.getMessage());
-            throw new RuntimeException("Error al llamar al servicio externo", e);
+            throw new ExternalServiceException("Error al llamar al servicio externo", e);
+        }
+    }
+
+    private PreparedResponse fetchHedged() {
+        logger.debug("Intentando llamar al servicio externo (hedging): {}", externalServiceUrl);
+        try {
+            return hedgingPolicy.execute(this::sendAsync, circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER_NAME));
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            logger.error("Error al llamar al servicio externo: {}", cause.getMessage());
+            throw new ExternalServiceException("Error al llamar al servicio externo", cause);
         }
     }
 
     /**
-     * Método de fallback que se ejecuta cuando:
-     * - El Circuit Breaker está abierto
-     * - Hay una excepción al llamar al servicio externo
-     * 
-     * @param exception La excepción que causó el fallback (puede ser null si el circuito está abierto)
-     * @return Datos del fallback (caché o estático)
+     * Lanza la petición con el HttpClient asíncrono, con un lease del mismo pool que
+     * RestTemplate. Cancelar el futuro devuelto cancela también la petición HTTP en curso.
      */
-    public Map<String, Object> fallback(Exception exception) {
-        String reason = exception != null ? exception.getMessage() : "Circuit Breaker está abierto";
-        logger.warn("Ejecutando fallback debido a: {}", reason);
-        
-        // Estrategia de fallback de dos niveles:
-        // 1. Intentar obtener de caché
-        Map<String, Object> cachedData = fallbackService.getCachedData("lastSuccessfulResponse");
-        if (cachedData != null) {
-            logger.info("Usando datos de caché para fallback");
-            return cachedData;
+    private CompletableFuture<PreparedResponse> sendAsync() {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(externalServiceUrl))
+            .timeout(readTimeout)
+            .header("Accept", "application/json")
+            .GET();
+        upstreamCache.addRequestHeaders(builder::header);
+        HttpRequest request = builder.build();
+
+        CompletableFuture<HttpResponse<byte[]>> exchange = connectionPool.executeAsync(request.uri(),
+            () -> externalHttpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()));
+        CompletableFuture<PreparedResponse> result = exchange.thenApply(this::handleAsyncResponse);
+        result.whenComplete((response, error) -> {
+            if (error instanceof CancellationException) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private PreparedResponse handleAsyncResponse(HttpResponse<byte[]> httpResponse) {
+        if (httpResponse.statusCode() >= 400) {
+            throw new ExternalServiceException("Error al llamar al servicio externo: HTTP " + httpResponse.statusCode(), null);
+        }
+        try {
+            return handleResponse(httpResponse.statusCode(), httpResponse.body(),
+                name -> httpResponse.headers().firstValue(name).orElse(null));
+        } catch (IOException e) {
+            throw new ExternalServiceException("Respuesta inválida del servicio externo", e);
         }
-        
-        // 2. Si no hay caché, usar respuesta estática
-        logger.info("Usando respuesta estática de fallback");
-        return fallbackService.getFallbackData("static");
     }
 
     /**
-     * Guarda datos en caché para uso futuro en fallback.
-     * 
-     * @param key Clave para almacenar
-     * @param data Datos a almacenar
+     * Con 304 reutiliza el último dato bueno (y renueva su entrada en la caché de fallback, solo
+     * en memoria: la copia en disco no cambia); si no, descomprime y prepara el cuerpo y guarda sus validadores.
+     */
+    private PreparedResponse handleResponse(int status, byte[] body, Function<String, String> header)
+            throws IOException {
+        if (status == HttpStatus.NOT_MODIFIED.value()) {
+            PreparedResponse response = upstreamCache.notModified();
+            fallbackService.renewInCache(CACHE_KEY, response);
+            return response;
+        }
+        if (body == null) {
+            throw new IllegalStateException("Respuesta vacía del servicio externo");
+        }
+        PreparedResponse response = prepare(upstreamCache.decode(body, header.apply(HttpHeaders.CONTENT_ENCODING)));
+        if (!response.value().hasError()) {
+            upstreamCache.store(response, header.apply(HttpHeaders.ETAG), header.apply(HttpHeaders.LAST_MODIFIED));
+        }
+        return response;
+    }
+
+    /**
+     * Convierte la respuesta al modelo tipado y la serializa una sola vez. Si es válida se
+     * guarda en caché para uso futuro; las peticiones que la sirvan desde ahí ya no pasan
+     * por Jackson.
      */
-    @CachePut(value = "fallbackCache", key = "#key")
-    private Map<String, Object> saveToCache(String key, Map<String, Object> data) {
-        return data;
+    private PreparedResponse prepare(byte[] body) throws IOException {
+        ExternalData data = objectMapper.readValue(body, ExternalData.class);
+        PreparedResponse response = PreparedResponse.of(data, objectMapper);
+        if (!data.hasError()) {
+            fallbackService.saveToCache(CACHE_KEY, response);
+        }
+        return response;
     }
 
     /**
-     * Verifica si la respuesta es un error.
+     * Método de fallback que se ejecuta cuando:
+     * - El Circuit Breaker está abierto (la llamada llega como {@code REJECTED}, sin excepción)
+     * - Hay una excepción al llamar al servicio externo
      * 
-     * @param response Respuesta a verificar
-     * @return true si es un error
+     * @param failure Resultado de la llamada que no terminó bien
+     * @return Datos del fallback (caché o estático), marcados según {@link CallOutcome#ofFailure}:
+     *         fallback, llamada no permitida si el circuito estaba abierto o rechazo de Bulkhead
      */
-    private boolean isErrorResponse(Map<String, Object> response) {
-        return response.containsKey("error") && 
-               Boolean.TRUE.equals(response.get("error"));
+    public ExternalDataResult fallback(CallResult<?> failure) {
+        CallOutcome outcome = CallOutcome.ofFailure(failure);
+        if (outcome == CallOutcome.NOT_PERMITTED) {
+            // Con el circuito abierto pasa en cada petición: no llenar el log
+            logger.debug("Ejecutando fallback: Circuit Breaker está abierto");
+        } else {
+            logger.warn("Ejecutando fallback debido a: {}", failure.reason());
+        }
+        
+        // Estrategia de fallback de dos niveles:
+        // 1. Intentar obtener de caché
+        PreparedResponse cachedData = fallbackService.getCachedData(CACHE_KEY);
+        if (cachedData != null) {
+            logger.debug("Usando datos de caché para fallback");
+            return new ExternalDataResult(cachedData, outcome);
+        }
+        
+        // 2. Si no hay caché, usar respuesta estática
+        logger.debug("Usando respuesta estática de fallback");
+        return new ExternalDataResult(fallbackService.getStaticFallbackData(), outcome);
     }
 }
 
@@ -0,0 +1,18 @@
+package com.fallback.demo.service;
+
+import com.arquitectura.resilience.metrics.CallOutcome;
+import com.fallback.demo.model.PreparedResponse;
+
+/**
+ * Datos obtenidos para una petición junto con cómo se obtuvieron
+ * (servicio externo, fallback, circuito abierto...).
+ *
+ * @param data Datos del servicio externo, de caché o del fallback
+ * @param outcome Resultado de la llamada
+ */
+public record ExternalDataResult(PreparedResponse data, CallOutcome outcome) {
+
+    public static ExternalDataResult success(PreparedResponse data) {
+        return new ExternalDataResult(data, CallOutcome.SUCCESS);
+    }
+}
@@ -0,0 +1,15 @@
+package com.fallback.demo.service;
+
+/**
+ * Fallo de una llamada al servicio externo: error HTTP, de red o respuesta inválida.
+ *
+ * Envuelve la causa para que el Circuit Breaker lo registre como {@code RuntimeException}
+ * (ver {@code recordExceptions} en application.yml). No tiene traza propia: la única útil es
+ * la de la causa, y con el servicio caído se crea una por petición.
+ */
+public class ExternalServiceException extends RuntimeException {
+
+    public ExternalServiceException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
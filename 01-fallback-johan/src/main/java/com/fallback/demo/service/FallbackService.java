@@ -1,74 +1,212 @@
 package com.fallback.demo.service;
 
-import org.springframework.cache.annotation.Cacheable;
+import com.fallback.demo.cache.FallbackCache;
+import com.fallback.demo.cache.SnapshotStore;
+import com.fallback.demo.model.ExternalData;
+import com.fallback.demo.model.PreparedResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Servicio que implementa la lógica de fallback.
  * Estrategia de dos niveles:
- * 1. Intenta usar datos en caché (si existen)
+ * 1. Intenta usar datos en caché (si existen, aunque estén obsoletos)
  * 2. Si no hay caché, devuelve respuesta estática predefinida
+ *
+ * Ambos niveles guardan respuestas inmutables ya serializadas ({@link PreparedResponse}):
+ * durante una caída, cuando todo el tráfico es fallback, servir una petición no construye
+ * mapas ni serializa JSON.
+ *
+ * Los datos guardados en caché también se copian a disco ({@link SnapshotStore}) cuando
+ * cambian y se cargan al arrancar, antes de que la aplicación empiece a atender peticiones: tras un despliegue el
+ * fallback sirve el último dato bueno en lugar del estático.
  */
 @Service
 public class FallbackService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FallbackService.class);
+
+    @Autowired
+    private FallbackCache<PreparedResponse> fallbackCache;
+
+    @Autowired(required = false)
+    private SnapshotStore snapshotStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private PreparedResponse staticFallback;
+
+    /**
+     * Construye y serializa la respuesta estática una sola vez (su timestamp es el instante
+     * en que se generó, al arrancar) y carga en caché los datos guardados en disco.
+     */
+    @PostConstruct
+    public void init() {
+        staticFallback = PreparedResponse.of(new ExternalData(
+            null,
+            "FALLBACK_STATIC",
+            "Datos de respaldo (fallback estático)",
+            LocalDateTime.now().toString(),
+            new ExternalData.Payload("Información de respaldo", 99999, "fallback"),
+            "Este es un fallback estático porque el servicio externo no está disponible",
+            null
+        ), objectMapper);
+        loadSnapshots();
+    }
+
+    /**
+     * Carga los datos de la copia en disco como obsoletos (TTL cero): se sirven como fallback
+     * durante la ventana de obsolescencia, pero nunca como si fueran frescos.
+     */
+    private void loadSnapshots() {
+        if (snapshotStore == null) {
+            return;
+        }
+        Map<String, SnapshotStore.Snapshot> snapshots;
+        try {
+            snapshots = snapshotStore.load();
+        } catch (IOException e) {
+            logger.warn("No se pudo leer la copia en disco del fallback: {}", e.getMessage());
+            return;
+        }
+        snapshots.forEach((key, snapshot) -> {
+            try {
+                ExternalData value = objectMapper.readValue(snapshot.value(), ExternalData.class);
+                fallbackCache.put(key, new PreparedResponse(value, snapshot.value()), Duration.ZERO);
+            } catch (IOException e) {
+                logger.warn("Entrada '{}' de la copia en disco descartada: {}", key, e.getMessage());
+            }
+        });
+    }
+
     /**
      * Obtiene datos del fallback.
      * Primero intenta obtener de caché, si no existe devuelve respuesta estática.
-     * 
+     *
      * @param key Clave para buscar en caché
      * @return Datos de fallback
      */
-    @Cacheable(value = "fallbackCache", key = "#key")
-    public Map<String, Object> getFallbackData(String key) {
-        // Si no está en caché, devuelve respuesta estática
-        return getStaticFallbackData();
+    public PreparedResponse getFallbackData(String key) {
+        PreparedResponse cachedData = getCachedData(key);
+        return cachedData != null ? cachedData : staticFallback;
     }
 
     /**
      * Guarda datos en caché para uso futuro.
-     * 
+     * La respuesta es inmutable, así que la entrada compartida no puede alterarse.
+     *
      * @param key Clave para almacenar
      * @param data Datos a almacenar
      */
-    public void saveToCache(String key, Map<String, Object> data) {
-        // El caché se maneja automáticamente con @Cacheable
-        // Este método puede ser usado para guardar datos explícitamente
+    public void saveToCache(String key, PreparedResponse data) {
+        PreparedResponse previous = fallbackCache.peek(key);
+        fallbackCache.put(key, data);
+        persist(key, previous, data);
+    }
+
+    /**
+     * Renueva en memoria una entrada que el servicio externo confirmó sin cambios (304): vuelve
+     * a estar fresca durante todo su TTL, pero no se reescribe la copia en disco, que ya tiene
+     * esos mismos datos.
+     *
+     * @param key Clave de la entrada
+     * @param data Datos confirmados
+     */
+    public void renewInCache(String key, PreparedResponse data) {
+        fallbackCache.put(key, data);
     }
 
     /**
-     * Obtiene respuesta estática predefinida cuando no hay caché disponible.
-     * 
+     * Guarda datos en caché con un TTL específico para esta entrada.
+     *
+     * @param key Clave para almacenar
+     * @param data Datos a almacenar
+     * @param timeToLive Tiempo durante el cual los datos se consideran frescos
+     */
+    public void saveToCache(String key, PreparedResponse data, Duration timeToLive) {
+        PreparedResponse previous = fallbackCache.peek(key);
+        fallbackCache.put(key, data, timeToLive);
+        persist(key, previous, data);
+    }
+
+    /**
+     * Respuesta estática predefinida, serializada al arrancar.
+     *
      * @return Datos estáticos de fallback
      */
-    private Map<String, Object> getStaticFallbackData() {
-        Map<String, Object> fallback = new HashMap<>();
-        fallback.put("source", "FALLBACK_STATIC");
-        fallback.put("message", "Datos de respaldo (fallback estático)");
-        fallback.put("timestamp", LocalDateTime.now().toString());
-        fallback.put("data", Map.of(
-            "value1", "Información de respaldo",
-            "value2", 99999,
-            "status", "fallback"
-        ));
-        fallback.put("note", "Este es un fallback estático porque el servicio externo no está disponible");
-        return fallback;
+    public PreparedResponse getStaticFallbackData() {
+        return staticFallback;
     }
 
     /**
      * Obtiene datos de fallback desde caché si existen.
-     * 
+     * Se devuelven tanto datos frescos como obsoletos (dentro de la ventana de obsolescencia),
+     * porque durante una caída cualquier dato previo es mejor que la respuesta estática.
+     *
      * @param key Clave para buscar en caché
      * @return Datos de caché o null si no existen
      */
-    public Map<String, Object> getCachedData(String key) {
-        // Este método puede ser usado para verificar si hay datos en caché
-        // La implementación real dependería del proveedor de caché
-        return null; // Simplificado para esta demo
+    public PreparedResponse getCachedData(String key) {
+        return fallbackCache.getIfPresent(key);
+    }
+
+    /**
+     * Busca en caché distinguiendo si el dato está fresco u obsoleto.
+     *
+     * @param key Clave para buscar en caché
+     * @return Resultado de la búsqueda o null si no hay datos
+     */
+    public FallbackCache.Lookup<PreparedResponse> lookup(String key) {
+        return fallbackCache.lookup(key);
+    }
+
+    /**
+     * Revalida en segundo plano una entrada obsoleta (una sola recarga en curso por clave).
+     *
+     * @param key Clave a revalidar
+     * @param loader Función que obtiene los datos actualizados
+     * @return true si se lanzó la recarga
+     */
+    public boolean revalidateAsync(String key, Supplier<PreparedResponse> loader) {
+        return fallbackCache.refreshAsync(key, loader);
+    }
+
+    /**
+     * Estadísticas de la caché de fallback y de su copia en disco.
+     */
+    public Map<String, Object> getCacheStats() {
+        if (snapshotStore == null) {
+            return fallbackCache.stats();
+        }
+        Map<String, Object> stats = new HashMap<>(fallbackCache.stats());
+        stats.put("snapshot", snapshotStore.stats());
+        return stats;
     }
-}
 
+    /**
+     * Solo escribe en disco si el JSON cambió: la misma respuesta recibida otra vez no
+     * reescribe la copia.
+     */
+    private void persist(String key, PreparedResponse previous, PreparedResponse data) {
+        if (snapshotStore == null) {
+            return;
+        }
+        if (previous != null && (previous == data || Arrays.equals(previous.json(), data.json()))) {
+            return;
+        }
+        snapshotStore.append(key, data.json());
+    }
+}
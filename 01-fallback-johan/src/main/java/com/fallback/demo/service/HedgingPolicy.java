@@ -0,0 +1,318 @@
+package com.fallback.demo.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Política de peticiones "hedged": si el primer intento no responde dentro de un retardo,
+ * se lanza un único duplicado y se usa el primero que responda bien; el otro se cancela.
+ *
+ * El retardo es fijo o, si no se configura, el percentil observado (p95 por defecto) de las
+ * latencias recientes, de modo que solo se duplica la cola lenta de peticiones.
+ *
+ * Un presupuesto acota la carga extra: cada petición aporta {@code budgetRatio} fichas (hasta
+ * {@code budgetMax}) y cada duplicado consume una, así que con 0.1 como mucho el 10% de las
+ * peticiones genera un duplicado.
+ *
+ * Contabilidad en el Circuit Breaker: la llamada lógica ya la registra la etapa de Circuit
+ * Breaker del pipeline que la envuelve. El duplicado pide su propio permiso y, para que una
+ * llamada lógica no deje dos resultados iguales, solo registra el suyo si pierde fallando
+ * frente a un primario que termina bien: es el único caso en que su fallo no queda ya
+ * contado. Si gana, se cancela o fallan los dos (el fallo del primario es el de la llamada
+ * lógica), devuelve el permiso sin registrar nada.
+ */
+public class HedgingPolicy {
+
+    private final Duration fixedDelay;
+    private final Duration minDelay;
+    private final double percentile;
+    private final long budgetRatioMilli;
+    private final long budgetMaxMilli;
+
+    private final AtomicLong budgetMilli;
+    private final LatencyWindow latencies;
+
+    private final LongAdder hedgesSent = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+    private final LongAdder hedgesDenied = new LongAdder();
+
+    /**
+     * @param fixedDelay Retardo fijo; cero para usar el percentil observado
+     * @param minDelay Retardo mínimo (también el usado mientras no hay muestras suficientes)
+     * @param percentile Percentil de latencia usado como retardo (0-100)
+     * @param budgetRatio Fichas que aporta cada petición al presupuesto de duplicados
+     * @param budgetMax Máximo de fichas acumuladas
+     */
+    public HedgingPolicy(Duration fixedDelay, Duration minDelay, double percentile,
+                         double budgetRatio, double budgetMax) {
+        this.fixedDelay = fixedDelay;
+        this.minDelay = minDelay;
+        this.percentile = percentile;
+        this.budgetRatioMilli = Math.round(budgetRatio * 1000);
+        this.budgetMaxMilli = Math.round(budgetMax * 1000);
+        this.budgetMilli = new AtomicLong(budgetMaxMilli);
+        this.latencies = new LatencyWindow(Duration.ofSeconds(30));
+    }
+
+    /**
+     * Ejecuta la llamada con un posible duplicado.
+     *
+     * @param attempt Lanza un intento; cancelar el futuro debe cancelar la petición
+     * @param circuitBreaker Circuit Breaker donde se contabiliza el duplicado
+     * @return Resultado del primer intento exitoso
+     * @throws CompletionException con la causa del primer intento si ambos fallan
+     */
+    public <T> T execute(Supplier<CompletableFuture<T>> attempt, CircuitBreaker circuitBreaker) {
+        deposit();
+        long start = System.nanoTime();
+        CompletableFuture<T> primary = attempt.get();
+        long delayNanos = currentDelay().toNanos();
+
+        try {
+            T result = primary.get(delayNanos, TimeUnit.NANOSECONDS);
+            latencies.record(System.nanoTime() - start);
+            return result;
+        } catch (TimeoutException e) {
+            // El primario sigue en curso: se intenta el duplicado
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            primary.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+
+        boolean permitted = tryConsumeBudget();
+        if (permitted && !circuitBreaker.tryAcquirePermission()) {
+            // Con el circuito abierto no se duplica: la ficha vuelve al presupuesto
+            refundBudget();
+            permitted = false;
+        }
+        if (!permitted) {
+            hedgesDenied.increment();
+            T result = primary.join();
+            latencies.record(System.nanoTime() - start);
+            return result;
+        }
+
+        hedgesSent.increment();
+        long hedgeStart = System.nanoTime();
+        CompletableFuture<T> hedge = attempt.get();
+        CompletableFuture<T> winner = firstSuccess(primary, hedge);
+
+        // Se decide cuando terminan los dos, porque depende de cómo acabe el primario
+        long[] hedgeNanos = new long[1];
+        CompletableFuture<Throwable> hedgeError = hedge.handle((result, error) -> {
+            hedgeNanos[0] = System.nanoTime() - hedgeStart;
+            return unwrap(error);
+        });
+        CompletableFuture<Boolean> primarySucceeded = primary.handle((result, error) -> error == null);
+        hedgeError.thenAcceptBoth(primarySucceeded, (cause, primaryOk) -> {
+            if (cause != null && !(cause instanceof CancellationException) && primaryOk) {
+                circuitBreaker.onError(hedgeNanos[0], TimeUnit.NANOSECONDS, cause);
+            } else {
+                circuitBreaker.releasePermission();
+            }
+        });
+
+        try {
+            T result = winner.join();
+            latencies.record(System.nanoTime() - start);
+            if (primary.isDone() && !primary.isCompletedExceptionally()) {
+                hedge.cancel(true);
+            } else {
+                hedgesWon.increment();
+                primary.cancel(true);
+            }
+            return result;
+        } catch (CompletionException | CancellationException e) {
+            primary.cancel(true);
+            hedge.cancel(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Retardo actual antes de lanzar el duplicado.
+     */
+    public Duration currentDelay() {
+        if (!fixedDelay.isZero()) {
+            return fixedDelay;
+        }
+        long observed = latencies.percentileNanos(percentile);
+        return Duration.ofNanos(Math.max(observed, minDelay.toNanos()));
+    }
+
+    public long getHedgesSent() {
+        return hedgesSent.sum();
+    }
+
+    public long getHedgesWon() {
+        return hedgesWon.sum();
+    }
+
+    public long getHedgesDenied() {
+        return hedgesDenied.sum();
+    }
+
+    private void deposit() {
+        budgetMilli.accumulateAndGet(budgetRatioMilli, (current, add) -> Math.min(budgetMaxMilli, current + add));
+    }
+
+    private boolean tryConsumeBudget() {
+        while (true) {
+            long current = budgetMilli.get();
+            if (current < 1000) {
+                return false;
+            }
+            if (budgetMilli.compareAndSet(current, current - 1000)) {
+                return true;
+            }
+        }
+    }
+
+    private void refundBudget() {
+        budgetMilli.accumulateAndGet(1000, (current, add) -> Math.min(budgetMaxMilli, current + add));
+    }
+
+    /**
+     * Se completa con el primer éxito; si ambos fallan, con el error del primario.
+     */
+    private static <T> CompletableFuture<T> firstSuccess(CompletableFuture<T> primary, CompletableFuture<T> hedge) {
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicReference<Throwable> primaryError = new AtomicReference<>();
+        AtomicInteger failures = new AtomicInteger();
+
+        primary.whenComplete((result, error) -> {
+            if (error == null) {
+                winner.complete(result);
+            } else {
+                primaryError.set(unwrap(error));
+                if (failures.incrementAndGet() == 2) {
+                    winner.completeExceptionally(primaryError.get());
+                }
+            }
+        });
+        hedge.whenComplete((result, error) -> {
+            if (error == null) {
+                winner.complete(result);
+            } else {
+                if (failures.incrementAndGet() == 2) {
+                    Throwable cause = primaryError.get();
+                    winner.completeExceptionally(cause != null ? cause : unwrap(error));
+                }
+            }
+        });
+        return winner;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * Histograma de latencias de memoria fija con dos ventanas que se alternan, para que el
+     * percentil refleje el comportamiento reciente del servicio.
+     *
+     * Cubetas exponenciales (factor ~1.19, cuatro por potencia de dos) desde 1 ms hasta ~3 min.
+     */
+    private static final class LatencyWindow {
+
+        private static final int BUCKETS = 72;
+        private static final long MIN_SAMPLES = 20;
+
+        private final long windowNanos;
+        private final AtomicReference<Window> current;
+        private volatile Window previous;
+
+        LatencyWindow(Duration window) {
+            this.windowNanos = window.toNanos();
+            this.current = new AtomicReference<>(new Window(System.nanoTime()));
+            this.previous = null;
+        }
+
+        void record(long nanos) {
+            window().record(nanos);
+        }
+
+        long percentileNanos(double percentile) {
+            Window window = window();
+            Window source = window.count.sum() >= MIN_SAMPLES ? window : previous;
+            if (source == null || source.count.sum() < MIN_SAMPLES) {
+                return 0;
+            }
+            return source.percentileNanos(percentile);
+        }
+
+        private Window window() {
+            Window window = current.get();
+            long now = System.nanoTime();
+            if (now - window.startedAt < windowNanos) {
+                return window;
+            }
+            Window fresh = new Window(now);
+            if (current.compareAndSet(window, fresh)) {
+                previous = window;
+                return fresh;
+            }
+            return current.get();
+        }
+
+        private static int indexOf(long nanos) {
+            long micros = nanos / 1_000;
+            if (micros < 1_000) {
+                return 0;
+            }
+            // log2(micros / 1000) * 4, redondeado hacia abajo
+            double quarterOctaves = Math.log((double) micros / 1_000) / Math.log(2) * 4;
+            return Math.min(BUCKETS - 1, 1 + (int) quarterOctaves);
+        }
+
+        private static long upperBoundNanos(int index) {
+            return (long) (1_000_000 * Math.pow(2, index / 4.0));
+        }
+
+        private static final class Window {
+            final long startedAt;
+            final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+            final LongAdder count = new LongAdder();
+
+            Window(long startedAt) {
+                this.startedAt = startedAt;
+            }
+
+            void record(long nanos) {
+                counts.incrementAndGet(indexOf(nanos));
+                count.increment();
+            }
+
+            long percentileNanos(double percentile) {
+                long target = (long) Math.ceil(count.sum() * percentile / 100.0);
+                long seen = 0;
+                for (int i = 0; i < BUCKETS; i++) {
+                    seen += counts.get(i);
+                    if (seen >= target) {
+                        return upperBoundNanos(i);
+                    }
+                }
+                return upperBoundNanos(BUCKETS - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.fallback.demo.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa llamadas concurrentes con la misma clave en una sola llamada real ("single flight").
+ *
+ * La primera petición para una clave origina la llamada; las que llegan mientras está en
+ * curso esperan y comparten su resultado o su fallo. Opcionalmente, un resultado exitoso se
+ * reutiliza durante una ventana corta después de completarse.
+ *
+ * @param <T> Tipo del resultado
+ */
+public class RequestCoalescer<T> {
+
+    private final ConcurrentHashMap<String, Flight<T>> flights = new ConcurrentHashMap<>();
+    private final long reuseWindowNanos;
+
+    private final LongAdder originated = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+
+    public RequestCoalescer(Duration reuseWindow) {
+        this.reuseWindowNanos = reuseWindow.toNanos();
+    }
+
+    /**
+     * Ejecuta la llamada o se une a la que ya está en curso para la misma clave.
+     *
+     * @param key Clave que identifica llamadas equivalentes
+     * @param call Llamada real
+     * @return Resultado propio o compartido
+     * @throws CoalescedCallException si la llamada compartida falló
+     */
+    public T execute(String key, Supplier<T> call) {
+        Flight<T> flight;
+        while (true) {
+            flight = flights.get(key);
+            if (flight == null) {
+                Flight<T> mine = new Flight<>();
+                flight = flights.putIfAbsent(key, mine);
+                if (flight == null) {
+                    return originate(key, mine, call);
+                }
+            }
+
+            if (!flight.future.isDone() || flight.future.isCompletedExceptionally()) {
+                coalesced.increment();
+                return await(flight);
+            }
+            if (System.nanoTime() - flight.completedAt < reuseWindowNanos) {
+                reused.increment();
+                return flight.future.join();
+            }
+            // Resultado fuera de la ventana de reutilización: se descarta y se vuelve a intentar
+            flights.remove(key, flight);
+        }
+    }
+
+    public long getOriginatedCalls() {
+        return originated.sum();
+    }
+
+    public long getCoalescedCalls() {
+        return coalesced.sum();
+    }
+
+    public long getReusedResults() {
+        return reused.sum();
+    }
+
+    private T originate(String key, Flight<T> flight, Supplier<T> call) {
+        originated.increment();
+        try {
+            T result = call.get();
+            flight.completedAt = System.nanoTime();
+            flight.future.complete(result);
+            if (reuseWindowNanos <= 0) {
+                flights.remove(key, flight);
+            }
+            return result;
+        } catch (RuntimeException | Error e) {
+            // Un fallo se comparte con las peticiones en espera, pero nunca se reutiliza
+            flights.remove(key, flight);
+            flight.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private T await(Flight<T> flight) {
+        try {
+            return flight.future.join();
+        } catch (CompletionException e) {
+            throw new CoalescedCallException(e.getCause() != null ? e.getCause() : e);
+        }
+    }
+
+    private static final class Flight<T> {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        volatile long completedAt;
+    }
+}
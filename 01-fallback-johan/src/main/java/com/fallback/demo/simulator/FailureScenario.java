@@ -0,0 +1,90 @@
+package com.fallback.demo.simulator;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Escenario de fallos en el tiempo: una secuencia de fases, cada una con su tasa de error y
+ * un multiplicador de latencia que pueden variar linealmente del inicio al final de la fase.
+ * Tras la última fase se mantiene su estado final.
+ *
+ * @param name Nombre del escenario
+ * @param phases Fases en orden
+ */
+public record FailureScenario(String name, List<Phase> phases) {
+
+    /**
+     * @param name Nombre de la fase
+     * @param duration Duración
+     * @param errorRateFrom Tasa de error al inicio (null = la configurada)
+     * @param errorRateTo Tasa de error al final (null = la configurada)
+     * @param latencyFactorFrom Multiplicador de latencia al inicio
+     * @param latencyFactorTo Multiplicador de latencia al final
+     */
+    public record Phase(String name, Duration duration, Double errorRateFrom, Double errorRateTo,
+                        double latencyFactorFrom, double latencyFactorTo) {
+    }
+
+    /**
+     * Estado del escenario en un instante.
+     */
+    public record State(String phase, double errorRate, double latencyFactor) {
+    }
+
+    /**
+     * Crea uno de los escenarios predefinidos.
+     *
+     * @param name steady, brownout, outage o recovery
+     * @param phaseDuration Duración de cada fase
+     */
+    public static FailureScenario named(String name, Duration phaseDuration) {
+        return switch (name) {
+            case "steady" -> new FailureScenario(name, List.of(
+                new Phase("steady", phaseDuration, null, null, 1, 1)));
+            // Degradación parcial: más lento y con más errores, sin caerse del todo
+            case "brownout" -> new FailureScenario(name, List.of(
+                new Phase("steady", phaseDuration, null, null, 1, 1),
+                new Phase("brownout", phaseDuration, 0.3, 0.3, 5, 5),
+                new Phase("steady", phaseDuration, null, null, 1, 1)));
+            case "outage" -> new FailureScenario(name, List.of(
+                new Phase("steady", phaseDuration, null, null, 1, 1),
+                new Phase("outage", phaseDuration, 1.0, 1.0, 1, 1),
+                new Phase("steady", phaseDuration, null, null, 1, 1)));
+            // Caída seguida de una recuperación gradual de errores y latencia
+            case "recovery" -> new FailureScenario(name, List.of(
+                new Phase("outage", phaseDuration, 1.0, 1.0, 1, 1),
+                new Phase("recovery", phaseDuration, 1.0, null, 3, 1),
+                new Phase("steady", phaseDuration, null, null, 1, 1)));
+            default -> throw new IllegalArgumentException(
+                "Escenario desconocido: " + name + " (steady, brownout, outage, recovery)");
+        };
+    }
+
+    /**
+     * Estado del escenario tras {@code elapsedNanos} desde su inicio.
+     *
+     * @param baseErrorRate Tasa de error configurada, usada en las fases que no la fijan
+     */
+    public State stateAt(long elapsedNanos, double baseErrorRate) {
+        long offset = elapsedNanos;
+        Phase phase = phases.get(phases.size() - 1);
+        double progress = 1;
+        for (Phase candidate : phases) {
+            long length = candidate.duration().toNanos();
+            if (offset < length) {
+                phase = candidate;
+                progress = length == 0 ? 1 : (double) offset / length;
+                break;
+            }
+            offset -= length;
+        }
+
+        double errorFrom = phase.errorRateFrom() != null ? phase.errorRateFrom() : baseErrorRate;
+        double errorTo = phase.errorRateTo() != null ? phase.errorRateTo() : baseErrorRate;
+        return new State(
+            phase.name(),
+            errorFrom + (errorTo - errorFrom) * progress,
+            phase.latencyFactorFrom() + (phase.latencyFactorTo() - phase.latencyFactorFrom()) * progress
+        );
+    }
+}
@@ -0,0 +1,88 @@
+package com.fallback.demo.simulator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Distribución de latencias del servicio simulado.
+ *
+ * Todas las variantes muestrean a partir del generador que reciben, de modo que con la misma
+ * semilla producen la misma secuencia de latencias.
+ */
+public sealed interface LatencyDistribution {
+
+    /**
+     * @return Latencia en milisegundos (nunca negativa)
+     */
+    long sampleMillis(SplittableRandom random);
+
+    /**
+     * Siempre la misma latencia.
+     */
+    record Fixed(long millis) implements LatencyDistribution {
+        @Override
+        public long sampleMillis(SplittableRandom random) {
+            return millis;
+        }
+    }
+
+    /**
+     * Normal truncada en cero.
+     */
+    record Normal(double meanMillis, double stddevMillis) implements LatencyDistribution {
+        @Override
+        public long sampleMillis(SplittableRandom random) {
+            return Math.max(0, Math.round(meanMillis + stddevMillis * gaussian(random)));
+        }
+    }
+
+    /**
+     * Log-normal: la mayoría de respuestas cerca de la mediana y una cola larga de respuestas
+     * lentas. Con {@code sigma = 1} el p99 es ~10 veces la mediana.
+     */
+    record LongTail(double medianMillis, double sigma) implements LatencyDistribution {
+        @Override
+        public long sampleMillis(SplittableRandom random) {
+            return Math.round(medianMillis * Math.exp(sigma * gaussian(random)));
+        }
+    }
+
+    /**
+     * Dos modos: respuestas rápidas y, con probabilidad {@code slowProbability}, lentas
+     * (por ejemplo, aciertos y fallos de una caché del servicio).
+     */
+    record Bimodal(long fastMillis, long slowMillis, double slowProbability) implements LatencyDistribution {
+        @Override
+        public long sampleMillis(SplittableRandom random) {
+            return random.nextDouble() < slowProbability ? slowMillis : fastMillis;
+        }
+    }
+
+    /**
+     * Crea una distribución a partir de su nombre y parámetros.
+     *
+     * @param type fixed, normal, long-tail o bimodal
+     * @param baseMillis Latencia fija, media, mediana o del modo rápido según el tipo
+     * @param spreadMillis Desviación estándar (normal)
+     * @param tailSigma Sigma de la log-normal (long-tail)
+     * @param slowMillis Latencia del modo lento (bimodal)
+     * @param slowProbability Probabilidad del modo lento (bimodal)
+     */
+    static LatencyDistribution of(String type, long baseMillis, long spreadMillis, double tailSigma,
+                                  long slowMillis, double slowProbability) {
+        return switch (type) {
+            case "fixed" -> new Fixed(baseMillis);
+            case "normal" -> new Normal(baseMillis, spreadMillis);
+            case "long-tail" -> new LongTail(baseMillis, tailSigma);
+            case "bimodal" -> new Bimodal(baseMillis, slowMillis, slowProbability);
+            default -> throw new IllegalArgumentException(
+                "Distribución desconocida: " + type + " (fixed, normal, long-tail, bimodal)");
+        };
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller: SplittableRandom no ofrece nextGaussian en Java 17
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+}
@@ -0,0 +1,159 @@
+package com.fallback.demo.simulator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simulador programable del servicio externo: decide para cada petición cuánto tarda y si falla.
+ *
+ * Combina una distribución de latencias, una tasa de error y un escenario de fallos en el
+ * tiempo (brownout, caída, recuperación). Cada petición usa un generador derivado de la
+ * semilla y de su número de secuencia, así que con la misma semilla la petición N recibe
+ * siempre la misma decisión, sin depender del orden entre hilos.
+ *
+ * La configuración inicial viene de {@code external.simulator.*} y puede cambiarse en caliente
+ * con {@link #reconfigure(Map)}; al cambiarla el escenario y la secuencia vuelven a empezar.
+ */
+@Component
+public class UpstreamSimulator {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamSimulator.class);
+
+    /**
+     * Decisión para una petición.
+     */
+    public record Decision(long sequence, long latencyMillis, boolean fail, String phase) {
+    }
+
+    private record Settings(String latency, long latencyMs, long spreadMs, double tailSigma, long slowMs,
+                            double slowProbability, double errorRate, long errorLatencyMs,
+                            String scenario, Duration phaseDuration, long seed) {
+    }
+
+    private record Active(Settings settings, LatencyDistribution distribution, FailureScenario scenario,
+                          long startedAt) {
+    }
+
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile Active active;
+
+    public UpstreamSimulator(@Value("${external.simulator.latency:fixed}") String latency,
+                             @Value("${external.simulator.latency-ms:0}") long latencyMs,
+                             @Value("${external.simulator.spread-ms:0}") long spreadMs,
+                             @Value("${external.simulator.tail-sigma:1.0}") double tailSigma,
+                             @Value("${external.simulator.slow-ms:1000}") long slowMs,
+                             @Value("${external.simulator.slow-probability:0.1}") double slowProbability,
+                             @Value("${external.simulator.error-rate:0.5}") double errorRate,
+                             @Value("${external.simulator.error-latency-ms:100}") long errorLatencyMs,
+                             @Value("${external.simulator.scenario:steady}") String scenario,
+                             @Value("${external.simulator.phase-duration:30s}") Duration phaseDuration,
+                             @Value("${external.simulator.seed:42}") long seed) {
+        activate(new Settings(latency, latencyMs, spreadMs, tailSigma, slowMs, slowProbability,
+            errorRate, errorLatencyMs, scenario, phaseDuration, seed));
+    }
+
+    /**
+     * Decide la latencia y el resultado de la siguiente petición.
+     */
+    public Decision next() {
+        Active current = active;
+        long n = sequence.incrementAndGet();
+        SplittableRandom random = new SplittableRandom(current.settings().seed() * 0x9E3779B97F4A7C15L + n);
+
+        FailureScenario.State state = current.scenario()
+            .stateAt(System.nanoTime() - current.startedAt(), current.settings().errorRate());
+        boolean fail = random.nextDouble() < state.errorRate();
+        long baseLatency = fail
+            ? current.settings().errorLatencyMs()
+            : current.distribution().sampleMillis(random);
+        return new Decision(n, Math.round(baseLatency * state.latencyFactor()), fail, state.phase());
+    }
+
+    /**
+     * Cambia la configuración. Las claves son las mismas que las propiedades
+     * {@code external.simulator.*}; las que no se indican conservan su valor.
+     *
+     * @throws IllegalArgumentException si algún valor no es válido
+     */
+    public synchronized Map<String, Object> reconfigure(Map<String, String> params) {
+        Settings s = active.settings();
+        Settings updated = new Settings(
+            params.getOrDefault("latency", s.latency()),
+            longParam(params, "latency-ms", s.latencyMs()),
+            longParam(params, "spread-ms", s.spreadMs()),
+            doubleParam(params, "tail-sigma", s.tailSigma()),
+            longParam(params, "slow-ms", s.slowMs()),
+            doubleParam(params, "slow-probability", s.slowProbability()),
+            doubleParam(params, "error-rate", s.errorRate()),
+            longParam(params, "error-latency-ms", s.errorLatencyMs()),
+            params.getOrDefault("scenario", s.scenario()),
+            params.containsKey("phase-duration")
+                ? DurationStyle.detectAndParse(params.get("phase-duration"))
+                : s.phaseDuration(),
+            longParam(params, "seed", s.seed())
+        );
+        activate(updated);
+        return describe();
+    }
+
+    /**
+     * Configuración y estado actuales.
+     */
+    public Map<String, Object> describe() {
+        Active current = active;
+        Settings s = current.settings();
+        long elapsed = System.nanoTime() - current.startedAt();
+        FailureScenario.State state = current.scenario().stateAt(elapsed, s.errorRate());
+
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("latency", s.latency());
+        description.put("latency-ms", s.latencyMs());
+        description.put("spread-ms", s.spreadMs());
+        description.put("tail-sigma", s.tailSigma());
+        description.put("slow-ms", s.slowMs());
+        description.put("slow-probability", s.slowProbability());
+        description.put("error-rate", s.errorRate());
+        description.put("error-latency-ms", s.errorLatencyMs());
+        description.put("scenario", s.scenario());
+        description.put("phase-duration", s.phaseDuration().toString());
+        description.put("seed", s.seed());
+        description.put("elapsedMs", Duration.ofNanos(elapsed).toMillis());
+        description.put("phase", state.phase());
+        description.put("currentErrorRate", state.errorRate());
+        description.put("currentLatencyFactor", state.latencyFactor());
+        description.put("requests", sequence.get());
+        return description;
+    }
+
+    private void activate(Settings settings) {
+        if (settings.errorRate() < 0 || settings.errorRate() > 1) {
+            throw new IllegalArgumentException("error-rate debe estar entre 0 y 1");
+        }
+        LatencyDistribution distribution = LatencyDistribution.of(settings.latency(), settings.latencyMs(),
+            settings.spreadMs(), settings.tailSigma(), settings.slowMs(), settings.slowProbability());
+        FailureScenario scenario = FailureScenario.named(settings.scenario(), settings.phaseDuration());
+
+        sequence.set(0);
+        active = new Active(settings, distribution, scenario, System.nanoTime());
+        logger.info("Simulador configurado: {}", settings);
+    }
+
+    private static long longParam(Map<String, String> params, String key, long current) {
+        String value = params.get(key);
+        return value != null ? Long.parseLong(value) : current;
+    }
+
+    private static double doubleParam(Map<String, String> params, String key, double current) {
+        String value = params.get(key);
+        return value != null ? Double.parseDouble(value) : current;
+    }
+}
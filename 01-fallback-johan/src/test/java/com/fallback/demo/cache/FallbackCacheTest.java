@@ -0,0 +1,127 @@
+package com.fallback.demo.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FallbackCacheTest {
+
+    private final List<Runnable> refreshes = new ArrayList<>();
+
+    @Test
+    void freshEntryIsReturned() {
+        FallbackCache<String> cache = cache(10, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        cache.put("clave", "dato");
+
+        FallbackCache.Lookup<String> lookup = cache.lookup("clave");
+
+        assertEquals("dato", lookup.value());
+        assertTrue(lookup.fresh());
+        assertNull(cache.lookup("otra"));
+    }
+
+    @Test
+    void expiredEntryIsServedStaleWithinTheWindow() {
+        FallbackCache<String> cache = cache(10, Duration.ZERO, Duration.ofMinutes(1));
+        cache.put("clave", "dato");
+
+        FallbackCache.Lookup<String> lookup = cache.lookup("clave");
+
+        assertEquals("dato", lookup.value());
+        assertFalse(lookup.fresh());
+    }
+
+    @Test
+    void entryPastTheStaleWindowIsRemoved() {
+        FallbackCache<String> cache = cache(10, Duration.ZERO, Duration.ZERO);
+        cache.put("clave", "dato");
+
+        assertNull(cache.lookup("clave"));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.weight());
+    }
+
+    @Test
+    void valueHeavierThanTheMaximumIsRejected() {
+        FallbackCache<String> cache = cache(10, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        cache.put("clave", "x".repeat(200));
+
+        assertNull(cache.getIfPresent("clave"));
+        assertEquals(1L, cache.stats().get("rejections"));
+    }
+
+    @Test
+    void infrequentNewcomerDoesNotEvictPopularEntries() {
+        FallbackCache<String> cache = cache(2, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        cache.put("a", "1");
+        cache.put("b", "2");
+        for (int i = 0; i < 3; i++) {
+            cache.lookup("a");
+            cache.lookup("b");
+        }
+
+        cache.put("c", "3");
+
+        assertNull(cache.getIfPresent("c"));
+        assertNotNull(cache.getIfPresent("a"));
+        assertNotNull(cache.getIfPresent("b"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void popularNewcomerEvictsTheLeastFrequentEntry() {
+        FallbackCache<String> cache = cache(2, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        cache.put("a", "1");
+        cache.put("b", "2");
+        for (int i = 0; i < 3; i++) {
+            cache.lookup("a");
+            cache.lookup("c");
+        }
+
+        cache.put("c", "3");
+
+        assertEquals("3", cache.getIfPresent("c"));
+        assertEquals("1", cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+        assertEquals(1L, cache.stats().get("evictions"));
+    }
+
+    @Test
+    void peekDoesNotCountAsAnAccess() {
+        FallbackCache<String> cache = cache(10, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        cache.put("clave", "dato");
+
+        assertEquals("dato", cache.peek("clave"));
+        assertNull(cache.peek("otra"));
+
+        assertEquals(0L, cache.stats().get("hits"));
+        assertEquals(0L, cache.stats().get("misses"));
+    }
+
+    @Test
+    void onlyOneRefreshPerKeyIsInFlight() {
+        FallbackCache<String> cache = cache(10, Duration.ZERO, Duration.ofMinutes(1));
+        cache.put("clave", "viejo");
+
+        assertTrue(cache.refreshAsync("clave", () -> "nuevo"));
+        assertFalse(cache.refreshAsync("clave", () -> "otro"));
+
+        refreshes.remove(0).run();
+
+        assertEquals("nuevo", cache.getIfPresent("clave"));
+        assertTrue(cache.refreshAsync("clave", () -> "otro"));
+    }
+
+    private FallbackCache<String> cache(long maximumSize, Duration timeToLive, Duration staleWindow) {
+        return new FallbackCache<>(maximumSize, 100, timeToLive, staleWindow, String::length, refreshes::add);
+    }
+}
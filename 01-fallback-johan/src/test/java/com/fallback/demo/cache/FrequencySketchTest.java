@@ -0,0 +1,39 @@
+package com.fallback.demo.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FrequencySketchTest {
+
+    @Test
+    void countsAccessesUpToFifteen() {
+        FrequencySketch sketch = new FrequencySketch(16);
+
+        assertEquals(0, sketch.frequency("clave"));
+        for (int i = 0; i < 3; i++) {
+            sketch.increment("clave");
+        }
+        assertEquals(3, sketch.frequency("clave"));
+
+        for (int i = 0; i < 30; i++) {
+            sketch.increment("clave");
+        }
+        assertEquals(15, sketch.frequency("clave"));
+    }
+
+    @Test
+    void countersAreHalvedAfterTheSampleSize() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 15; i++) {
+            sketch.increment("popular");
+        }
+
+        // Tabla de 64 contadores: se reducen tras 40 incrementos
+        for (int i = 0; i < 25; i++) {
+            sketch.increment("otra-" + i);
+        }
+
+        assertEquals(7, sketch.frequency("popular"));
+    }
+}
@@ -0,0 +1,124 @@
+package com.fallback.demo.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reloadsTheLastValueOfEachKey() throws IOException {
+        try (SnapshotStore store = open()) {
+            store.load();
+            store.append("a", bytes("1"));
+            store.flush();
+            store.append("a", bytes("2"));
+            store.append("b", bytes("3"));
+        }
+
+        Map<String, SnapshotStore.Snapshot> loaded = load();
+
+        assertEquals(2, loaded.size());
+        assertEquals("2", text(loaded.get("a")));
+        assertEquals("3", text(loaded.get("b")));
+    }
+
+    @Test
+    void truncatedRecordIsDiscardedAndWritingContinues() throws IOException {
+        writeTwoRecords();
+        long size = Files.size(file());
+        try (FileChannel channel = FileChannel.open(file(), StandardOpenOption.WRITE)) {
+            // Caída a mitad de escribir el segundo registro
+            channel.truncate(size - 3);
+        }
+
+        try (SnapshotStore store = open()) {
+            Map<String, SnapshotStore.Snapshot> loaded = store.load();
+            assertEquals(1, loaded.size());
+            assertEquals("1", text(loaded.get("a")));
+            assertEquals(1L, store.stats().get("corrupted"));
+
+            store.append("c", bytes("4"));
+        }
+
+        Map<String, SnapshotStore.Snapshot> reloaded = load();
+        assertEquals(2, reloaded.size());
+        assertEquals("4", text(reloaded.get("c")));
+    }
+
+    @Test
+    void recordWithWrongCrcEndsTheLog() throws IOException {
+        writeTwoRecords();
+        byte[] content = Files.readAllBytes(file());
+        // Último byte: valor del segundo registro
+        content[content.length - 1] ^= 0x7f;
+        Files.write(file(), content);
+
+        try (SnapshotStore store = open()) {
+            Map<String, SnapshotStore.Snapshot> loaded = store.load();
+            assertEquals(1, loaded.size());
+            assertTrue(loaded.containsKey("a"));
+            assertTrue(Files.size(file()) < content.length);
+        }
+    }
+
+    @Test
+    void compactionKeepsTheLatestValues() throws IOException {
+        try (SnapshotStore store = new SnapshotStore(file(), 512, Duration.ofDays(1), Duration.ofHours(1))) {
+            store.load();
+            for (int i = 0; i < 20; i++) {
+                store.append("clave", bytes("valor-" + i));
+                store.flush();
+            }
+            assertTrue((Long) store.stats().get("compactions") > 0);
+            assertTrue(Files.size(file()) <= 512);
+        }
+
+        assertEquals("valor-19", text(load().get("clave")));
+    }
+
+    private void writeTwoRecords() throws IOException {
+        try (SnapshotStore store = open()) {
+            store.load();
+            store.append("a", bytes("1"));
+            store.flush();
+            store.append("b", bytes("2"));
+        }
+    }
+
+    private Map<String, SnapshotStore.Snapshot> load() throws IOException {
+        try (SnapshotStore store = open()) {
+            return store.load();
+        }
+    }
+
+    private SnapshotStore open() {
+        return new SnapshotStore(file(), 1024 * 1024, Duration.ofDays(1), Duration.ofHours(1));
+    }
+
+    private Path file() {
+        return directory.resolve("fallback.snapshot");
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(SnapshotStore.Snapshot snapshot) {
+        return new String(snapshot.value(), StandardCharsets.UTF_8);
+    }
+}
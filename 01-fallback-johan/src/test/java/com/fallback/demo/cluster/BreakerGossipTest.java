@@ -0,0 +1,91 @@
+package com.fallback.demo.cluster;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramSocket;
+import java.net.SocketException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BreakerGossipTest {
+
+    private final List<BreakerGossip> instances = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        instances.forEach(BreakerGossip::stop);
+    }
+
+    @Test
+    void parsesAnnouncements() {
+        BreakerGossip.PeerState peer = BreakerGossip.PeerState.parse("cb1|b|externalService|OPEN|1234|LOCAL|10|6");
+
+        assertEquals("b", peer.instanceId());
+        assertEquals(CircuitBreaker.State.OPEN, peer.state());
+        assertEquals(1234, peer.transitionAt());
+        assertEquals(BreakerGossip.Cause.LOCAL, peer.cause());
+        assertEquals(10, peer.bufferedCalls());
+        assertEquals(6, peer.failedCalls());
+    }
+
+    @Test
+    void ignoresOtherProtocolsAndBreakers() {
+        assertNull(BreakerGossip.PeerState.parse("cb2|b|externalService|OPEN|1234|LOCAL|10|6"));
+        assertNull(BreakerGossip.PeerState.parse("cb1|b|otroServicio|OPEN|1234|LOCAL|10|6"));
+        assertNull(BreakerGossip.PeerState.parse("cb1|b|externalService|ABIERTO|1234|LOCAL|10|6"));
+        assertNull(BreakerGossip.PeerState.parse("cb1|b|externalService|OPEN"));
+    }
+
+    @Test
+    void localOpeningIsFollowedByPeers() throws Exception {
+        int portA = freePort();
+        int portB = freePort();
+        CircuitBreakerRegistry registryA = CircuitBreakerRegistry.ofDefaults();
+        CircuitBreakerRegistry registryB = CircuitBreakerRegistry.ofDefaults();
+        start(registryA, "a", portA, portB);
+        start(registryB, "b", portB, portA);
+        CircuitBreaker breakerA = registryA.circuitBreaker("externalService");
+        CircuitBreaker breakerB = registryB.circuitBreaker("externalService");
+
+        // Las transiciones se ordenan por milisegundos: la de A debe ser posterior al arranque de B
+        Thread.sleep(10);
+        breakerA.transitionToOpenState();
+
+        awaitUntil(() -> breakerB.getState() == CircuitBreaker.State.OPEN);
+        assertEquals(CircuitBreaker.State.OPEN, breakerB.getState());
+
+        // B solo sigue a A: su apertura no vuelve a propagarse
+        Thread.sleep(200);
+        assertEquals(CircuitBreaker.State.OPEN, breakerA.getState());
+        assertEquals("REMOTE", instances.get(1).describe().get("lastCause"));
+    }
+
+    private void start(CircuitBreakerRegistry registry, String id, int port, int peerPort) throws SocketException {
+        BreakerGossip gossip = new BreakerGossip(registry, new SimpleMeterRegistry(), id, "127.0.0.1", port,
+            List.of("127.0.0.1:" + peerPort), Duration.ofMillis(50), Duration.ofSeconds(1), 1);
+        gossip.start();
+        instances.add(gossip);
+    }
+
+    private static int freePort() throws SocketException {
+        try (DatagramSocket socket = new DatagramSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
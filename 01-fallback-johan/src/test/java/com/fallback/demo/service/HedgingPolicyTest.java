@@ -0,0 +1,123 @@
+package com.fallback.demo.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgingPolicyTest {
+
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("test");
+    private final List<CompletableFuture<String>> attempts = new ArrayList<>();
+
+    @Test
+    void fastPrimaryIsNotHedged() {
+        HedgingPolicy policy = policy(1);
+
+        String result = policy.execute(attempts(CompletableFuture.completedFuture("primario")), circuitBreaker);
+
+        assertEquals("primario", result);
+        assertEquals(1, attempts.size());
+        assertEquals(0, policy.getHedgesSent());
+    }
+
+    @Test
+    void slowPrimaryIsHedgedAndCancelledWhenTheHedgeWins() {
+        HedgingPolicy policy = policy(1);
+        CompletableFuture<String> slow = new CompletableFuture<>();
+
+        String result = policy.execute(attempts(slow, CompletableFuture.completedFuture("duplicado")), circuitBreaker);
+
+        assertEquals("duplicado", result);
+        assertEquals(1, policy.getHedgesSent());
+        assertEquals(1, policy.getHedgesWon());
+        assertTrue(slow.isCancelled());
+    }
+
+    @Test
+    void withoutBudgetThePrimaryIsAwaited() {
+        HedgingPolicy policy = policy(0);
+        CompletableFuture<String> slow = delayed("primario");
+
+        String result = policy.execute(attempts(slow), circuitBreaker);
+
+        assertEquals("primario", result);
+        assertEquals(1, attempts.size());
+        assertEquals(1, policy.getHedgesDenied());
+    }
+
+    @Test
+    void openBreakerDoesNotSpendTheBudget() {
+        // Una sola ficha y ningún depósito: solo puede salir un duplicado
+        HedgingPolicy policy = new HedgingPolicy(Duration.ofMillis(10), Duration.ofMillis(10), 95, 0, 1);
+        circuitBreaker.transitionToOpenState();
+
+        assertEquals("primario", policy.execute(attempts(delayed("primario")), circuitBreaker));
+        assertEquals(1, policy.getHedgesDenied());
+
+        circuitBreaker.transitionToClosedState();
+        attempts.clear();
+        assertEquals("duplicado", policy.execute(
+            attempts(new CompletableFuture<>(), CompletableFuture.completedFuture("duplicado")), circuitBreaker));
+        assertEquals(1, policy.getHedgesSent());
+    }
+
+    @Test
+    void failedHedgeIsRecordedOnlyWhenThePrimarySucceeds() throws InterruptedException {
+        HedgingPolicy policy = policy(1);
+        CompletableFuture<String> slow = delayed("primario");
+
+        String result = policy.execute(
+            attempts(slow, CompletableFuture.failedFuture(new IllegalStateException("duplicado caído"))), circuitBreaker);
+
+        assertEquals("primario", result);
+        awaitUntil(() -> circuitBreaker.getMetrics().getNumberOfFailedCalls() == 1);
+        assertEquals(1, circuitBreaker.getMetrics().getNumberOfBufferedCalls());
+    }
+
+    @Test
+    void cancelledHedgeIsNotRecorded() {
+        HedgingPolicy policy = policy(1);
+        CompletableFuture<String> slow = delayed("primario");
+        CompletableFuture<String> slower = new CompletableFuture<>();
+
+        assertEquals("primario", policy.execute(attempts(slow, slower), circuitBreaker));
+
+        assertTrue(slower.isCancelled());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfBufferedCalls());
+    }
+
+    private static CompletableFuture<String> delayed(String value) {
+        return CompletableFuture.supplyAsync(() -> value, CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+    }
+
+    private static HedgingPolicy policy(double budget) {
+        // Duplicado a los 10 ms; cada petición aporta una ficha entera si hay presupuesto
+        return new HedgingPolicy(Duration.ofMillis(10), Duration.ofMillis(10), 95, budget, budget);
+    }
+
+    @SafeVarargs
+    private Supplier<CompletableFuture<String>> attempts(CompletableFuture<String>... futures) {
+        return () -> {
+            CompletableFuture<String> next = futures[attempts.size()];
+            attempts.add(next);
+            return next;
+        };
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.fallback.demo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestCoalescerTest {
+
+    private static final int CALLERS = 5;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneCall() throws Exception {
+        RequestCoalescer<String> coalescer = new RequestCoalescer<>(Duration.ZERO);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<CompletableFuture<String>> results = startCallers(coalescer, () -> {
+            await(release);
+            return "dato";
+        });
+        awaitCoalesced(coalescer);
+        release.countDown();
+
+        for (CompletableFuture<String> result : results) {
+            assertEquals("dato", result.join());
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, coalescer.getOriginatedCalls());
+        assertEquals(CALLERS - 1, coalescer.getCoalescedCalls());
+    }
+
+    @Test
+    void sharedFailureReachesWaitersAsCoalescedCallException() throws Exception {
+        RequestCoalescer<String> coalescer = new RequestCoalescer<>(Duration.ofSeconds(10));
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException error = new IllegalStateException("caído");
+
+        List<CompletableFuture<String>> results = startCallers(coalescer, () -> {
+            await(release);
+            throw error;
+        });
+        awaitCoalesced(coalescer);
+        release.countDown();
+
+        int originals = 0;
+        for (CompletableFuture<String> result : results) {
+            Throwable cause = assertThrows(CompletionException.class, result::join).getCause();
+            if (cause == error) {
+                originals++;
+            } else {
+                assertTrue(cause instanceof CoalescedCallException);
+                assertSame(error, cause.getCause());
+            }
+        }
+        assertEquals(1, originals);
+        // Un fallo no se reutiliza: la siguiente llamada vuelve a salir
+        assertEquals("otro", coalescer.execute("clave", () -> "otro"));
+    }
+
+    @Test
+    void resultIsReusedWithinTheWindow() {
+        RequestCoalescer<String> coalescer = new RequestCoalescer<>(Duration.ofSeconds(10));
+
+        coalescer.execute("clave", this::count);
+        coalescer.execute("clave", this::count);
+
+        assertEquals(1, calls.get());
+        assertEquals(1, coalescer.getReusedResults());
+    }
+
+    @Test
+    void withoutWindowEveryCallAfterCompletionOriginates() {
+        RequestCoalescer<String> coalescer = new RequestCoalescer<>(Duration.ZERO);
+
+        coalescer.execute("clave", this::count);
+        coalescer.execute("clave", this::count);
+        coalescer.execute("otra", this::count);
+
+        assertEquals(3, calls.get());
+        assertEquals(0, coalescer.getReusedResults());
+    }
+
+    private List<CompletableFuture<String>> startCallers(RequestCoalescer<String> coalescer,
+                                                         Supplier<String> call) {
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(CompletableFuture.supplyAsync(() -> coalescer.execute("clave", () -> {
+                calls.incrementAndGet();
+                return call.get();
+            }), executor));
+        }
+        return results;
+    }
+
+    private static void awaitCoalesced(RequestCoalescer<String> coalescer) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (coalescer.getCoalescedCalls() < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String count() {
+        return "dato-" + calls.incrementAndGet();
+    }
+}
@@ -0,0 +1,80 @@
+package com.ejemplo.resiliencedemo;
+
+import com.arquitectura.resilience.admission.AdmissionFilter;
+import com.arquitectura.resilience.admission.AdmissionQueue;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Control de admisión delante de {@code /llamar} y {@code /llamar-async}, con el
+ * {@link AdmissionFilter} de resilience-core (el mismo que usa el proyecto 03).
+ *
+ * Publica {@code servicio.admision{resultado=admitidas|encoladas|descartadas|rechazadas}},
+ * {@code servicio.admision.cola}, {@code servicio.admision.en.curso} y
+ * {@code servicio.admision.sobrecarga}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "servicio.admision.habilitado", havingValue = "true", matchIfMissing = true)
+public class AdmisionConfig {
+
+    private static final String CUERPO_DESCARTE = "Servicio saturado: la petición esperó demasiado en cola";
+
+    @Bean
+    public AdmissionFilter filtroAdmision(
+            MeterRegistry meterRegistry,
+            @Value("${servicio.admision.rutas:/llamar,/llamar-async}") List<String> rutas,
+            @Value("${servicio.admision.rutas-prioritarias:/health,/actuator/**}") List<String> rutasPrioritarias,
+            @Value("${servicio.admision.max-concurrentes:150}") int maxConcurrentes,
+            @Value("${servicio.admision.max-cola:1000}") int maxCola,
+            @Value("${servicio.admision.objetivo:500ms}") Duration objetivo,
+            @Value("${servicio.admision.intervalo:5s}") Duration intervalo) {
+        AdmissionFilter filtro = new AdmissionFilter(rutas, rutasPrioritarias, maxConcurrentes, maxCola,
+                objetivo, intervalo, "text/plain;charset=UTF-8", CUERPO_DESCARTE);
+        AdmissionQueue<?> cola = filtro.getQueue();
+
+        FunctionCounter.builder("servicio.admision", cola, AdmissionQueue::admitted)
+                .description("Peticiones que obtuvieron permiso")
+                .tag("resultado", "admitidas")
+                .register(meterRegistry);
+        FunctionCounter.builder("servicio.admision", cola, AdmissionQueue::queued)
+                .description("Peticiones que tuvieron que esperar en cola")
+                .tag("resultado", "encoladas")
+                .register(meterRegistry);
+        FunctionCounter.builder("servicio.admision", cola, AdmissionQueue::shed)
+                .description("Peticiones descartadas por esperar demasiado")
+                .tag("resultado", "descartadas")
+                .register(meterRegistry);
+        FunctionCounter.builder("servicio.admision", cola, AdmissionQueue::rejected)
+                .description("Peticiones rechazadas con la cola llena")
+                .tag("resultado", "rechazadas")
+                .register(meterRegistry);
+        Gauge.builder("servicio.admision.cola", cola, AdmissionQueue::queueSize)
+                .description("Peticiones esperando permiso")
+                .register(meterRegistry);
+        Gauge.builder("servicio.admision.en.curso", cola, AdmissionQueue::inFlight)
+                .description("Peticiones atendiéndose con permiso")
+                .register(meterRegistry);
+        Gauge.builder("servicio.admision.sobrecarga", cola, c -> c.isOverloaded() ? 1 : 0)
+                .description("1 si CoDel detecta sobrecarga en el último intervalo")
+                .register(meterRegistry);
+        return filtro;
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> registroFiltroAdmision(AdmissionFilter filtroAdmision) {
+        FilterRegistrationBean<AdmissionFilter> registro = new FilterRegistrationBean<>(filtroAdmision);
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        registro.setAsyncSupported(true);
+        return registro;
+    }
+}
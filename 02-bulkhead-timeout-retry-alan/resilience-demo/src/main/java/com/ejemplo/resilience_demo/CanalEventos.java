@@ -0,0 +1,158 @@
+package com.ejemplo.resiliencedemo;
+
+import com.arquitectura.resilience.events.EventChannel;
+import com.arquitectura.resilience.events.EventSummary;
+import io.github.resilience4j.retry.event.RetryEvent;
+import io.github.resilience4j.retry.event.RetryOnErrorEvent;
+import io.github.resilience4j.retry.event.RetryOnRetryEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Canal asíncrono para los eventos del servicio y de Resilience4j.
+ *
+ * Los hilos que atienden peticiones solo publican en un {@link EventChannel} de
+ * resilience-core; su hilo en segundo plano entrega aquí los eventos y se escribe en consola uno de cada {@code servicio.eventos.muestreo}
+ * eventos y, cada {@code servicio.eventos.intervalo-resumen}, un resumen con el número de
+ * eventos de cada tipo. Si el buffer se llena el evento se descarta y se cuenta.
+ *
+ * Con muestreo 1 (por defecto) la consola muestra lo mismo que antes, paso a paso; para
+ * pruebas de carga conviene subirlo (p. ej. 100) y quedarse con los resúmenes.
+ *
+ * Publica {@code servicio.eventos{resultado=publicados|descartados}} y
+ * {@code servicio.eventos.pendientes}.
+ */
+@Component
+public class CanalEventos implements EventChannel.Handler<Object> {
+
+    /**
+     * Eventos propios del servicio. El número identifica la petición.
+     */
+    public enum Tipo {
+        EJECUTANDO,
+        FALLO_SIMULADO,
+        COMPLETADA,
+        BULKHEAD_RECHAZO,
+        RETRY_FALLBACK,
+        REINTENTO_OMITIDO,
+        REINTENTO_DENEGADO,
+        TIMEOUT
+    }
+
+    public record Evento(Tipo tipo, int numero) {
+    }
+
+    private final EventChannel<Object> canal;
+    private final long intervaloResumenNanos;
+    private final long muestreo;
+
+    // Estado del hilo del canal; no se comparte
+    private final EventSummary resumen = new EventSummary();
+
+    public CanalEventos(MeterRegistry meterRegistry,
+                        @Value("${servicio.eventos.capacidad:8192}") int capacidad,
+                        @Value("${servicio.eventos.intervalo-resumen:10s}") Duration intervaloResumen,
+                        @Value("${servicio.eventos.muestreo:1}") long muestreo) {
+        this.intervaloResumenNanos = intervaloResumen.toNanos();
+        this.muestreo = Math.max(1, muestreo);
+        this.canal = new EventChannel<>("canal-eventos", capacidad, intervaloResumen, this);
+
+        FunctionCounter.builder("servicio.eventos", canal, EventChannel::published)
+                .description("Eventos aceptados en el canal")
+                .tag("resultado", "publicados")
+                .register(meterRegistry);
+        FunctionCounter.builder("servicio.eventos", canal, EventChannel::dropped)
+                .description("Eventos descartados por buffer lleno")
+                .tag("resultado", "descartados")
+                .register(meterRegistry);
+        Gauge.builder("servicio.eventos.pendientes", canal, EventChannel::pending)
+                .description("Eventos pendientes de procesar")
+                .register(meterRegistry);
+    }
+
+    public void publicar(Tipo tipo, int numero) {
+        publicar(new Evento(tipo, numero));
+    }
+
+    /**
+     * Publica un evento sin bloquear. Si el buffer está lleno se descarta y se cuenta.
+     */
+    public void publicar(Object evento) {
+        canal.publish(evento);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        canal.close();
+    }
+
+    @Override
+    public void onEvent(Object evento, long secuencia) {
+        String clave;
+        if (evento instanceof Evento propio) {
+            clave = propio.tipo().name();
+        } else if (evento instanceof RetryEvent retryEvent) {
+            clave = "RETRY " + retryEvent.getName() + " " + retryEvent.getEventType();
+        } else {
+            clave = evento.getClass().getSimpleName();
+        }
+        resumen.add(clave);
+
+        if (secuencia % muestreo == 0) {
+            String linea = formatear(evento);
+            if (linea != null) {
+                System.out.println(linea);
+            }
+        }
+    }
+
+    @Override
+    public void onSummary(long descartadosAhora) {
+        if (resumen.isEmpty() && descartadosAhora == 0) {
+            return;
+        }
+
+        StringBuilder linea = new StringBuilder("📊 Eventos (últimos ")
+                .append(TimeUnit.NANOSECONDS.toSeconds(intervaloResumenNanos)).append(" s):");
+        resumen.forEach((clave, stats) -> linea.append(' ').append(clave).append('=').append(stats.count()).append(';'));
+        linea.append(" descartados=").append(descartadosAhora);
+        System.out.println(linea);
+        resumen.clear();
+    }
+
+    private static String formatear(Object evento) {
+        if (evento instanceof Evento propio) {
+            int n = propio.numero();
+            return switch (propio.tipo()) {
+                case EJECUTANDO -> "▶️  Ejecutando petición #" + n;
+                case FALLO_SIMULADO -> "💥 Fallo simulado en petición #" + n;
+                case COMPLETADA -> "✅ Petición #" + n + " completada exitosamente";
+                case BULKHEAD_RECHAZO -> "🚫 BULKHEAD ACTIVADO - Rechazando petición";
+                case RETRY_FALLBACK -> "🔄 RETRY FALLBACK - Todos los intentos fallaron";
+                case REINTENTO_OMITIDO -> "⏭️  Reintento omitido tras el intento " + n + " - no cabe en el plazo";
+                case REINTENTO_DENEGADO -> "🪙 Reintento denegado tras el intento " + n + " - presupuesto agotado";
+                case TIMEOUT -> "⏱️  TIMEOUT - Plazo de la petición agotado";
+            };
+        }
+        if (evento instanceof RetryOnRetryEvent reintento) {
+            if (reintento.getName().endsWith("Async")) {
+                return "⏱️  RETRY ASYNC #" + reintento.getNumberOfRetryAttempts() + " programado en "
+                        + reintento.getWaitInterval().toMillis() + " ms - Bulkhead liberado mientras tanto";
+            }
+            return "🔄 RETRY #" + reintento.getNumberOfRetryAttempts()
+                    + " - Reintentando operación después de: " + reintento.getLastThrowable().getMessage();
+        }
+        if (evento instanceof RetryOnErrorEvent agotado) {
+            return "❌ RETRY AGOTADO después de " + agotado.getNumberOfRetryAttempts() + " intentos";
+        }
+        // El resto de eventos (éxitos de Retry, errores ignorados...) solo cuentan en el resumen
+        return null;
+    }
+}
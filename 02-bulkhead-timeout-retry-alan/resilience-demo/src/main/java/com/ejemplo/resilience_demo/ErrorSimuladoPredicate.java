@@ -0,0 +1,18 @@
+package com.ejemplo.resiliencedemo;
+
+import java.util.function.Predicate;
+
+/**
+ * Errores que el Retry reintenta: solo el fallo simulado de la operación lenta.
+ *
+ * Se referencia desde {@code resilience4j.retry.instances.miServicio.retry-exception-predicate}
+ * y lo usa también el Retry asíncrono. Las excepciones propias de la demo (sin plazo,
+ * presupuesto agotado, rechazo del Bulkhead) no se reintentan.
+ */
+public class ErrorSimuladoPredicate implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable e) {
+        return e instanceof ServicioLento.ErrorSimuladoException;
+    }
+}
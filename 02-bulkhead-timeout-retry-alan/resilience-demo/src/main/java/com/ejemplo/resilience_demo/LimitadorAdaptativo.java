@@ -0,0 +1,144 @@
+package com.ejemplo.resiliencedemo;
+
+import com.arquitectura.resilience.RejectedCallException;
+import com.arquitectura.resilience.ResilientOperation;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Limitador de concurrencia adaptativo (AIMD: incremento aditivo, reducción multiplicativa).
+ *
+ * Sustituye al Bulkhead de límite fijo: en lugar de 3 llamadas simultáneas siempre, el
+ * límite sube de uno en uno mientras las llamadas terminan bien y rápido, y se reduce
+ * multiplicando por {@code factorReduccion} cuando una llamada falla o supera la latencia
+ * objetivo. Así la concurrencia sigue a lo que el servicio de abajo puede sostener.
+ *
+ * Ocupa el lugar del Bulkhead en la cadena de decoradores ({@link #decorateOperation} como
+ * etapa de un {@code ResiliencePipeline} y {@link #decorateCompletionStage}) y rechaza de
+ * inmediato con {@link LimiteExcedidoException} cuando no hay hueco: una sola instancia sin
+ * traza que el pipeline trata como {@code REJECTED}.
+ *
+ * Publica {@code servicio.limitador.limite} y {@code servicio.limitador.en.curso}.
+ */
+public class LimitadorAdaptativo {
+
+    private final int limiteMinimo;
+    private final int limiteMaximo;
+    private final long latenciaObjetivoNanos;
+    private final double factorReduccion;
+
+    private final LimiteExcedidoException rechazo;
+    private final AtomicInteger enCurso = new AtomicInteger();
+    // El límite con decimales solo se modifica dentro de ajustar(); la parte entera se
+    // publica en un volatile para que adquirir permiso no necesite bloqueo
+    private double limite;
+    private volatile int limiteActual;
+
+    public LimitadorAdaptativo(String nombre, int limiteInicial, int limiteMinimo, int limiteMaximo,
+                               Duration latenciaObjetivo, double factorReduccion, MeterRegistry meterRegistry) {
+        this.limiteMinimo = limiteMinimo;
+        this.limiteMaximo = limiteMaximo;
+        this.latenciaObjetivoNanos = latenciaObjetivo.toNanos();
+        this.factorReduccion = factorReduccion;
+        this.limite = Math.max(limiteMinimo, Math.min(limiteMaximo, limiteInicial));
+        this.limiteActual = (int) limite;
+        this.rechazo = new LimiteExcedidoException(nombre);
+
+        Gauge.builder("servicio.limitador.limite", this, LimitadorAdaptativo::getLimite)
+                .description("Límite de concurrencia actual")
+                .tag("name", nombre)
+                .register(meterRegistry);
+        Gauge.builder("servicio.limitador.en.curso", enCurso, AtomicInteger::get)
+                .description("Llamadas en curso")
+                .tag("name", nombre)
+                .register(meterRegistry);
+    }
+
+    public static <I, O> ResilientOperation<I, O> decorateOperation(LimitadorAdaptativo limitador,
+                                                                   ResilientOperation<I, O> operacion) {
+        return entrada -> {
+            if (!limitador.adquirir()) {
+                throw limitador.rechazo;
+            }
+            long inicio = System.nanoTime();
+            boolean exito = false;
+            try {
+                O resultado = operacion.apply(entrada);
+                exito = true;
+                return resultado;
+            } finally {
+                limitador.liberar(System.nanoTime() - inicio, exito);
+            }
+        };
+    }
+
+    public static <T> Supplier<CompletionStage<T>> decorateCompletionStage(LimitadorAdaptativo limitador,
+                                                                           Supplier<CompletionStage<T>> supplier) {
+        return () -> {
+            if (!limitador.adquirir()) {
+                return CompletableFuture.failedFuture(limitador.rechazo);
+            }
+            long inicio = System.nanoTime();
+            CompletionStage<T> etapa;
+            try {
+                etapa = supplier.get();
+            } catch (RuntimeException e) {
+                limitador.liberar(System.nanoTime() - inicio, false);
+                return CompletableFuture.failedFuture(e);
+            }
+            return etapa.whenComplete((resultado, error) ->
+                    limitador.liberar(System.nanoTime() - inicio, error == null));
+        };
+    }
+
+    public int getLimite() {
+        return limiteActual;
+    }
+
+    public int getEnCurso() {
+        return enCurso.get();
+    }
+
+    private boolean adquirir() {
+        while (true) {
+            int actual = enCurso.get();
+            if (actual >= limiteActual) {
+                return false;
+            }
+            if (enCurso.compareAndSet(actual, actual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void liberar(long latenciaNanos, boolean exito) {
+        int enCursoAlTerminar = enCurso.getAndDecrement();
+        ajustar(latenciaNanos, exito, enCursoAlTerminar);
+    }
+
+    private synchronized void ajustar(long latenciaNanos, boolean exito, int enCursoAlTerminar) {
+        if (!exito || latenciaNanos > latenciaObjetivoNanos) {
+            limite = Math.max(limiteMinimo, limite * factorReduccion);
+        } else if (enCursoAlTerminar * 2 >= limite) {
+            // Solo se sube si el límite se está usando; si sobra capacidad, subir no
+            // aporta información sobre lo que aguanta el servicio
+            limite = Math.min(limiteMaximo, limite + 1);
+        }
+        limiteActual = (int) limite;
+    }
+
+    /**
+     * Excepción lanzada cuando el limitador no tiene hueco para otra llamada.
+     */
+    public static class LimiteExcedidoException extends RejectedCallException {
+        public LimiteExcedidoException(String limitador) {
+            super("LimitadorAdaptativo[" + limitador + "]", "Limitador '" + limitador + "' lleno");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.ejemplo.resiliencedemo;
+
+import com.arquitectura.resilience.metrics.EndpointMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Latencia y número de peticiones por endpoint y por resultado, con el
+ * {@link EndpointMetrics} de resilience-core (el mismo que usan los proyectos 01 y 03).
+ *
+ * Consulta: /actuator/metrics/demo.endpoint.requests?tag=endpoint:llamar&tag=outcome:retried
+ */
+@Configuration
+public class MetricasConfig {
+
+    /**
+     * Endpoints instrumentados en {@code demo.endpoint.requests}.
+     */
+    public enum Endpoint {
+        LLAMAR("llamar"),
+        LLAMAR_ASYNC("llamar-async");
+
+        private final String etiqueta;
+
+        Endpoint(String etiqueta) {
+            this.etiqueta = etiqueta;
+        }
+
+        public String getEtiqueta() {
+            return etiqueta;
+        }
+    }
+
+    @Bean
+    public EndpointMetrics<Endpoint> metricasEndpoint(MeterRegistry meterRegistry) {
+        return new EndpointMetrics<>(meterRegistry, Endpoint.class, Endpoint::getEtiqueta);
+    }
+}
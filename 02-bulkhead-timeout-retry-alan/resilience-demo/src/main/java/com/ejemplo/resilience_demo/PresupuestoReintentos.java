@@ -0,0 +1,96 @@
+package com.ejemplo.resiliencedemo;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Presupuesto de reintentos compartido por todas las llamadas de una instancia de Retry
+ * (cubo de fichas).
+ *
+ * Cada primer intento deposita {@code proporcion} fichas y cada reintento gasta una, con un
+ * máximo de {@code maximo} fichas acumuladas. A la larga los reintentos no pasan de
+ * {@code proporcion} por cada primer intento: con 0.2 la carga sobre el servicio de abajo
+ * sube como mucho un 20 %, no se triplica. El cubo empieza lleno, así que los errores
+ * esporádicos se reintentan aunque haya poco tráfico; cuando el servicio falla de forma
+ * sostenida el cubo se vacía y los reintentos se deniegan al momento.
+ *
+ * Las fichas se guardan en milésimas en un {@link AtomicLong}: depositar y gastar no
+ * bloquean.
+ *
+ * Publica {@code servicio.reintentos.presupuesto{resultado=concedidos|denegados}} y
+ * {@code servicio.reintentos.presupuesto.fichas}, con la etiqueta {@code name} del Retry.
+ */
+public class PresupuestoReintentos {
+
+    private static final long ESCALA = 1000;
+
+    private final long deposito;
+    private final long maximo;
+    private final AtomicLong saldo;
+    private final LongAdder concedidos = new LongAdder();
+    private final LongAdder denegados = new LongAdder();
+
+    public PresupuestoReintentos(String nombre, double proporcion, int maximo, MeterRegistry meterRegistry) {
+        this.deposito = Math.round(proporcion * ESCALA);
+        this.maximo = Math.max(1, maximo) * ESCALA;
+        this.saldo = new AtomicLong(this.maximo);
+
+        FunctionCounter.builder("servicio.reintentos.presupuesto", concedidos, LongAdder::sum)
+                .description("Reintentos con ficha disponible")
+                .tag("name", nombre)
+                .tag("resultado", "concedidos")
+                .register(meterRegistry);
+        FunctionCounter.builder("servicio.reintentos.presupuesto", denegados, LongAdder::sum)
+                .description("Reintentos denegados por presupuesto agotado")
+                .tag("name", nombre)
+                .tag("resultado", "denegados")
+                .register(meterRegistry);
+        Gauge.builder("servicio.reintentos.presupuesto.fichas", this, PresupuestoReintentos::getFichas)
+                .description("Fichas disponibles para reintentar")
+                .tag("name", nombre)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Anota un primer intento: deposita {@code proporcion} fichas.
+     */
+    public void registrarPrimerIntento() {
+        saldo.accumulateAndGet(deposito, (actual, cantidad) -> Math.min(maximo, actual + cantidad));
+    }
+
+    /**
+     * Gasta una ficha para reintentar.
+     *
+     * @return false si no queda ninguna (el reintento no debe hacerse)
+     */
+    public boolean intentarReintento() {
+        long actual;
+        do {
+            actual = saldo.get();
+            if (actual < ESCALA) {
+                denegados.increment();
+                return false;
+            }
+        } while (!saldo.compareAndSet(actual, actual - ESCALA));
+        concedidos.increment();
+        return true;
+    }
+
+    public double getFichas() {
+        return (double) saldo.get() / ESCALA;
+    }
+
+    /**
+     * Excepción lanzada en lugar de reintentar cuando el presupuesto está agotado. Sin traza:
+     * la causa ya lleva la del fallo.
+     */
+    public static class PresupuestoAgotadoException extends RuntimeException {
+        public PresupuestoAgotadoException(String retry, Throwable causa) {
+            super("Presupuesto de reintentos agotado en " + retry, causa, false, false);
+        }
+    }
+}
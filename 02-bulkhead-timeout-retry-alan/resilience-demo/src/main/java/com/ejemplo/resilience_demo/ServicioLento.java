@@ -1,100 +1,421 @@
-package com.ejemplo.resiliencedemo;
-
-import io.github.resilience4j.bulkhead.Bulkhead;
-import io.github.resilience4j.bulkhead.BulkheadConfig;
-import io.github.resilience4j.bulkhead.BulkheadRegistry;
-import io.github.resilience4j.retry.Retry;
-import io.github.resilience4j.retry.RetryConfig;
-import io.github.resilience4j.retry.RetryRegistry;
-import org.springframework.stereotype.Service;
-
-import java.time.Duration;
-import java.util.Random;
-import java.util.function.Supplier;
-
-@Service
-public class ServicioLento {
-    
-    private Random random = new Random();
-    private int contador = 0;
-    private final Bulkhead bulkhead;
-    private final Retry retry;
-
-    public ServicioLento() {
-        // Configurar Bulkhead
-        BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
-                .maxConcurrentCalls(3)
-                .maxWaitDuration(Duration.ZERO)
-                .build();
-        
-        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(bulkheadConfig);
-        this.bulkhead = bulkheadRegistry.bulkhead("miServicio");
-        
-        // Configurar Retry
-        RetryConfig retryConfig = RetryConfig.custom()
-                .maxAttempts(3)
-                .waitDuration(Duration.ofSeconds(1))
-                .retryOnException(e -> e instanceof RuntimeException && e.getMessage().contains("Error simulado"))
-                .build();
-        
-        RetryRegistry retryRegistry = RetryRegistry.of(retryConfig);
-        this.retry = retryRegistry.retry("miServicio");
-        
-        // Agregar listener para ver los reintentos
-        retry.getEventPublisher()
-            .onRetry(event -> System.out.println("🔄 RETRY #" + event.getNumberOfRetryAttempts() + 
-                " - Reintentando operación después de: " + event.getLastThrowable().getMessage()));
-        
-        retry.getEventPublisher()
-            .onError(event -> System.out.println("❌ RETRY AGOTADO después de " + 
-                event.getNumberOfRetryAttempts() + " intentos"));
-    }
-
-    public String operacionLenta() {
-        // Decorar la operación con Bulkhead y Retry
-        Supplier<String> decoratedSupplier = Bulkhead.decorateSupplier(bulkhead, 
-            Retry.decorateSupplier(retry, this::ejecutarOperacion));
-        
-        try {
-            return decoratedSupplier.get();
-        } catch (Exception e) {
-            return manejarError(e);
-        }
-    }
-
-    private String ejecutarOperacion() {
-        try {
-            contador++;
-            int numeroOperacion = contador;
-            System.out.println("▶️  Ejecutando petición #" + numeroOperacion);
-            
-            // Simula operación lenta
-            Thread.sleep(3000);
-            
-            // Falla aleatoriamente el 40% de las veces (aumentado para ver más reintentos)
-            if (random.nextInt(100) < 40) {
-                System.out.println("💥 Fallo simulado en petición #" + numeroOperacion);
-                throw new RuntimeException("Error simulado");
-            }
-            
-            System.out.println("✅ Petición #" + numeroOperacion + " completada exitosamente");
-            return "✅ Operación exitosa #" + numeroOperacion;
-        } catch (InterruptedException e) {
-            throw new RuntimeException("Interrumpido", e);
-        }
-    }
-
-    private String manejarError(Exception e) {
-        String mensaje = e.getClass().getSimpleName() + ": " + e.getMessage();
-        
-        if (mensaje.contains("BulkheadFull")) {
-            System.out.println("🚫 BULKHEAD ACTIVADO - Rechazando petición");
-            return "🚫 BULKHEAD: Demasiadas peticiones concurrentes. Intenta más tarde.";
-        } else if (mensaje.contains("Error simulado")) {
-            System.out.println("🔄 RETRY FALLBACK - Todos los intentos fallaron");
-            return "🔄 RETRY: Se agotaron los 3 intentos. La operación falló definitivamente.";
-        } else {
-            return "❌ ERROR: " + mensaje;
-        }
-    }
-}
\ No newline at end of file
+package com.ejemplo.resiliencedemo;
+
+import com.arquitectura.resilience.CallResult;
+import com.arquitectura.resilience.ResiliencePipeline;
+import com.arquitectura.resilience.ResiliencePipelines;
+import com.arquitectura.resilience.metrics.CallOutcome;
+import com.arquitectura.resilience.metrics.EndpointMetrics;
+import com.ejemplo.resiliencedemo.MetricasConfig.Endpoint;
+import com.ejemplo.resiliencedemo.PresupuestoReintentos.PresupuestoAgotadoException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.ExecutorServiceAdapter;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Service
+public class ServicioLento {
+    
+    private Random random = new Random();
+    // Contador compartido entre los hilos del servidor: un int con ++ pierde incrementos
+    private final AtomicInteger contador = new AtomicInteger();
+    private final Bulkhead bulkhead;
+    // Sustituye al Bulkhead cuando servicio.limitador.tipo=adaptativo; null en otro caso
+    private final LimitadorAdaptativo limitador;
+    private final Retry retry;
+    private final Retry retryAsync;
+    // Uno por instancia de Retry, compartido por todas sus llamadas
+    private final PresupuestoReintentos presupuesto;
+    private final PresupuestoReintentos presupuestoAsync;
+    private final TimeLimiter timeLimiter;
+    // Cadena de /llamar, construida una vez; cada petición solo le pasa su Llamada
+    private final ResiliencePipeline<Llamada, String> pipeline;
+    private final long esperaReintentoNanos;
+    private final long intentoEstimadoNanos;
+    private final long duracionOperacionMillis;
+    private final EndpointMetrics<Endpoint> metricas;
+    private final CanalEventos eventos;
+
+    // Hilos para las operaciones: "ejecutor" las ejecuta (las de /llamar también, para poder
+    // cancelarlas al vencer el plazo) y "programador" programa los reintentos asíncronos en
+    // lugar de dormir un hilo. Las dos variantes piden permiso al Bulkhead (o al limitador)
+    // antes de entregar una tarea al ejecutor
+    private final ExecutorService ejecutor;
+    // Con hilos virtuales el ejecutor es el de Spring, que cierra Spring
+    private final boolean ejecutorPropio;
+    private final ScheduledExecutorService programador =
+        Executors.newSingleThreadScheduledExecutor(hilosDaemon("servicio-lento-retry"));
+
+    /**
+     * Bulkhead, Retry y TimeLimiter "miServicio" salen de {@code resilience4j.*} en
+     * application.yml, a través de los registros de {@link ResiliencePipelines}.
+     *
+     * Con {@code spring.threads.virtual.enabled} (perfil {@code virtual}) las operaciones se
+     * ejecutan en el ejecutor de tareas de Spring, que entonces crea un hilo virtual por tarea:
+     * un {@code Thread.sleep} no ocupa un hilo de plataforma tampoco aquí, solo en Tomcat. Sin
+     * él, un pool de hilos de plataforma daemon con tantos hilos como llamadas admite el
+     * Bulkhead (o el límite máximo del limitador adaptativo).
+     */
+    public ServicioLento(ResiliencePipelines pipelines,
+                         EndpointMetrics<Endpoint> metricas,
+                         CanalEventos eventos,
+                         MeterRegistry meterRegistry,
+                         @Qualifier("applicationTaskExecutor") AsyncTaskExecutor tareasSpring,
+                         @Value("${spring.threads.virtual.enabled:false}") boolean hilosVirtuales,
+                         @Value("${servicio.limitador.tipo:bulkhead}") String tipoLimitador,
+                         @Value("${servicio.limitador.limite-inicial:10}") int limiteInicial,
+                         @Value("${servicio.limitador.limite-minimo:1}") int limiteMinimo,
+                         @Value("${servicio.limitador.limite-maximo:200}") int limiteMaximo,
+                         @Value("${servicio.limitador.latencia-objetivo:4s}") Duration latenciaObjetivo,
+                         @Value("${servicio.limitador.factor-reduccion:0.9}") double factorReduccion,
+                         @Value("${resilience4j.retry.instances.miServicio.wait-duration:1s}") Duration esperaReintento,
+                         @Value("${servicio.retry.async.espera-inicial:1s}") Duration esperaInicial,
+                         @Value("${servicio.retry.async.multiplicador:2.0}") double multiplicador,
+                         @Value("${servicio.retry.async.aleatoriedad:0.5}") double aleatoriedad,
+                         @Value("${servicio.retry.presupuesto.proporcion:0.2}") double proporcionReintentos,
+                         @Value("${servicio.retry.presupuesto.maximo:10}") int maximoReintentos,
+                         @Value("${servicio.operacion.duracion:3s}") Duration duracionOperacion,
+                         @Value("${servicio.timeout.intento-estimado:${servicio.operacion.duracion:3s}}") Duration intentoEstimado) {
+        this.metricas = metricas;
+        this.eventos = eventos;
+        this.duracionOperacionMillis = duracionOperacion.toMillis();
+
+        // Bulkhead: 3 llamadas simultáneas y sin espera
+        this.bulkhead = pipelines.bulkhead("miServicio");
+
+        // Configurar limitador adaptativo (opcional)
+        if ("adaptativo".equalsIgnoreCase(tipoLimitador)) {
+            this.limitador = new LimitadorAdaptativo("miServicio", limiteInicial, limiteMinimo, limiteMaximo,
+                    latenciaObjetivo, factorReduccion, meterRegistry);
+        } else {
+            this.limitador = null;
+        }
+
+        // Cancelar una tarea (plazo vencido) interrumpe su hilo también con el adaptador. El
+        // pool propio no necesita más hilos que llamadas admitidas: la cola solo recoge las
+        // que llegan mientras termina una tarea recién cancelada
+        this.ejecutorPropio = !hilosVirtuales;
+        this.ejecutor = hilosVirtuales
+                ? new ExecutorServiceAdapter(tareasSpring)
+                : poolAcotado(limitador != null ? limiteMaximo : bulkhead.getBulkheadConfig().getMaxConcurrentCalls());
+        
+        // Retry: 3 intentos con 1s de espera, solo ante ErrorSimuladoPredicate
+        this.retry = pipelines.retry("miServicio");
+        this.esperaReintentoNanos = esperaReintento.toNanos();
+
+        // Retry de la variante asíncrona: backoff exponencial con jitter
+        // (1s, 2s, ... +-50% por defecto) para que los reintentos no lleguen todos a la vez
+        RetryConfig retryAsyncConfig = RetryConfig.custom()
+                .maxAttempts(3)
+                .retryOnException(new ErrorSimuladoPredicate())
+                .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(esperaInicial, multiplicador, aleatoriedad))
+                .build();
+        this.retryAsync = pipelines.retry("miServicioAsync", retryAsyncConfig);
+
+        // Presupuestos de reintentos: como mucho "proporcion" reintentos por primer intento,
+        // para que un servicio degradado no reciba el triple de carga
+        this.presupuesto = new PresupuestoReintentos(retry.getName(), proporcionReintentos, maximoReintentos,
+                meterRegistry);
+        this.presupuestoAsync = new PresupuestoReintentos(retryAsync.getName(), proporcionReintentos,
+                maximoReintentos, meterRegistry);
+        
+        // Los eventos de Retry van al canal asíncrono: se escriben desde su hilo, no desde el
+        // que atiende la petición
+        retry.getEventPublisher().onEvent(eventos::publicar);
+        retryAsync.getEventPublisher().onEvent(eventos::publicar);
+
+        // Plazo de /llamar de principio a fin (reintentos y esperas incluidos). Al vencer se
+        // cancela la tarea e interrumpe su hilo (cancel-running-future), que deja de trabajar
+        // para un cliente que ya no espera
+        this.timeLimiter = pipelines.timeLimiter("miServicio");
+        this.intentoEstimadoNanos = intentoEstimado.toNanos();
+
+        // El Bulkhead va por fuera del TimeLimiter: una petición rechazada no llega a ocupar
+        // un hilo del ejecutor
+        ResiliencePipeline.Builder<Llamada, String> cadena = pipelines
+                .<Llamada, String>pipeline("miServicio", this::intentoConPlazo)
+                .withRetry(retry)
+                .withTimeLimiter(timeLimiter, ejecutor);
+        if (limitador != null) {
+            cadena.decorate("LimitadorAdaptativo[miServicio]",
+                    operacion -> LimitadorAdaptativo.decorateOperation(limitador, operacion));
+        } else {
+            cadena.withBulkhead(bulkhead);
+        }
+        this.pipeline = cadena
+                .withFallback(this::fallback)
+                .build();
+    }
+
+    /**
+     * Variante síncrona con plazo: Bulkhead(TimeLimiter(Retry(operación))).
+     *
+     * El Bulkhead se consulta en el hilo de la petición; si admite la llamada, el Retry y la
+     * operación se ejecutan en {@code ejecutor} mientras ese hilo espera como mucho el
+     * {@code timeout-duration} del TimeLimiter. Si vence se responde con timeout y se
+     * interrumpe la tarea. Además, tras un fallo solo se reintenta si la espera y un intento
+     * más ({@code servicio.timeout.intento-estimado}) caben en lo que queda de plazo.
+     */
+    public String operacionLenta() {
+        long inicio = System.nanoTime();
+        Llamada llamada = new Llamada(inicio + timeLimiter.getTimeLimiterConfig().getTimeoutDuration().toNanos());
+        String respuesta = pipeline.execute(llamada);
+        metricas.record(Endpoint.LLAMAR, llamada.resultado(), inicio);
+        return respuesta;
+    }
+
+    private String fallback(Llamada llamada, CallResult<String> fallo) {
+        llamada.error = resultadoDeError(fallo);
+        return manejarError(fallo);
+    }
+
+    /**
+     * Variante asíncrona: el Retry envuelve al Bulkhead, no al revés.
+     *
+     * Cada intento pide su propio permiso del Bulkhead y lo libera al terminar; la espera
+     * entre intentos se programa en un temporizador sin ocupar permiso ni hilo. Así una
+     * petición que falla no retiene uno de los 3 permisos durante todos sus reintentos.
+     */
+    public CompletableFuture<String> operacionLentaAsync() {
+        long inicio = System.nanoTime();
+        AtomicInteger intentos = new AtomicInteger();
+
+        Supplier<CompletionStage<String>> intento = () -> {
+            int numero = intentos.incrementAndGet();
+            return CompletableFuture.supplyAsync(() -> intentoConPresupuesto(numero), ejecutor);
+        };
+
+        return Retry.decorateCompletionStage(retryAsync, programador,
+                    limitarAsync(intento))
+                .get()
+                .toCompletableFuture()
+                .thenApply(respuesta -> {
+                    metricas.record(Endpoint.LLAMAR_ASYNC,
+                        intentos.get() > 1 ? CallOutcome.RETRIED : CallOutcome.SUCCESS, inicio);
+                    return respuesta;
+                })
+                .exceptionally(error -> {
+                    // Se clasifica por tipo igual que en el pipeline y se responde con el mismo fallback
+                    CallResult<String> fallo = CallResult.failure(
+                        error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                    metricas.record(Endpoint.LLAMAR_ASYNC, resultadoDeError(fallo), inicio);
+                    return manejarError(fallo);
+                });
+    }
+
+    /**
+     * Un intento de {@link #operacionLenta()}. Si falla con un error que se reintentaría pero
+     * el siguiente intento ya no terminaría dentro del plazo, lanza
+     * {@link PlazoInsuficienteException} (que el Retry no reintenta) en lugar de empezarlo;
+     * si cabe, el reintento tiene que pasar además por el presupuesto.
+     */
+    private String intentoConPlazo(Llamada llamada) {
+        int intento = ++llamada.intentos;
+        if (intento == 1) {
+            presupuesto.registrarPrimerIntento();
+        }
+        try {
+            return ejecutarOperacion();
+        } catch (RuntimeException e) {
+            if (seReintentaria(retry, intento, e)) {
+                if (llamada.plazo - System.nanoTime() < esperaReintentoNanos + intentoEstimadoNanos) {
+                    eventos.publicar(CanalEventos.Tipo.REINTENTO_OMITIDO, intento);
+                    throw new PlazoInsuficienteException(intento, e);
+                }
+                gastarPresupuesto(retry, presupuesto, intento, e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Un intento de {@link #operacionLentaAsync()}, con el mismo presupuesto de reintentos.
+     */
+    private String intentoConPresupuesto(int intento) {
+        if (intento == 1) {
+            presupuestoAsync.registrarPrimerIntento();
+        }
+        try {
+            return ejecutarOperacion();
+        } catch (RuntimeException e) {
+            if (seReintentaria(retryAsync, intento, e)) {
+                gastarPresupuesto(retryAsync, presupuestoAsync, intento, e);
+            }
+            throw e;
+        }
+    }
+
+    private static boolean seReintentaria(Retry retry, int intento, Throwable e) {
+        return intento < retry.getRetryConfig().getMaxAttempts()
+            && retry.getRetryConfig().getExceptionPredicate().test(e);
+    }
+
+    /**
+     * Sin ficha el error se sustituye por {@link PresupuestoAgotadoException}, que el Retry no
+     * reintenta: la petición falla ya en lugar de añadir carga a un servicio que falla.
+     */
+    private void gastarPresupuesto(Retry retry, PresupuestoReintentos presupuesto, int intento, RuntimeException e) {
+        if (!presupuesto.intentarReintento()) {
+            eventos.publicar(CanalEventos.Tipo.REINTENTO_DENEGADO, intento);
+            throw new PresupuestoAgotadoException(retry.getName(), e);
+        }
+    }
+
+    private <T> Supplier<CompletionStage<T>> limitarAsync(Supplier<CompletionStage<T>> supplier) {
+        return limitador != null
+            ? LimitadorAdaptativo.decorateCompletionStage(limitador, supplier)
+            : Bulkhead.decorateCompletionStage(bulkhead, supplier);
+    }
+
+    /**
+     * Como {@link CallOutcome#ofFailure}, más las señales propias: sin plazo para reintentar
+     * cuenta como timeout y sin ficha de reintento como presupuesto agotado.
+     */
+    private static CallOutcome resultadoDeError(CallResult<?> fallo) {
+        if (fallo.cause() instanceof PlazoInsuficienteException) {
+            return CallOutcome.TIMEOUT;
+        }
+        if (fallo.cause() instanceof PresupuestoAgotadoException) {
+            return CallOutcome.RETRY_BUDGET_EXHAUSTED;
+        }
+        return CallOutcome.ofFailure(fallo);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        programador.shutdownNow();
+        if (ejecutorPropio) {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Pool de hilos daemon con como mucho {@code hilos} hilos, que se cierran tras un minuto
+     * sin trabajo.
+     */
+    private static ExecutorService poolAcotado(int hilos) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), hilosDaemon("servicio-lento"));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static ThreadFactory hilosDaemon(String nombre) {
+        AtomicInteger numero = new AtomicInteger();
+        return tarea -> {
+            Thread hilo = new Thread(tarea, nombre + "-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+    }
+
+    private String ejecutarOperacion() {
+        try {
+            int numeroOperacion = contador.incrementAndGet();
+            eventos.publicar(CanalEventos.Tipo.EJECUTANDO, numeroOperacion);
+            
+            // Simula operación lenta
+            Thread.sleep(duracionOperacionMillis);
+            
+            // Falla aleatoriamente el 40% de las veces (aumentado para ver más reintentos)
+            if (random.nextInt(100) < 40) {
+                eventos.publicar(CanalEventos.Tipo.FALLO_SIMULADO, numeroOperacion);
+                throw new ErrorSimuladoException();
+            }
+            
+            eventos.publicar(CanalEventos.Tipo.COMPLETADA, numeroOperacion);
+            return "✅ Operación exitosa #" + numeroOperacion;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrumpido", e);
+        }
+    }
+
+    /**
+     * Respuesta de fallback según el resultado de la llamada y, si falló, el tipo de error.
+     */
+    private String manejarError(CallResult<?> fallo) {
+        Throwable causa = fallo.cause();
+
+        if (fallo.outcome() == CallResult.Outcome.TIMED_OUT || causa instanceof PlazoInsuficienteException) {
+            eventos.publicar(CanalEventos.Tipo.TIMEOUT, 0);
+            return "⏱️ TIMEOUT: La operación no terminó dentro del plazo de "
+                + timeLimiter.getTimeLimiterConfig().getTimeoutDuration().toSeconds() + " s.";
+        } else if (fallo.outcome() == CallResult.Outcome.REJECTED) {
+            eventos.publicar(CanalEventos.Tipo.BULKHEAD_RECHAZO, 0);
+            return "🚫 BULKHEAD: Demasiadas peticiones concurrentes. Intenta más tarde.";
+        } else if (causa instanceof PresupuestoAgotadoException) {
+            return "🪙 RETRY: Presupuesto de reintentos agotado. No se reintenta para no sobrecargar el servicio.";
+        } else if (causa instanceof ErrorSimuladoException) {
+            eventos.publicar(CanalEventos.Tipo.RETRY_FALLBACK, 0);
+            return "🔄 RETRY: Se agotaron los 3 intentos. La operación falló definitivamente.";
+        } else {
+            return "❌ ERROR: " + causa.getClass().getSimpleName() + ": " + causa.getMessage();
+        }
+    }
+
+    /**
+     * Estado de una petición a {@link #operacionLenta()}: su plazo, los intentos (los cuenta
+     * el hilo de "ejecutor" y los lee el de la petición) y el error si acabó en fallback.
+     */
+    private static final class Llamada {
+
+        private final long plazo;
+        private volatile int intentos;
+        private volatile CallOutcome error;
+
+        Llamada(long plazo) {
+            this.plazo = plazo;
+        }
+
+        CallOutcome resultado() {
+            if (error != null) {
+                return error;
+            }
+            return intentos > 1 ? CallOutcome.RETRIED : CallOutcome.SUCCESS;
+        }
+    }
+
+    /**
+     * Fallo simulado de la operación lenta, el único que se reintenta
+     * ({@link ErrorSimuladoPredicate}). Sin traza: es un resultado esperado de la demo, no un
+     * error que haya que depurar.
+     */
+    public static class ErrorSimuladoException extends RuntimeException {
+        public ErrorSimuladoException() {
+            super("Error simulado", null, false, false);
+        }
+    }
+
+    /**
+     * Excepción lanzada cuando tras un fallo no queda plazo para otro intento. Sin traza: la
+     * causa ya lleva la del fallo.
+     */
+    public static class PlazoInsuficienteException extends RuntimeException {
+        public PlazoInsuficienteException(int intento, Throwable causa) {
+            super("Sin plazo para reintentar después del intento " + intento, causa, false, false);
+        }
+    }
+}
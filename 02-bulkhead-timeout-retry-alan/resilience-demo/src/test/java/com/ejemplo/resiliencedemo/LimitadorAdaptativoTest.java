@@ -0,0 +1,91 @@
+package com.ejemplo.resiliencedemo;
+
+import com.arquitectura.resilience.ResilientOperation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimitadorAdaptativoTest {
+
+    private final LimitadorAdaptativo limitador = new LimitadorAdaptativo("test", 4, 1, 6,
+            Duration.ofSeconds(10), 0.5, new SimpleMeterRegistry());
+
+    @Test
+    void subeDeUnoEnUnoConLlamadasRapidasYUsandoElLimite() {
+        ResilientOperation<String, String> operacion = LimitadorAdaptativo.decorateOperation(limitador, entrada -> {
+            // Con dos en curso sobre un límite de 4 el límite se está usando
+            ResilientOperation<String, String> interior = LimitadorAdaptativo.decorateOperation(limitador, e -> e);
+            return interior.apply(entrada);
+        });
+
+        invocar(operacion);
+        assertEquals(5, limitador.getLimite());
+        assertEquals(0, limitador.getEnCurso());
+    }
+
+    @Test
+    void noSubeSiSobraCapacidad() throws Exception {
+        ResilientOperation<String, String> operacion = LimitadorAdaptativo.decorateOperation(limitador, e -> e);
+
+        operacion.apply("hola");
+
+        assertEquals(4, limitador.getLimite());
+    }
+
+    @Test
+    void seReduceAlFallar() {
+        ResilientOperation<String, String> operacion = LimitadorAdaptativo.decorateOperation(limitador, entrada -> {
+            throw new IllegalStateException("caído");
+        });
+
+        assertThrows(IllegalStateException.class, () -> operacion.apply("hola"));
+        assertEquals(2, limitador.getLimite());
+        assertThrows(IllegalStateException.class, () -> operacion.apply("hola"));
+        assertThrows(IllegalStateException.class, () -> operacion.apply("hola"));
+        // Nunca por debajo del mínimo
+        assertEquals(1, limitador.getLimite());
+    }
+
+    @Test
+    void rechazaSinHuecoConLaMismaExcepcion() {
+        LimitadorAdaptativo lleno = new LimitadorAdaptativo("lleno", 1, 1, 1,
+                Duration.ofSeconds(10), 0.5, new SimpleMeterRegistry());
+        CompletableFuture<String> pendiente = new CompletableFuture<>();
+        Supplier<CompletionStage<String>> llamada = LimitadorAdaptativo.decorateCompletionStage(lleno, () -> pendiente);
+
+        llamada.get();
+        Throwable primero = rechazo(llamada);
+        Throwable segundo = rechazo(llamada);
+
+        assertTrue(primero instanceof LimitadorAdaptativo.LimiteExcedidoException);
+        assertSame(primero, segundo);
+        assertEquals("LimitadorAdaptativo[lleno]",
+                ((LimitadorAdaptativo.LimiteExcedidoException) primero).getComponent());
+
+        pendiente.complete("hola");
+        assertEquals(0, lleno.getEnCurso());
+    }
+
+    private static Throwable rechazo(Supplier<CompletionStage<String>> llamada) {
+        CompletableFuture<String> futuro = llamada.get().toCompletableFuture();
+        assertTrue(futuro.isCompletedExceptionally());
+        return futuro.handle((valor, error) -> error).join();
+    }
+
+    private static void invocar(ResilientOperation<String, String> operacion) {
+        try {
+            operacion.apply("hola");
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
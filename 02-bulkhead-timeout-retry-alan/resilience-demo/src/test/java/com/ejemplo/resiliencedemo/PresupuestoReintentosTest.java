@@ -0,0 +1,61 @@
+package com.ejemplo.resiliencedemo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PresupuestoReintentosTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void empiezaLlenoYSeAgota() {
+        PresupuestoReintentos presupuesto = new PresupuestoReintentos("test", 0.2, 2, meterRegistry);
+
+        assertTrue(presupuesto.intentarReintento());
+        assertTrue(presupuesto.intentarReintento());
+        assertFalse(presupuesto.intentarReintento());
+        assertEquals(0.0, presupuesto.getFichas());
+    }
+
+    @Test
+    void cadaPrimerIntentoDepositaLaProporcion() {
+        PresupuestoReintentos presupuesto = new PresupuestoReintentos("test", 0.2, 1, meterRegistry);
+        presupuesto.intentarReintento();
+
+        for (int i = 0; i < 4; i++) {
+            presupuesto.registrarPrimerIntento();
+        }
+        assertFalse(presupuesto.intentarReintento());
+
+        presupuesto.registrarPrimerIntento();
+        assertTrue(presupuesto.intentarReintento());
+    }
+
+    @Test
+    void noAcumulaMasDelMaximo() {
+        PresupuestoReintentos presupuesto = new PresupuestoReintentos("test", 0.5, 3, meterRegistry);
+
+        for (int i = 0; i < 100; i++) {
+            presupuesto.registrarPrimerIntento();
+        }
+
+        assertEquals(3.0, presupuesto.getFichas());
+    }
+
+    @Test
+    void publicaConcedidosYDenegados() {
+        PresupuestoReintentos presupuesto = new PresupuestoReintentos("test", 0.2, 1, meterRegistry);
+
+        presupuesto.intentarReintento();
+        presupuesto.intentarReintento();
+
+        assertEquals(1.0, meterRegistry.get("servicio.reintentos.presupuesto")
+                .tag("resultado", "concedidos").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("servicio.reintentos.presupuesto")
+                .tag("resultado", "denegados").functionCounter().count());
+    }
+}
@@ -0,0 +1,69 @@
+package com.resilience4j.demo.config;
+
+import com.arquitectura.resilience.admission.AdmissionFilter;
+import com.arquitectura.resilience.admission.AdmissionQueue;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.MediaType;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Control de admisión con CoDel delante de {@code /api/lento} ({@code demo.admission.*}), con el
+ * {@link AdmissionFilter} de resilience-core.
+ *
+ * {@code max-concurrent} debe quedar por debajo de {@code server.tomcat.threads.max} para que
+ * las rutas prioritarias siempre tengan hilos. Métricas: {@code demo.admission.requests}
+ * (result = admitted, queued, shed, rejected), {@code demo.admission.queue.size},
+ * {@code demo.admission.in.flight} y {@code demo.admission.overloaded}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "demo.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfiguration {
+
+    private static final String SHED_BODY =
+        "{\"status\":\"SHED\",\"message\":\"Servicio saturado: la petición esperó demasiado en cola\"}";
+
+    @Bean
+    public AdmissionFilter admissionFilter(
+            @Value("${demo.admission.paths:/api/lento}") List<String> paths,
+            @Value("${demo.admission.priority-paths:/api/ok,/actuator/**}") List<String> priorityPaths,
+            @Value("${demo.admission.max-concurrent:150}") int maxConcurrent,
+            @Value("${demo.admission.max-queue:1000}") int maxQueue,
+            @Value("${demo.admission.target:500ms}") Duration target,
+            @Value("${demo.admission.interval:5s}") Duration interval,
+            MeterRegistry meterRegistry) {
+        AdmissionFilter filter = new AdmissionFilter(paths, priorityPaths, maxConcurrent, maxQueue, target, interval,
+            MediaType.APPLICATION_JSON_VALUE, SHED_BODY);
+        AdmissionQueue<?> queue = filter.getQueue();
+
+        FunctionCounter.builder("demo.admission.requests", queue, AdmissionQueue::admitted)
+            .tag("result", "admitted").register(meterRegistry);
+        FunctionCounter.builder("demo.admission.requests", queue, AdmissionQueue::queued)
+            .tag("result", "queued").register(meterRegistry);
+        FunctionCounter.builder("demo.admission.requests", queue, AdmissionQueue::shed)
+            .tag("result", "shed").register(meterRegistry);
+        FunctionCounter.builder("demo.admission.requests", queue, AdmissionQueue::rejected)
+            .tag("result", "rejected").register(meterRegistry);
+        Gauge.builder("demo.admission.queue.size", queue, AdmissionQueue::queueSize).register(meterRegistry);
+        Gauge.builder("demo.admission.in.flight", queue, AdmissionQueue::inFlight).register(meterRegistry);
+        Gauge.builder("demo.admission.overloaded", queue, q -> q.isOverloaded() ? 1 : 0).register(meterRegistry);
+        return filter;
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilterRegistration(AdmissionFilter admissionFilter) {
+        FilterRegistrationBean<AdmissionFilter> registration = new FilterRegistrationBean<>(admissionFilter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        registration.setAsyncSupported(true);
+        return registration;
+    }
+}
@@ -1,6 +1,6 @@
 package com.resilience4j.demo.config;
 
-import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import com.resilience4j.demo.events.ResilienceEventPipeline;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
@@ -16,34 +16,21 @@ public class CircuitBreakerConfiguration {
     @Autowired(required = false)
     private CircuitBreakerRegistry circuitBreakerRegistry;
 
+    @Autowired
+    private ResilienceEventPipeline eventPipeline;
+
     /**
      * Registra listeners para los eventos del CircuitBreaker
-     * Muestra en logs cuando el circuito cambia de estado
+     * Los eventos se publican en el canal asíncrono, que escribe los cambios de estado,
+     * una muestra de las llamadas y un resumen periódico sin frenar las peticiones
      */
     @PostConstruct
     public void registerEventListeners() {
         if (circuitBreakerRegistry != null) {
             circuitBreakerRegistry.circuitBreaker("demoCircuitBreaker")
                 .getEventPublisher()
-                .onStateTransition(event -> {
-                    logger.warn("╔═══════════════════════════════════════════════════════════════╗");
-                    logger.warn("║ CAMBIO DE ESTADO DEL CIRCUITBREAKER                           ║");
-                    logger.warn("╠═══════════════════════════════════════════════════════════════╣");
-                    logger.warn("║ CircuitBreaker: demoCircuitBreaker                            ║");
-                    logger.warn("║ Estado anterior: {}                                   ", event.getStateTransition().getFromState());
-                    logger.warn("║ Estado nuevo: {}                                      ", event.getStateTransition().getToState());
-                    logger.warn("╚═══════════════════════════════════════════════════════════════╝");
-                })
-                .onSuccess(event -> {
-                    logger.info("✓ Llamada exitosa - Duración: {} ms", event.getElapsedDuration().toMillis());
-                })
-                .onError(event -> {
-                    logger.error("✗ Llamada fallida - Error: {}", event.getThrowable().getMessage());
-                })
-                .onCallNotPermitted(event -> {
-                    logger.warn("⊘ Llamada NO PERMITIDA - CircuitBreaker está OPEN");
-                });
-            
+                .onEvent(eventPipeline::publish);
+
             logger.info("Event listeners registrados para demoCircuitBreaker");
         }
     }
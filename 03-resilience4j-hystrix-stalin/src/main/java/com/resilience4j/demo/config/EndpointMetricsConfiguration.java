@@ -0,0 +1,21 @@
+package com.resilience4j.demo.config;
+
+import com.arquitectura.resilience.metrics.EndpointMetrics;
+import com.resilience4j.demo.metrics.Endpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Latencia por endpoint y resultado.
+ *
+ * Consulta: {@code /actuator/metrics/demo.endpoint.requests?tag=endpoint:lento&tag=outcome:not_permitted}
+ */
+@Configuration
+public class EndpointMetricsConfiguration {
+
+    @Bean
+    public EndpointMetrics<Endpoint> endpointMetrics(MeterRegistry meterRegistry) {
+        return new EndpointMetrics<>(meterRegistry, Endpoint.class, Endpoint::getTag);
+    }
+}
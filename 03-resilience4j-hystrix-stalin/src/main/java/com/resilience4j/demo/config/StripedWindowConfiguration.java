@@ -0,0 +1,75 @@
+package com.resilience4j.demo.config;
+
+import com.resilience4j.demo.window.StripedTimeWindow;
+import com.resilience4j.demo.window.StripedWindowCircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Ventana por tiempo con franjas por núcleo para el {@code demoCircuitBreaker}
+ * ({@code demo.striped-window.enabled=true}).
+ *
+ * Pensada para miles de peticiones por segundo, donde la ventana de 4 llamadas oscila con el
+ * ruido y todas las llamadas se serializan al registrarse. Ver {@link StripedWindowCircuitBreaker}.
+ * El pipeline de {@code /api/lento} lo añade como etapa dentro del Circuit Breaker.
+ *
+ * Mientras el circuito está en {@code DISABLED}, las métricas de Resilience4j
+ * ({@code resilience4j.circuitbreaker.calls}, {@code .failure.rate}...) y el actuator se quedan
+ * a cero porque las llamadas no pasan por su ventana. Lo que ve esta ventana se publica en
+ * {@code demo.striped.window.calls{kind=total|failed|slow}},
+ * {@code demo.striped.window.failure.rate} y {@code demo.striped.window.slow.call.rate}
+ * (-1 sin llamadas, como Resilience4j).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "demo.striped-window", name = "enabled", havingValue = "true")
+public class StripedWindowConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripedWindowConfiguration.class);
+
+    private static final String CIRCUIT_BREAKER_NAME = "demoCircuitBreaker";
+
+    @Bean
+    public StripedWindowCircuitBreaker demoStripedWindow(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${demo.striped-window.window:10s}") Duration window,
+            @Value("${demo.striped-window.buckets:10}") int buckets,
+            @Value("${demo.striped-window.minimum-number-of-calls:100}") long minimumNumberOfCalls,
+            @Value("${demo.striped-window.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${demo.striped-window.slow-call-rate-threshold:100}") float slowCallRateThreshold,
+            @Value("${demo.striped-window.slow-call-duration-threshold:6s}") Duration slowCallDurationThreshold,
+            @Value("${demo.striped-window.evaluation-interval:100ms}") Duration evaluationInterval) {
+        StripedWindowCircuitBreaker stripedWindow = new StripedWindowCircuitBreaker(
+            circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER_NAME),
+            new StripedTimeWindow(window, buckets, slowCallDurationThreshold),
+            minimumNumberOfCalls,
+            failureRateThreshold,
+            slowCallRateThreshold,
+            evaluationInterval
+        );
+
+        Gauge.builder("demo.striped.window.calls", stripedWindow, w -> w.snapshot().calls())
+            .tag("name", CIRCUIT_BREAKER_NAME).tag("kind", "total").register(meterRegistry);
+        Gauge.builder("demo.striped.window.calls", stripedWindow, w -> w.snapshot().failedCalls())
+            .tag("name", CIRCUIT_BREAKER_NAME).tag("kind", "failed").register(meterRegistry);
+        Gauge.builder("demo.striped.window.calls", stripedWindow, w -> w.snapshot().slowCalls())
+            .tag("name", CIRCUIT_BREAKER_NAME).tag("kind", "slow").register(meterRegistry);
+        Gauge.builder("demo.striped.window.failure.rate", stripedWindow, w -> w.snapshot().failureRate())
+            .tag("name", CIRCUIT_BREAKER_NAME).register(meterRegistry);
+        Gauge.builder("demo.striped.window.slow.call.rate", stripedWindow, w -> w.snapshot().slowCallRate())
+            .tag("name", CIRCUIT_BREAKER_NAME).register(meterRegistry);
+
+        logger.info("Ventana por franjas activa para {}: {} en {} cubetas, mínimo {} llamadas",
+            CIRCUIT_BREAKER_NAME, window, buckets, minimumNumberOfCalls);
+        return stripedWindow;
+    }
+}
@@ -0,0 +1,22 @@
+package com.resilience4j.demo.config;
+
+import com.resilience4j.demo.metrics.EndpointMetricsInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMetricsConfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private EndpointMetricsInterceptor endpointMetricsInterceptor;
+
+    /**
+     * Registra la medición de latencia por endpoint y resultado
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(endpointMetricsInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -1,8 +1,14 @@
 package com.resilience4j.demo.controller;
 
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import com.arquitectura.resilience.CallResult;
+import com.arquitectura.resilience.ResiliencePipeline;
+import com.arquitectura.resilience.ResiliencePipelines;
+import com.arquitectura.resilience.metrics.CallOutcome;
+import com.resilience4j.demo.metrics.EndpointMetricsInterceptor;
+import com.resilience4j.demo.window.StripedWindowCircuitBreaker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -17,6 +23,25 @@ public class DemoController {
 
     private static final Logger logger = LoggerFactory.getLogger(DemoController.class);
 
+    private final ResiliencePipeline<Boolean, Map<String, String>> slowPipeline;
+
+    /**
+     * Construye una vez la cadena de {@code /api/lento}: Circuit Breaker
+     * {@code demoCircuitBreaker} (de {@code resilience4j.circuitbreaker.instances}) con
+     * fallback y, si {@code demo.striped-window.enabled=true}, la ventana por franjas dentro.
+     */
+    public DemoController(ResiliencePipelines pipelines,
+                          ObjectProvider<StripedWindowCircuitBreaker> stripedWindow) {
+        ResiliencePipeline.Builder<Boolean, Map<String, String>> builder =
+            pipelines.pipeline("demoCircuitBreaker", this::slow);
+        stripedWindow.ifAvailable(window -> builder.decorate("StripedWindow", window::decorate));
+        this.slowPipeline = builder
+            .withCircuitBreaker()
+            .withFallback((shouldFail, failure) -> fallback(failure))
+            .build();
+        logger.info("Pipeline de /api/lento: {}", slowPipeline);
+    }
+
     /**
      * Endpoint que responde inmediatamente con un mensaje simple
      */
@@ -37,8 +62,11 @@ public class DemoController {
      * @param shouldFail si es true, lanza una excepción; si es false, simula delay
      */
     @GetMapping("/lento")
-    @CircuitBreaker(name = "demoCircuitBreaker", fallbackMethod = "fallback")
-    public Map<String, String> lento(@RequestParam(defaultValue = "false") boolean shouldFail) throws Exception {
+    public Map<String, String> lento(@RequestParam(defaultValue = "false") boolean shouldFail) {
+        return slowPipeline.execute(shouldFail);
+    }
+
+    private Map<String, String> slow(boolean shouldFail) throws InterruptedException {
         logger.info("Endpoint /api/lento llamado - shouldFail: {}", shouldFail);
         
         if (shouldFail) {
@@ -62,16 +90,17 @@ public class DemoController {
      * Método fallback que se ejecuta cuando el CircuitBreaker está OPEN
      * o cuando ocurre un error en el método principal
      * 
-     * @param exception la excepción que causó el fallback (puede ser null)
+     * @param failure resultado de la llamada: {@code REJECTED} con el circuito abierto (sin
+     *                excepción de por medio) o {@code FAILED} con el error
      */
-    public Map<String, String> fallback(Exception exception) {
-        logger.warn("FALLBACK ACTIVADO - Razón: {}", 
-            exception != null ? exception.getMessage() : "CircuitBreaker OPEN");
+    public Map<String, String> fallback(CallResult<?> failure) {
+        logger.warn("FALLBACK ACTIVADO - Razón: {}", failure.reason());
+        EndpointMetricsInterceptor.markOutcome(CallOutcome.ofFailure(failure));
         
         Map<String, String> response = new HashMap<>();
         response.put("status", "FALLBACK");
         response.put("message", "Fallback activado por error o timeout");
-        response.put("reason", exception != null ? exception.getClass().getSimpleName() : "Circuit Open");
+        response.put("reason", failure.outcome().name());
         response.put("timestamp", String.valueOf(System.currentTimeMillis()));
         return response;
     }
@@ -0,0 +1,133 @@
+package com.resilience4j.demo.events;
+
+import com.arquitectura.resilience.events.EventChannel;
+import com.arquitectura.resilience.events.EventSummary;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerEvent;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnErrorEvent;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnStateTransitionEvent;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnSuccessEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Canal asíncrono para los eventos de Resilience4j.
+ *
+ * Los consumidores de eventos solo publican en un {@link EventChannel} de resilience-core; su
+ * hilo en segundo plano los agrega y aquí se escriben en el log:
+ * - Cambios de estado del circuito: siempre, en una línea
+ * - Resto de eventos: uno de cada {@code sample-every}, más un resumen por intervalo con el
+ *   número de eventos por circuito y tipo y la latencia media y máxima
+ *
+ * Si el buffer se llena los eventos se descartan y se cuentan, en lugar de frenar a los hilos
+ * que atienden peticiones. Métricas: {@code resilience.events{result=published|dropped}} y
+ * {@code resilience.events.pending}.
+ */
+@Component
+public class ResilienceEventPipeline implements EventChannel.Handler<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResilienceEventPipeline.class);
+
+    private final EventChannel<Object> channel;
+    private final long summaryIntervalNanos;
+    private final long sampleEvery;
+
+    // Estado del hilo del canal; no se comparte
+    private final EventSummary summary = new EventSummary();
+
+    public ResilienceEventPipeline(@Value("${resilience.events.buffer-size:8192}") int bufferSize,
+                                   @Value("${resilience.events.summary-interval:10s}") Duration summaryInterval,
+                                   @Value("${resilience.events.sample-every:100}") long sampleEvery,
+                                   MeterRegistry meterRegistry) {
+        this.summaryIntervalNanos = summaryInterval.toNanos();
+        this.sampleEvery = Math.max(1, sampleEvery);
+        this.channel = new EventChannel<>("resilience-events", bufferSize, summaryInterval, this);
+
+        FunctionCounter.builder("resilience.events", channel, EventChannel::published)
+            .description("Eventos publicados en el canal")
+            .tag("result", "published")
+            .register(meterRegistry);
+        FunctionCounter.builder("resilience.events", channel, EventChannel::dropped)
+            .description("Eventos descartados por buffer lleno")
+            .tag("result", "dropped")
+            .register(meterRegistry);
+        Gauge.builder("resilience.events.pending", channel, EventChannel::pending)
+            .description("Eventos pendientes de procesar")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Publica un evento sin bloquear. Si el buffer está lleno se descarta y se cuenta.
+     */
+    public void publish(Object event) {
+        channel.publish(event);
+    }
+
+    @PreDestroy
+    public void stop() {
+        channel.close();
+    }
+
+    @Override
+    public void onEvent(Object event, long sequence) {
+        if (event instanceof CircuitBreakerOnStateTransitionEvent transition) {
+            logger.warn("CircuitBreaker {}: {} -> {}", transition.getCircuitBreakerName(),
+                transition.getStateTransition().getFromState(), transition.getStateTransition().getToState());
+        } else if (sequence % sampleEvery == 0) {
+            logSample(event);
+        }
+
+        if (event instanceof CircuitBreakerEvent cbEvent) {
+            long elapsedNanos = -1;
+            if (event instanceof CircuitBreakerOnSuccessEvent success) {
+                elapsedNanos = success.getElapsedDuration().toNanos();
+            } else if (event instanceof CircuitBreakerOnErrorEvent error) {
+                elapsedNanos = error.getElapsedDuration().toNanos();
+            }
+            summary.add(cbEvent.getCircuitBreakerName() + " " + cbEvent.getEventType(), elapsedNanos);
+        } else {
+            summary.add(event.getClass().getSimpleName());
+        }
+    }
+
+    @Override
+    public void onSummary(long droppedSinceLastSummary) {
+        if (summary.isEmpty() && droppedSinceLastSummary == 0) {
+            return;
+        }
+
+        StringBuilder line = new StringBuilder("Resumen de eventos (")
+            .append(TimeUnit.NANOSECONDS.toSeconds(summaryIntervalNanos)).append(" s):");
+        summary.forEach((key, stats) -> {
+            line.append(' ').append(key).append('=').append(stats.count());
+            if (stats.timed() > 0) {
+                line.append(" (media ").append(stats.averageNanos() / 1_000_000)
+                    .append(" ms, máx ").append(stats.maxNanos() / 1_000_000).append(" ms)");
+            }
+            line.append(';');
+        });
+        line.append(" descartados=").append(droppedSinceLastSummary);
+        logger.info(line.toString());
+        summary.clear();
+    }
+
+    private void logSample(Object event) {
+        if (event instanceof CircuitBreakerOnSuccessEvent success) {
+            logger.info("[muestra 1/{}] ✓ Llamada exitosa - Duración: {} ms", sampleEvery,
+                success.getElapsedDuration().toMillis());
+        } else if (event instanceof CircuitBreakerOnErrorEvent error) {
+            logger.info("[muestra 1/{}] ✗ Llamada fallida - Error: {}", sampleEvery,
+                error.getThrowable().getMessage());
+        } else {
+            logger.info("[muestra 1/{}] {}", sampleEvery, event);
+        }
+    }
+}
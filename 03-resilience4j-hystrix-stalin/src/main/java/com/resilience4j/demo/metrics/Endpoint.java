@@ -0,0 +1,33 @@
+package com.resilience4j.demo.metrics;
+
+/**
+ * Endpoints instrumentados, identificados por su patrón de ruta.
+ */
+public enum Endpoint {
+    OK("/api/ok", "ok"),
+    LENTO("/api/lento", "lento");
+
+    private final String pattern;
+    private final String tag;
+
+    Endpoint(String pattern, String tag) {
+        this.pattern = pattern;
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * @return el endpoint del patrón indicado, o null si no está instrumentado
+     */
+    public static Endpoint fromPattern(String pattern) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.pattern.equals(pattern)) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+}
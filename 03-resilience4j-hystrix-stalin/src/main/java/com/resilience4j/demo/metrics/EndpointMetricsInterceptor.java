@@ -0,0 +1,65 @@
+package com.resilience4j.demo.metrics;
+
+import com.arquitectura.resilience.metrics.CallOutcome;
+import com.arquitectura.resilience.metrics.EndpointMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Mide cada petición a los endpoints instrumentados.
+ *
+ * La medición se hace aquí, alrededor de toda la petición, y el fallback del pipeline
+ * indica su resultado con {@link #markOutcome(CallOutcome)}.
+ */
+@Component
+public class EndpointMetricsInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = EndpointMetricsInterceptor.class.getName() + ".start";
+    private static final String OUTCOME_ATTRIBUTE = EndpointMetricsInterceptor.class.getName() + ".outcome";
+
+    private final EndpointMetrics<Endpoint> endpointMetrics;
+
+    public EndpointMetricsInterceptor(EndpointMetrics<Endpoint> endpointMetrics) {
+        this.endpointMetrics = endpointMetrics;
+    }
+
+    /**
+     * Marca el resultado de la petición en curso (por defecto, éxito).
+     */
+    public static void markOutcome(CallOutcome outcome) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(OUTCOME_ATTRIBUTE, outcome, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Endpoint endpoint = pattern instanceof String
+            ? Endpoint.fromPattern((String) pattern)
+            : null;
+        if (endpoint == null || !(start instanceof Long)) {
+            return;
+        }
+
+        Object outcome = request.getAttribute(OUTCOME_ATTRIBUTE);
+        if (!(outcome instanceof CallOutcome)) {
+            outcome = ex != null ? CallOutcome.FALLBACK : CallOutcome.SUCCESS;
+        }
+        endpointMetrics.record(endpoint, (CallOutcome) outcome, (Long) start);
+    }
+}
@@ -0,0 +1,141 @@
+package com.resilience4j.demo.window;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Ventana deslizante por tiempo para registrar llamadas desde muchos hilos a la vez.
+ *
+ * La ventana se divide en cubetas de tiempo y cada cubeta en franjas, tantas como núcleos
+ * (redondeado a potencia de dos). Cada hilo escribe siempre en su franja, así que registrar
+ * una llamada son un par de incrementos atómicos sin contención entre núcleos, en lugar del
+ * {@code synchronized} de las ventanas de Resilience4j. Las franjas están separadas 64 bytes
+ * para no compartir línea de caché.
+ *
+ * Cada franja lleva la época de la cubeta a la que pertenecen sus contadores: el primer
+ * registro de una cubeta nueva la reinicia, y {@link #snapshot()} suma sin bloqueos las
+ * franjas cuya época está dentro de la ventana. El resultado es aproximado: un registro
+ * concurrente con el reinicio de su franja puede perderse.
+ */
+public class StripedTimeWindow {
+
+    // Posiciones dentro de una franja (8 longs = 64 bytes)
+    private static final int EPOCH = 0;
+    private static final int CALLS = 1;
+    private static final int FAILED = 2;
+    private static final int SLOW = 3;
+    private static final int STRIPE_SIZE = 8;
+
+    private final int bucketCount;
+    private final long bucketNanos;
+    private final long slowCallThresholdNanos;
+    private final int stripeMask;
+    private final AtomicLongArray[] buckets;
+    private final LongSupplier clock;
+
+    /**
+     * @param window Duración total de la ventana
+     * @param bucketCount Número de cubetas; la ventana avanza de cubeta en cubeta
+     * @param slowCallThreshold Duración a partir de la cual una llamada cuenta como lenta
+     */
+    public StripedTimeWindow(Duration window, int bucketCount, Duration slowCallThreshold) {
+        this(window, bucketCount, slowCallThreshold, Runtime.getRuntime().availableProcessors(), System::nanoTime);
+    }
+
+    public StripedTimeWindow(Duration window, int bucketCount, Duration slowCallThreshold,
+                             int stripes, LongSupplier clock) {
+        if (bucketCount < 1 || window.toNanos() < bucketCount) {
+            throw new IllegalArgumentException("Ventana o número de cubetas no válidos");
+        }
+        this.bucketCount = bucketCount;
+        this.bucketNanos = window.toNanos() / bucketCount;
+        this.slowCallThresholdNanos = slowCallThreshold.toNanos();
+        this.stripeMask = Integer.highestOneBit(Math.max(1, stripes - 1)) * 2 - 1;
+        this.clock = clock;
+        this.buckets = new AtomicLongArray[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new AtomicLongArray((stripeMask + 1) * STRIPE_SIZE);
+        }
+        reset();
+    }
+
+    /**
+     * Registra una llamada terminada.
+     *
+     * @param durationNanos Duración de la llamada
+     * @param failed true si la llamada falló
+     */
+    public void record(long durationNanos, boolean failed) {
+        long epoch = epoch();
+        AtomicLongArray cells = buckets[(int) Math.floorMod(epoch, (long) bucketCount)];
+        int base = stripe() * STRIPE_SIZE;
+
+        long stamp = cells.get(base + EPOCH);
+        if (stamp != epoch) {
+            if (stamp > epoch) {
+                // Otro hilo ya avanzó esta franja a una cubeta posterior
+                return;
+            }
+            if (cells.compareAndSet(base + EPOCH, stamp, epoch)) {
+                cells.set(base + CALLS, 0);
+                cells.set(base + FAILED, 0);
+                cells.set(base + SLOW, 0);
+            }
+        }
+
+        cells.getAndIncrement(base + CALLS);
+        if (failed) {
+            cells.getAndIncrement(base + FAILED);
+        }
+        if (durationNanos >= slowCallThresholdNanos) {
+            cells.getAndIncrement(base + SLOW);
+        }
+    }
+
+    /**
+     * Suma las cubetas que siguen dentro de la ventana.
+     */
+    public WindowSnapshot snapshot() {
+        long currentEpoch = epoch();
+        long oldestEpoch = currentEpoch - bucketCount;
+        long calls = 0;
+        long failed = 0;
+        long slow = 0;
+        for (AtomicLongArray cells : buckets) {
+            for (int base = 0; base < cells.length(); base += STRIPE_SIZE) {
+                long stamp = cells.get(base + EPOCH);
+                if (stamp > oldestEpoch && stamp <= currentEpoch) {
+                    calls += cells.get(base + CALLS);
+                    failed += cells.get(base + FAILED);
+                    slow += cells.get(base + SLOW);
+                }
+            }
+        }
+        return new WindowSnapshot(calls, failed, slow);
+    }
+
+    /**
+     * Vacía la ventana.
+     */
+    public void reset() {
+        for (AtomicLongArray cells : buckets) {
+            for (int base = 0; base < cells.length(); base += STRIPE_SIZE) {
+                cells.set(base + EPOCH, Long.MIN_VALUE);
+            }
+        }
+    }
+
+    private int stripe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 40) & stripeMask;
+    }
+
+    /**
+     * Cubeta del instante actual. {@link System#nanoTime()} puede ser negativo: se redondea
+     * hacia abajo para que las cubetas sigan siendo consecutivas al pasar por cero.
+     */
+    private long epoch() {
+        return Math.floorDiv(clock.getAsLong(), bucketNanos);
+    }
+}
@@ -0,0 +1,128 @@
+package com.resilience4j.demo.window;
+
+import com.arquitectura.resilience.ResilientOperation;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decide la apertura de un Circuit Breaker de Resilience4j con una {@link StripedTimeWindow}.
+ *
+ * Mientras el servicio está sano el Circuit Breaker queda en {@code DISABLED}: deja pasar
+ * todas las llamadas sin registrarlas en su ventana (que es {@code synchronized}), y las
+ * llamadas se registran aquí. Cada {@code evaluationInterval} un solo hilo calcula las
+ * tasas de fallos y de llamadas lentas; si superan los umbrales con al menos
+ * {@code minimumNumberOfCalls} llamadas, abre el circuito. Desde {@code OPEN} Resilience4j
+ * sigue como siempre (espera, {@code HALF_OPEN} con sus llamadas de prueba) y, al volver a
+ * {@code CLOSED}, el circuito pasa otra vez a {@code DISABLED} con la ventana vacía.
+ *
+ * Las excepciones cuentan como fallo según los {@code recordExceptions} e
+ * {@code ignoreExceptions} del propio Circuit Breaker.
+ *
+ * En {@code DISABLED} las métricas del Circuit Breaker (las de Micrometer y
+ * {@code /actuator/circuitbreakers}) se quedan a cero: el estado de la ventana es
+ * {@link #snapshot()}.
+ */
+public class StripedWindowCircuitBreaker {
+
+    private final CircuitBreaker circuitBreaker;
+    private final StripedTimeWindow window;
+    private final long minimumNumberOfCalls;
+    private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+    private final long evaluationIntervalNanos;
+    private final AtomicLong nextEvaluation = new AtomicLong(System.nanoTime());
+
+    public StripedWindowCircuitBreaker(CircuitBreaker circuitBreaker, StripedTimeWindow window,
+                                       long minimumNumberOfCalls, float failureRateThreshold,
+                                       float slowCallRateThreshold, Duration evaluationInterval) {
+        this.circuitBreaker = circuitBreaker;
+        this.window = window;
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.evaluationIntervalNanos = evaluationInterval.toNanos();
+
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            if (event.getStateTransition().getToState() == CircuitBreaker.State.CLOSED) {
+                window.reset();
+                circuitBreaker.transitionToDisabledState();
+            }
+        });
+        if (circuitBreaker.getState() == CircuitBreaker.State.CLOSED) {
+            circuitBreaker.transitionToDisabledState();
+        }
+    }
+
+    /**
+     * Etapa de pipeline que registra cada llamada de {@code operation} en la ventana. Va por
+     * dentro del Circuit Breaker, para ver la excepción real antes del fallback.
+     */
+    public <I, O> ResilientOperation<I, O> decorate(ResilientOperation<I, O> operation) {
+        return input -> {
+            long start = System.nanoTime();
+            try {
+                O result = operation.apply(input);
+                onSuccess(System.nanoTime() - start);
+                return result;
+            } catch (Exception error) {
+                onError(System.nanoTime() - start, error);
+                throw error;
+            }
+        };
+    }
+
+    /**
+     * Registra una llamada que terminó bien.
+     */
+    public void onSuccess(long durationNanos) {
+        record(durationNanos, false);
+    }
+
+    /**
+     * Registra una llamada que lanzó una excepción; las ignoradas por el Circuit Breaker no
+     * cuentan.
+     */
+    public void onError(long durationNanos, Throwable error) {
+        CircuitBreakerConfig config = circuitBreaker.getCircuitBreakerConfig();
+        if (config.getIgnoreExceptionPredicate().test(error)) {
+            return;
+        }
+        record(durationNanos, config.getRecordExceptionPredicate().test(error));
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public WindowSnapshot snapshot() {
+        return window.snapshot();
+    }
+
+    private void record(long durationNanos, boolean failed) {
+        // En OPEN/HALF_OPEN es Resilience4j quien cuenta las llamadas
+        if (circuitBreaker.getState() != CircuitBreaker.State.DISABLED) {
+            return;
+        }
+        window.record(durationNanos, failed);
+
+        long now = System.nanoTime();
+        long next = nextEvaluation.get();
+        if (now - next >= 0 && nextEvaluation.compareAndSet(next, now + evaluationIntervalNanos)) {
+            evaluate();
+        }
+    }
+
+    private void evaluate() {
+        WindowSnapshot snapshot = window.snapshot();
+        if (snapshot.calls() < minimumNumberOfCalls) {
+            return;
+        }
+        if (snapshot.failureRate() >= failureRateThreshold || snapshot.slowCallRate() >= slowCallRateThreshold) {
+            window.reset();
+            circuitBreaker.transitionToOpenState();
+        }
+    }
+}
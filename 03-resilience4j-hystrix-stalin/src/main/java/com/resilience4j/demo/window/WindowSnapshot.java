@@ -0,0 +1,25 @@
+package com.resilience4j.demo.window;
+
+/**
+ * Totales de una {@link StripedTimeWindow} en un instante.
+ *
+ * @param calls Llamadas registradas dentro de la ventana
+ * @param failedCalls Llamadas fallidas
+ * @param slowCalls Llamadas que superaron el umbral de lentitud
+ */
+public record WindowSnapshot(long calls, long failedCalls, long slowCalls) {
+
+    /**
+     * Porcentaje de fallos (0-100), o -1 si no hay llamadas.
+     */
+    public float failureRate() {
+        return calls == 0 ? -1 : failedCalls * 100f / calls;
+    }
+
+    /**
+     * Porcentaje de llamadas lentas (0-100), o -1 si no hay llamadas.
+     */
+    public float slowCallRate() {
+        return calls == 0 ? -1 : slowCalls * 100f / calls;
+    }
+}
@@ -0,0 +1,100 @@
+package com.resilience4j.demo.window;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StripedTimeWindowTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final AtomicLong clock = new AtomicLong();
+    private StripedTimeWindow window;
+
+    @BeforeEach
+    void setUp() {
+        // 10 cubetas de 1 s; lenta a partir de 1 s
+        window = new StripedTimeWindow(Duration.ofSeconds(10), 10, Duration.ofSeconds(1), 4, clock::get);
+    }
+
+    @Test
+    void countsCallsFailuresAndSlowCalls() {
+        window.record(10, false);
+        window.record(10, true);
+        window.record(2 * SECOND, false);
+
+        assertEquals(new WindowSnapshot(3, 1, 1), window.snapshot());
+        assertEquals(100f / 3, window.snapshot().failureRate(), 0.001);
+    }
+
+    @Test
+    void ratesAreMinusOneWithoutCalls() {
+        assertEquals(new WindowSnapshot(0, 0, 0), window.snapshot());
+        assertEquals(-1f, window.snapshot().failureRate());
+        assertEquals(-1f, window.snapshot().slowCallRate());
+    }
+
+    @Test
+    void bucketsLeaveTheWindowAsTheClockAdvances() {
+        window.record(10, true);
+        window.record(10, true);
+        clock.set(5 * SECOND);
+        window.record(10, false);
+        assertEquals(new WindowSnapshot(3, 2, 0), window.snapshot());
+
+        // La cubeta del segundo 0 deja la ventana en el segundo 10
+        clock.set(10 * SECOND + SECOND / 2);
+        assertEquals(new WindowSnapshot(1, 0, 0), window.snapshot());
+
+        clock.set(15 * SECOND);
+        assertEquals(new WindowSnapshot(0, 0, 0), window.snapshot());
+    }
+
+    @Test
+    void reusedBucketStartsFromZero() {
+        window.record(10, true);
+        window.record(10, true);
+
+        // Segundo 20: misma posición que el segundo 0
+        clock.set(20 * SECOND);
+        window.record(10, false);
+
+        assertEquals(new WindowSnapshot(1, 0, 0), window.snapshot());
+    }
+
+    @Test
+    void resetEmptiesTheWindow() {
+        window.record(10, true);
+        window.record(2 * SECOND, false);
+
+        window.reset();
+        assertEquals(new WindowSnapshot(0, 0, 0), window.snapshot());
+
+        // Los contadores anteriores no reaparecen al volver a la misma cubeta
+        window.record(10, false);
+        assertEquals(new WindowSnapshot(1, 0, 0), window.snapshot());
+    }
+
+    @Test
+    void negativeClockValuesUseValidBuckets() {
+        // System.nanoTime() puede empezar en negativo
+        clock.set(-3 * SECOND - SECOND / 2);
+        window.record(10, true);
+        clock.set(-SECOND / 2);
+        window.record(10, false);
+
+        // Al pasar por cero no se mezclan las cubetas -1 y 0
+        clock.set(SECOND / 2);
+        window.record(10, false);
+        assertEquals(new WindowSnapshot(3, 1, 0), window.snapshot());
+
+        // La cubeta del segundo -4 deja la ventana en el segundo 6
+        clock.set(6 * SECOND + SECOND / 2);
+        assertEquals(new WindowSnapshot(2, 0, 0), window.snapshot());
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.resilience4j.demo.window;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StripedWindowCircuitBreakerTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final AtomicLong clock = new AtomicLong();
+    private CircuitBreaker circuitBreaker;
+    private StripedWindowCircuitBreaker stripedWindow;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = CircuitBreaker.of("test", CircuitBreakerConfig.custom()
+            .ignoreExceptions(IllegalArgumentException.class)
+            .build());
+        // Mínimo 4 llamadas, 50 % de fallos o 100 % de lentas; evalúa en cada llamada
+        stripedWindow = new StripedWindowCircuitBreaker(circuitBreaker,
+            new StripedTimeWindow(Duration.ofSeconds(10), 10, Duration.ofSeconds(1), 4, clock::get),
+            4, 50, 100, Duration.ZERO);
+    }
+
+    @Test
+    void healthyCircuitStaysDisabled() {
+        assertEquals(CircuitBreaker.State.DISABLED, circuitBreaker.getState());
+
+        stripedWindow.onSuccess(10);
+        stripedWindow.onSuccess(10);
+
+        assertEquals(new WindowSnapshot(2, 0, 0), stripedWindow.snapshot());
+        assertEquals(CircuitBreaker.State.DISABLED, circuitBreaker.getState());
+    }
+
+    @Test
+    void opensAtFailureRateThreshold() {
+        stripedWindow.onSuccess(10);
+        stripedWindow.onSuccess(10);
+        stripedWindow.onError(10, new IllegalStateException());
+        assertEquals(CircuitBreaker.State.DISABLED, circuitBreaker.getState());
+
+        stripedWindow.onError(10, new IllegalStateException());
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(new WindowSnapshot(0, 0, 0), stripedWindow.snapshot());
+    }
+
+    @Test
+    void opensAtSlowCallRateThreshold() {
+        for (int i = 0; i < 4; i++) {
+            stripedWindow.onSuccess(2 * SECOND);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void staysDisabledBelowMinimumNumberOfCalls() {
+        for (int i = 0; i < 3; i++) {
+            stripedWindow.onError(10, new IllegalStateException());
+        }
+
+        assertEquals(CircuitBreaker.State.DISABLED, circuitBreaker.getState());
+    }
+
+    @Test
+    void oldFailuresLeaveTheWindow() {
+        stripedWindow.onError(10, new IllegalStateException());
+        stripedWindow.onError(10, new IllegalStateException());
+        stripedWindow.onError(10, new IllegalStateException());
+
+        clock.set(11 * SECOND);
+        stripedWindow.onError(10, new IllegalStateException());
+
+        assertEquals(CircuitBreaker.State.DISABLED, circuitBreaker.getState());
+        assertEquals(new WindowSnapshot(1, 1, 0), stripedWindow.snapshot());
+    }
+
+    @Test
+    void ignoredExceptionsAreNotRecorded() {
+        for (int i = 0; i < 4; i++) {
+            stripedWindow.onError(10, new IllegalArgumentException());
+        }
+
+        assertEquals(new WindowSnapshot(0, 0, 0), stripedWindow.snapshot());
+        assertEquals(CircuitBreaker.State.DISABLED, circuitBreaker.getState());
+    }
+
+    @Test
+    void returnsToDisabledWithEmptyWindowWhenClosed() {
+        stripedWindow.onSuccess(10);
+        circuitBreaker.transitionToOpenState();
+        // En OPEN las llamadas las cuenta Resilience4j
+        stripedWindow.onSuccess(10);
+        assertEquals(new WindowSnapshot(1, 0, 0), stripedWindow.snapshot());
+
+        circuitBreaker.transitionToHalfOpenState();
+        circuitBreaker.transitionToClosedState();
+
+        assertEquals(CircuitBreaker.State.DISABLED, circuitBreaker.getState());
+        assertEquals(new WindowSnapshot(0, 0, 0), stripedWindow.snapshot());
+    }
+}
@@ -0,0 +1,86 @@
+package com.arquitectura.benchmarks.jmh;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de {@code @CircuitBreaker} a través del proxy AOP (módulos 01 y 03).
+ *
+ * - success: el método responde bien con el circuito cerrado
+ * - failureFallback: el método lanza una excepción y se ejecuta el fallback; el circuito se
+ *   deja en METRICS_ONLY para que registre el fallo sin abrirse durante la medición
+ * - notPermitted: el circuito está forzado a OPEN y se ejecuta el fallback sin llamar al método
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class AnnotatedCircuitBreakerBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private ResilienceTargets.ExternalApiTarget externalApi;
+    private ResilienceTargets.LentoTarget lento;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ResilienceTargets.start();
+        externalApi = context.getBean(ResilienceTargets.ExternalApiTarget.class);
+        lento = context.getBean(ResilienceTargets.LentoTarget.class);
+
+        CircuitBreakerRegistry registry = context.getBean(CircuitBreakerRegistry.class);
+        registry.circuitBreaker(ResilienceTargets.CLOSED).transitionToMetricsOnlyState();
+        registry.circuitBreaker(ResilienceTargets.OPEN).transitionToForcedOpenState();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> module01Success() {
+        return externalApi.getExternalData(false);
+    }
+
+    @Benchmark
+    public Map<String, Object> module01FailureFallback() {
+        return externalApi.getExternalData(true);
+    }
+
+    @Benchmark
+    public Map<String, Object> module01NotPermitted() {
+        return externalApi.getExternalDataOpen(false);
+    }
+
+    @Benchmark
+    public Map<String, String> module03LentoSuccess() {
+        return lento.lento(false);
+    }
+
+    @Benchmark
+    public Map<String, String> module03LentoFailureFallback() {
+        return lento.lento(true);
+    }
+
+    @Benchmark
+    public Map<String, String> module03LentoNotPermitted() {
+        return lento.lentoOpen(false);
+    }
+}
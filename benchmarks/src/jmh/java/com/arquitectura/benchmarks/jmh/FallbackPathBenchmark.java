@@ -0,0 +1,91 @@
+package com.arquitectura.benchmarks.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste del camino de fallback con y sin excepciones.
+ *
+ * - exceptionWithStackTrace: una excepción nueva por fallo, como en los módulos actuales
+ * - stacklessException: excepción sin traza de pila
+ * - noException: el fallo se devuelve como valor y se comprueba con un if
+ * - classifyByMessage / classifyByType: cómo {@code ServicioLento.manejarError} decide la
+ *   respuesta (concatenando y buscando en el mensaje) frente a {@code instanceof}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FallbackPathBenchmark {
+
+    private static final String FALLBACK = "🔄 RETRY: Se agotaron los 3 intentos. La operación falló definitivamente.";
+    private static final String SUCCESS = "✅ Operación exitosa";
+
+    private final Exception simulatedFailure = new RuntimeException("Error simulado");
+
+    @Benchmark
+    public String exceptionWithStackTrace() {
+        try {
+            throw new RuntimeException("Error simulado");
+        } catch (RuntimeException e) {
+            return FALLBACK;
+        }
+    }
+
+    @Benchmark
+    public String stacklessException() {
+        try {
+            throw new StacklessException("Error simulado");
+        } catch (RuntimeException e) {
+            return FALLBACK;
+        }
+    }
+
+    @Benchmark
+    public String noException() {
+        String result = failedResult();
+        return result == null ? FALLBACK : result;
+    }
+
+    @Benchmark
+    public String classifyByMessage() {
+        String mensaje = simulatedFailure.getClass().getSimpleName() + ": " + simulatedFailure.getMessage();
+        if (mensaje.contains("BulkheadFull")) {
+            return "🚫 BULKHEAD";
+        } else if (mensaje.contains("Error simulado")) {
+            return FALLBACK;
+        }
+        return "❌ ERROR: " + mensaje;
+    }
+
+    @Benchmark
+    public String classifyByType() {
+        if (simulatedFailure instanceof IllegalStateException) {
+            return "🚫 BULKHEAD";
+        } else if (simulatedFailure instanceof RuntimeException) {
+            return FALLBACK;
+        }
+        return SUCCESS;
+    }
+
+    private String failedResult() {
+        return null;
+    }
+
+    private static final class StacklessException extends RuntimeException {
+        StacklessException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
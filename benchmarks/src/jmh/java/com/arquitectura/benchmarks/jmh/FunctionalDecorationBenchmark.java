@@ -0,0 +1,104 @@
+package com.arquitectura.benchmarks.jmh;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Coste de la decoración funcional que usa {@code ServicioLento} (módulo 02), comparada con
+ * la llamada directa y con el Circuit Breaker funcional.
+ *
+ * - perCall: decoradores creados en cada llamada, como hacía {@code operacionLenta} antes del pipeline
+ * - prebuilt: los mismos decoradores creados una sola vez
+ * - retriedOnce: el primer intento falla y el segundo responde (espera de reintento a cero)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FunctionalDecorationBenchmark {
+
+    private static final RuntimeException SIMULATED = new RuntimeException("Error simulado");
+
+    private Bulkhead bulkhead;
+    private Retry retry;
+    private CircuitBreaker circuitBreaker;
+    private Supplier<String> prebuilt;
+    private Supplier<String> circuitBreakerDecorated;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Mismo Bulkhead y Retry que ServicioLento, con espera a cero para no medir el sleep
+        bulkhead = Bulkhead.of("miServicio", BulkheadConfig.custom()
+            .maxConcurrentCalls(3)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+        retry = Retry.of("miServicio", RetryConfig.custom()
+            .maxAttempts(3)
+            .waitDuration(Duration.ZERO)
+            .retryOnException(e -> e instanceof RuntimeException && e.getMessage().contains("Error simulado"))
+            .build());
+        circuitBreaker = CircuitBreaker.ofDefaults("benchmark");
+        prebuilt = Bulkhead.decorateSupplier(bulkhead, Retry.decorateSupplier(retry, this::operation));
+        circuitBreakerDecorated = CircuitBreaker.decorateSupplier(circuitBreaker, this::operation);
+    }
+
+    private String operation() {
+        return "✅ Operación exitosa";
+    }
+
+    private String failsEveryOtherCall() {
+        if ((counter++ & 1) == 0) {
+            throw SIMULATED;
+        }
+        return "✅ Operación exitosa";
+    }
+
+    @Benchmark
+    public String direct() {
+        return operation();
+    }
+
+    @Benchmark
+    public String bulkheadRetryPerCall() {
+        Supplier<String> decorated = Bulkhead.decorateSupplier(bulkhead,
+            Retry.decorateSupplier(retry, this::operation));
+        return decorated.get();
+    }
+
+    @Benchmark
+    public String bulkheadRetryPrebuilt() {
+        return prebuilt.get();
+    }
+
+    @Benchmark
+    public String bulkheadRetryRetriedOnce() {
+        counter = 0;
+        return Bulkhead.decorateSupplier(bulkhead, Retry.decorateSupplier(retry, this::failsEveryOtherCall)).get();
+    }
+
+    @Benchmark
+    public String circuitBreakerFunctional() {
+        return circuitBreakerDecorated.get();
+    }
+}
@@ -0,0 +1,50 @@
+package com.arquitectura.benchmarks.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ejecuta los microbenchmarks con el perfilador de GC (bytes reservados por operación) y
+ * guarda los resultados en JSON para compararlos entre versiones.
+ *
+ * Uso: {@code java -jar target/benchmarks.jar [regex] [fichero.json] [hilos]}
+ *
+ * {@code hilos} es una lista separada por comas (p. ej. {@code 1,4,16}): se hace una ejecución
+ * por cada número de hilos y cada una guarda {@code <fichero>-t<hilos>.json}.
+ */
+public final class JmhRunner {
+
+    private JmhRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : JmhRunner.class.getPackageName() + ".*";
+        String resultFile = args.length > 1 ? args[1] : "jmh-result.json";
+
+        if (args.length < 3) {
+            run(new OptionsBuilder().include(include), resultFile);
+            return;
+        }
+        String baseName = resultFile.endsWith(".json")
+            ? resultFile.substring(0, resultFile.length() - ".json".length())
+            : resultFile;
+        for (String threads : args[2].split(",")) {
+            int count = Integer.parseInt(threads.trim());
+            run(new OptionsBuilder().include(include).threads(count), baseName + "-t" + count + ".json");
+        }
+    }
+
+    private static void run(ChainedOptionsBuilder builder, String resultFile) throws RunnerException {
+        Options options = builder
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.JSON)
+            .result(resultFile)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,154 @@
+package com.arquitectura.benchmarks.jmh;
+
+import com.arquitectura.resilience.CallResult;
+import com.arquitectura.resilience.ResiliencePipeline;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Circuit Breaker + Bulkhead + Retry con fallback: decoradores creados en cada llamada frente
+ * al {@code ResiliencePipeline} de {@code resilience-core} construido una vez.
+ *
+ * - perCall: {@code decorateSupplier} anidados y capturando la entrada en cada llamada
+ * - prebuiltSupplier: los mismos decoradores creados una vez (solo sirve sin entrada por llamada)
+ * - pipeline: la cadena precreada, a la que cada llamada pasa su entrada
+ * - pipelineFallback: la operación falla con un error que no se reintenta y responde el fallback
+ * - perCallOpenCircuit: circuito abierto con {@code decorateSupplier}; el rechazo es una
+ *   {@code CallNotPermittedException} con traza que se captura para responder el fallback
+ * - pipelineOpenCircuit / pipelineCallOpenCircuit: circuito abierto con el pipeline, que rechaza
+ *   sin crear excepción ({@code execute} con fallback y {@code call} con {@code CallResult})
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PipelineBenchmark {
+
+    private static final IllegalStateException NOT_RETRIED = new IllegalStateException("Fallo no reintentable");
+
+    private CircuitBreaker circuitBreaker;
+    private Bulkhead bulkhead;
+    private Retry retry;
+    private Supplier<String> prebuiltSupplier;
+    private ResiliencePipeline<Integer, String> pipeline;
+    private ResiliencePipeline<Integer, String> failingPipeline;
+    private CircuitBreaker openCircuitBreaker;
+    private ResiliencePipeline<Integer, String> openPipeline;
+    private int input;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        circuitBreaker = CircuitBreaker.ofDefaults("benchmark");
+        bulkhead = Bulkhead.of("benchmark", BulkheadConfig.custom()
+            .maxConcurrentCalls(3)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+        retry = Retry.of("benchmark", RetryConfig.custom()
+            .maxAttempts(3)
+            .waitDuration(Duration.ZERO)
+            .retryOnException(e -> e instanceof RuntimeException && "Error simulado".equals(e.getMessage()))
+            .build());
+        prebuiltSupplier = CircuitBreaker.decorateSupplier(circuitBreaker,
+            Bulkhead.decorateSupplier(bulkhead, Retry.decorateSupplier(retry, () -> operation(input))));
+        pipeline = ResiliencePipeline.<Integer, String>of(PipelineBenchmark::operation)
+            .withRetry(retry)
+            .withBulkhead(bulkhead)
+            .withCircuitBreaker(circuitBreaker)
+            .withFallback((in, error) -> "fallback")
+            .build();
+        // Circuit Breaker propio: que los fallos no abran el del resto de benchmarks
+        failingPipeline = ResiliencePipeline.<Integer, String>of(in -> {
+                throw NOT_RETRIED;
+            })
+            .withRetry(retry)
+            .withBulkhead(bulkhead)
+            .withCircuitBreaker(CircuitBreaker.of("failing", circuitBreaker.getCircuitBreakerConfig()))
+            .withFallback((in, error) -> "fallback")
+            .build();
+        openCircuitBreaker = CircuitBreaker.of("open", circuitBreaker.getCircuitBreakerConfig());
+        openCircuitBreaker.transitionToForcedOpenState();
+        openPipeline = ResiliencePipeline.<Integer, String>of(PipelineBenchmark::operation)
+            .withRetry(retry)
+            .withBulkhead(bulkhead)
+            .withCircuitBreaker(openCircuitBreaker)
+            .withFallback((in, failure) -> failure.outcome() == CallResult.Outcome.REJECTED ? "no permitido" : "fallback")
+            .build();
+    }
+
+    private static String operation(int input) {
+        return input >= 0 ? "✅ Operación exitosa" : "";
+    }
+
+    @Benchmark
+    public String perCall() {
+        int value = input;
+        Supplier<String> decorated = CircuitBreaker.decorateSupplier(circuitBreaker,
+            Bulkhead.decorateSupplier(bulkhead, Retry.decorateSupplier(retry, () -> operation(value))));
+        try {
+            return decorated.get();
+        } catch (RuntimeException e) {
+            return "fallback";
+        }
+    }
+
+    @Benchmark
+    public String prebuiltSupplier() {
+        try {
+            return prebuiltSupplier.get();
+        } catch (RuntimeException e) {
+            return "fallback";
+        }
+    }
+
+    @Benchmark
+    public String pipeline() {
+        return pipeline.execute(input);
+    }
+
+    @Benchmark
+    public String pipelineFallback() {
+        return failingPipeline.execute(input);
+    }
+
+    @Benchmark
+    public String perCallOpenCircuit() {
+        int value = input;
+        Supplier<String> decorated = CircuitBreaker.decorateSupplier(openCircuitBreaker,
+            Bulkhead.decorateSupplier(bulkhead, Retry.decorateSupplier(retry, () -> operation(value))));
+        try {
+            return decorated.get();
+        } catch (RuntimeException e) {
+            return "no permitido";
+        }
+    }
+
+    @Benchmark
+    public String pipelineOpenCircuit() {
+        return openPipeline.execute(input);
+    }
+
+    @Benchmark
+    public CallResult.Outcome pipelineCallOpenCircuit() {
+        return openPipeline.call(input).outcome();
+    }
+}
@@ -0,0 +1,112 @@
+package com.arquitectura.benchmarks.jmh;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Réplicas de los beans anotados de los módulos 01 y 03, sin E/S, para medir solo el coste
+ * del proxy AOP y del Circuit Breaker.
+ *
+ * Se arrancan con la misma autoconfiguración de Resilience4j que usan las aplicaciones.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+public class ResilienceTargets {
+
+    static final String CLOSED = "benchmarkClosed";
+    static final String OPEN = "benchmarkOpen";
+
+    @Bean
+    public ExternalApiTarget externalApiTarget() {
+        return new ExternalApiTarget();
+    }
+
+    @Bean
+    public LentoTarget lentoTarget() {
+        return new LentoTarget();
+    }
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(ResilienceTargets.class)
+            .web(WebApplicationType.NONE)
+            .logStartupInfo(false)
+            .properties(
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN",
+                "resilience4j.circuitbreaker.instances." + CLOSED + ".sliding-window-size=100",
+                "resilience4j.circuitbreaker.instances." + OPEN + ".sliding-window-size=100"
+            )
+            .run();
+    }
+
+    /**
+     * Como {@code ExternalApiService.getExternalData} del módulo 01: respuesta del servicio
+     * externo o, si falla, el último dato bueno.
+     */
+    public static class ExternalApiTarget {
+
+        private final Map<String, Object> response = Map.of(
+            "id", 1,
+            "message", "Datos del servicio externo",
+            "data", Map.of("value1", "Información importante", "value2", 12345, "status", "active")
+        );
+        private final Map<String, Object> cached = Map.copyOf(response);
+
+        @CircuitBreaker(name = CLOSED, fallbackMethod = "fallback")
+        public Map<String, Object> getExternalData(boolean fail) {
+            if (fail) {
+                throw new RuntimeException("Error al llamar al servicio externo");
+            }
+            return response;
+        }
+
+        @CircuitBreaker(name = OPEN, fallbackMethod = "fallback")
+        public Map<String, Object> getExternalDataOpen(boolean fail) {
+            return getExternalData(fail);
+        }
+
+        public Map<String, Object> fallback(boolean fail, Exception exception) {
+            return cached;
+        }
+    }
+
+    /**
+     * Como {@code DemoController.lento} del módulo 03, sin el {@code Thread.sleep}.
+     */
+    public static class LentoTarget {
+
+        @CircuitBreaker(name = CLOSED, fallbackMethod = "fallback")
+        public Map<String, String> lento(boolean shouldFail) {
+            if (shouldFail) {
+                throw new RuntimeException("Error simulado en el servicio");
+            }
+            Map<String, String> response = new HashMap<>();
+            response.put("status", "SUCCESS");
+            response.put("message", "Servicio lento completado después de 5 segundos");
+            response.put("timestamp", String.valueOf(System.currentTimeMillis()));
+            return response;
+        }
+
+        @CircuitBreaker(name = OPEN, fallbackMethod = "fallback")
+        public Map<String, String> lentoOpen(boolean shouldFail) {
+            return lento(shouldFail);
+        }
+
+        public Map<String, String> fallback(boolean shouldFail, Exception exception) {
+            Map<String, String> response = new HashMap<>();
+            response.put("status", "FALLBACK");
+            response.put("message", "Fallback activado por error o timeout");
+            response.put("reason", exception != null ? exception.getClass().getSimpleName() : "Circuit Open");
+            response.put("timestamp", String.valueOf(System.currentTimeMillis()));
+            return response;
+        }
+    }
+}
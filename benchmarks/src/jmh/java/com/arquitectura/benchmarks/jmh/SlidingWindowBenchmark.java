@@ -0,0 +1,82 @@
+package com.arquitectura.benchmarks.jmh;
+
+import com.resilience4j.demo.window.StripedTimeWindow;
+import io.github.resilience4j.core.metrics.FixedSizeSlidingWindowMetrics;
+import io.github.resilience4j.core.metrics.Metrics;
+import io.github.resilience4j.core.metrics.SlidingTimeWindowMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de registrar una llamada en la ventana deslizante del Circuit Breaker: las de
+ * Resilience4j (por número de llamadas y por tiempo, ambas {@code synchronized}) frente a la
+ * {@link StripedTimeWindow} del módulo 03.
+ *
+ * Una de cada cuatro llamadas falla. Se ejecuta con varios hilos para ver la contención:
+ * {@code java -jar target/benchmarks.jar SlidingWindow jmh-window.json 1,4,16}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SlidingWindowBenchmark {
+
+    private static final long DURATION_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private FixedSizeSlidingWindowMetrics countBased4;
+    private FixedSizeSlidingWindowMetrics countBased100;
+    private SlidingTimeWindowMetrics timeBased;
+    private StripedTimeWindow striped;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        countBased4 = new FixedSizeSlidingWindowMetrics(4);
+        countBased100 = new FixedSizeSlidingWindowMetrics(100);
+        timeBased = new SlidingTimeWindowMetrics(10, Clock.systemUTC());
+        striped = new StripedTimeWindow(Duration.ofSeconds(10), 10, Duration.ofSeconds(6));
+    }
+
+    @Benchmark
+    public Object countBased4() {
+        return countBased4.record(DURATION_NANOS, TimeUnit.NANOSECONDS, outcome());
+    }
+
+    @Benchmark
+    public Object countBased100() {
+        return countBased100.record(DURATION_NANOS, TimeUnit.NANOSECONDS, outcome());
+    }
+
+    @Benchmark
+    public Object timeBased10s() {
+        return timeBased.record(DURATION_NANOS, TimeUnit.NANOSECONDS, outcome());
+    }
+
+    @Benchmark
+    public void striped10s() {
+        striped.record(DURATION_NANOS, failed());
+    }
+
+    private static Metrics.Outcome outcome() {
+        return failed() ? Metrics.Outcome.ERROR : Metrics.Outcome.SUCCESS;
+    }
+
+    private static boolean failed() {
+        return ThreadLocalRandom.current().nextInt(4) == 0;
+    }
+}
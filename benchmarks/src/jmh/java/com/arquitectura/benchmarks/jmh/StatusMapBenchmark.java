@@ -0,0 +1,93 @@
+package com.arquitectura.benchmarks.jmh;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de construir los mapas de estado del módulo 01: {@code /circuit-breaker/status} y
+ * el {@code _metadata} que {@code /data} agrega a cada respuesta.
+ *
+ * {@code dataWithMetadata} construye los metadatos en cada petición; {@code dataWithSharedMetadata}
+ * reutiliza el mapa ya construido por la última foto del stream del Circuit Breaker.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class StatusMapBenchmark {
+
+    private CircuitBreaker circuitBreaker;
+    private Map<String, Object> response;
+    private Map<String, Object> sharedMetadata;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        circuitBreaker = CircuitBreaker.ofDefaults("externalService");
+        for (int i = 0; i < 100; i++) {
+            if (i % 4 == 0) {
+                circuitBreaker.onError(5, TimeUnit.MILLISECONDS, new RuntimeException("Error simulado"));
+            } else {
+                circuitBreaker.onSuccess(5, TimeUnit.MILLISECONDS);
+            }
+        }
+        response = Map.of(
+            "id", 1,
+            "message", "Datos del servicio externo",
+            "timestamp", "2024-01-01T00:00:00",
+            "data", Map.of("value1", "Información importante", "value2", 12345, "status", "active")
+        );
+        sharedMetadata = Map.copyOf(metadata());
+    }
+
+    @Benchmark
+    public Map<String, Object> circuitBreakerStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("state", circuitBreaker.getState().toString());
+        status.put("failureRate", circuitBreaker.getMetrics().getFailureRate());
+        status.put("numberOfSuccessfulCalls", circuitBreaker.getMetrics().getNumberOfSuccessfulCalls());
+        status.put("numberOfFailedCalls", circuitBreaker.getMetrics().getNumberOfFailedCalls());
+        status.put("numberOfNotPermittedCalls", circuitBreaker.getMetrics().getNumberOfNotPermittedCalls());
+        status.put("numberOfBufferedCalls", circuitBreaker.getMetrics().getNumberOfBufferedCalls());
+        return status;
+    }
+
+    @Benchmark
+    public Map<String, Object> dataWithMetadata() {
+        Map<String, Object> copy = new LinkedHashMap<>(response);
+        copy.put("_metadata", metadata());
+        return copy;
+    }
+
+    @Benchmark
+    public Map<String, Object> dataWithSharedMetadata() {
+        Map<String, Object> copy = new LinkedHashMap<>(response);
+        copy.put("_metadata", sharedMetadata);
+        return copy;
+    }
+
+    private Map<String, Object> metadata() {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("circuitBreakerState", circuitBreaker.getState().toString());
+        metadata.put("failureRate", circuitBreaker.getMetrics().getFailureRate());
+        metadata.put("numberOfSuccessfulCalls", circuitBreaker.getMetrics().getNumberOfSuccessfulCalls());
+        metadata.put("numberOfFailedCalls", circuitBreaker.getMetrics().getNumberOfFailedCalls());
+        return metadata;
+    }
+}
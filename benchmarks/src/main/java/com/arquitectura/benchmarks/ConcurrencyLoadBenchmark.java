@@ -0,0 +1,208 @@
+package com.arquitectura.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmark de carga concurrente contra un endpoint bloqueante.
+ *
+ * Mantiene N peticiones en curso durante un tiempo fijo (carga en lazo cerrado) y reporta
+ * rendimiento, latencias y, si el servidor expone Actuator, la memoria y los hilos que
+ * consume cada petición en curso. Sirve para comparar el modo de hilos de plataforma con el
+ * de hilos virtuales (perfil {@code virtual}) de los módulos 02 y 03.
+ *
+ * Uso:
+ * <pre>
+ * java -cp target/classes com.arquitectura.benchmarks.ConcurrencyLoadBenchmark \
+ *     --url http://localhost:8080/api/lento --concurrency 1000 --duration 30s \
+ *     --actuator http://localhost:8080/actuator
+ * </pre>
+ *
+ * El cliente es asíncrono: las peticiones en curso no ocupan hilos del lado del benchmark.
+ */
+public class ConcurrencyLoadBenchmark {
+
+    private static final Pattern MEASUREMENT_VALUE = Pattern.compile("\"value\"\\s*:\\s*([0-9.Ee+-]+)");
+
+    private final HttpClient client;
+    private final URI target;
+    private final int concurrency;
+    private final Duration duration;
+    private final String actuatorUrl;
+
+    private final LatencyRecorder latencies = new LatencyRecorder();
+    private final Map<Integer, LongAdder> statusCounts = new HashMap<>();
+    private final LongAdder errors = new LongAdder();
+
+    public ConcurrencyLoadBenchmark(URI target, int concurrency, Duration duration, String actuatorUrl) {
+        this.target = target;
+        this.concurrency = concurrency;
+        this.duration = duration;
+        this.actuatorUrl = actuatorUrl;
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        for (int status = 100; status < 600; status++) {
+            statusCounts.put(status, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        ConcurrencyLoadBenchmark benchmark = new ConcurrencyLoadBenchmark(
+            URI.create(options.getOrDefault("url", "http://localhost:8080/llamar")),
+            Integer.parseInt(options.getOrDefault("concurrency", "200")),
+            parseDuration(options.getOrDefault("duration", "30s")),
+            options.get("actuator")
+        );
+        benchmark.run();
+    }
+
+    public void run() throws Exception {
+        ServerSample baseline = sampleServer();
+        System.out.printf("Objetivo: %s | concurrencia: %d | duración: %ds%n",
+            target, concurrency, duration.toSeconds());
+
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        AtomicLong peakMemory = new AtomicLong(baseline != null ? baseline.memoryBytes : 0);
+        AtomicLong peakThreads = new AtomicLong(baseline != null ? baseline.liveThreads : 0);
+
+        List<CompletableFuture<Void>> users = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            users.add(loop(deadline));
+        }
+
+        // Muestrea el servidor mientras dura la carga
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(1_000);
+            ServerSample sample = sampleServer();
+            if (sample != null) {
+                peakMemory.accumulateAndGet(sample.memoryBytes, Math::max);
+                peakThreads.accumulateAndGet(sample.liveThreads, Math::max);
+            }
+        }
+        CompletableFuture.allOf(users.toArray(new CompletableFuture[0])).join();
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        printReport(elapsedSeconds, baseline, peakMemory.get(), peakThreads.get());
+    }
+
+    /**
+     * Un "usuario" virtual: encadena peticiones hasta el fin de la prueba.
+     */
+    private CompletableFuture<Void> loop(long deadline) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        next(deadline, done);
+        return done;
+    }
+
+    private void next(long deadline, CompletableFuture<Void> done) {
+        if (System.nanoTime() >= deadline) {
+            done.complete(null);
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(target).GET().build();
+        long begin = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, error) -> {
+                if (error != null) {
+                    errors.increment();
+                } else {
+                    latencies.record(System.nanoTime() - begin);
+                    LongAdder counter = statusCounts.get(response.statusCode());
+                    if (counter != null) {
+                        counter.increment();
+                    }
+                }
+                next(deadline, done);
+            });
+    }
+
+    private void printReport(double elapsedSeconds, ServerSample baseline, long peakMemory, long peakThreads) {
+        long completed = latencies.count();
+        System.out.println();
+        System.out.println("=== Resultados ===");
+        System.out.printf("Peticiones completadas: %d (errores de conexión: %d)%n", completed, errors.sum());
+        System.out.printf("Rendimiento: %.1f peticiones/s%n", completed / elapsedSeconds);
+        System.out.printf("Latencia ms -> media: %.1f | p50: %.1f | p90: %.1f | p99: %.1f | máx: %.1f%n",
+            latencies.meanMillis(), latencies.percentileMillis(50), latencies.percentileMillis(90),
+            latencies.percentileMillis(99), latencies.maxMillis());
+        statusCounts.forEach((status, count) -> {
+            if (count.sum() > 0) {
+                System.out.printf("  HTTP %d: %d%n", status, count.sum());
+            }
+        });
+
+        if (baseline != null) {
+            long extraMemory = Math.max(0, peakMemory - baseline.memoryBytes);
+            System.out.printf("Memoria del servidor: base %.1f MB, pico %.1f MB -> %.1f KB por petición en curso%n",
+                baseline.memoryBytes / 1048576.0, peakMemory / 1048576.0, extraMemory / 1024.0 / concurrency);
+            System.out.printf("Hilos del servidor: base %d, pico %d%n", baseline.liveThreads, peakThreads);
+        }
+    }
+
+    private ServerSample sampleServer() {
+        if (actuatorUrl == null) {
+            return null;
+        }
+        try {
+            long memory = (long) readMetric("jvm.memory.used");
+            long threads = (long) readMetric("jvm.threads.live");
+            return new ServerSample(memory, threads);
+        } catch (Exception e) {
+            System.err.println("No se pudo leer Actuator: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private double readMetric(String name) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(actuatorUrl + "/metrics/" + name))
+            .timeout(Duration.ofSeconds(5))
+            .GET()
+            .build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = MEASUREMENT_VALUE.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Métrica sin valor: " + name);
+        }
+        return Double.parseDouble(matcher.group(1));
+    }
+
+    static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return options;
+    }
+
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    private record ServerSample(long memoryBytes, long liveThreads) {
+    }
+}
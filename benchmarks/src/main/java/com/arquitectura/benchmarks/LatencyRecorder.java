@@ -0,0 +1,92 @@
+package com.arquitectura.benchmarks;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias de memoria fija y seguro para varios hilos.
+ *
+ * Los valores (en microsegundos) se agrupan en cubetas log-lineales: 32 cubetas por cada
+ * potencia de dos, lo que da un error relativo máximo de ~3% en cualquier rango, desde
+ * microsegundos hasta días. Registrar un valor no reserva memoria.
+ */
+public final class LatencyRecorder {
+
+    private static final int LINEAR_LIMIT = 64;
+    private static final int SUB_BUCKETS = 32;
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = LINEAR_LIMIT + (MAX_EXPONENT - 5) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Registra una latencia.
+     *
+     * @param nanos Duración en nanosegundos
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        counts.incrementAndGet(indexOf(micros));
+        count.increment();
+        sum.add(micros);
+        max.accumulate(micros);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public double meanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : sum.sum() / (double) n / 1_000.0;
+    }
+
+    public double maxMillis() {
+        return max.get() / 1_000.0;
+    }
+
+    /**
+     * Percentil aproximado en milisegundos.
+     *
+     * @param percentile Valor entre 0 y 100
+     */
+    public double percentileMillis(double percentile) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(valueOf(i), max.get()) / 1_000.0;
+            }
+        }
+        return maxMillis();
+    }
+
+    private static int indexOf(long micros) {
+        if (micros < LINEAR_LIMIT) {
+            return (int) micros;
+        }
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT - 1);
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return Math.min(LINEAR_LIMIT + (exponent - 6) * SUB_BUCKETS + subBucket, BUCKETS - 1);
+    }
+
+    private static long valueOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int exponent = (index - LINEAR_LIMIT) / SUB_BUCKETS + 6;
+        int subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS;
+        // Límite superior de la cubeta
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
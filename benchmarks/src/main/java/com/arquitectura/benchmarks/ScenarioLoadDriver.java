@@ -0,0 +1,173 @@
+package com.arquitectura.benchmarks;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Driver de carga para medir el Circuit Breaker y el fallback del módulo 01 bajo un escenario
+ * del simulador del servicio externo ({@code /external/simulator}).
+ *
+ * Configura el simulador (reiniciando el escenario), mantiene N peticiones en curso contra
+ * {@code /api/demo/data} y reporta, por ventanas de tiempo, el rendimiento, los percentiles de
+ * latencia y cuántas respuestas llegaron con el circuito abierto o con el fallback estático.
+ * Con la misma semilla, escenario y concurrencia las ejecuciones son comparables entre sí.
+ *
+ * Uso (los parámetros {@code --sim.*} se envían tal cual al simulador):
+ * <pre>
+ * java -cp target/classes com.arquitectura.benchmarks.ScenarioLoadDriver \
+ *     --url http://localhost:8081/api/demo/data \
+ *     --simulator http://localhost:8081/external/simulator \
+ *     --concurrency 50 --duration 90s --window 5s \
+ *     --sim.scenario outage --sim.phase-duration 30s --sim.error-rate 0.05 \
+ *     --sim.latency long-tail --sim.latency-ms 20 --sim.seed 7
+ * </pre>
+ */
+public class ScenarioLoadDriver {
+
+    private final HttpClient client;
+    private final URI target;
+    private final int concurrency;
+    private final Duration duration;
+    private final long windowNanos;
+    private final Window[] windows;
+
+    public ScenarioLoadDriver(URI target, int concurrency, Duration duration, Duration window) {
+        this.target = target;
+        this.concurrency = concurrency;
+        this.duration = duration;
+        this.windowNanos = window.toNanos();
+        this.windows = new Window[(int) Math.ceil((double) duration.toNanos() / windowNanos)];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = new Window();
+        }
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = ConcurrencyLoadBenchmark.parseArgs(args);
+        String simulator = options.getOrDefault("simulator", "http://localhost:8081/external/simulator");
+        configureSimulator(simulator, options);
+
+        new ScenarioLoadDriver(
+            URI.create(options.getOrDefault("url", "http://localhost:8081/api/demo/data")),
+            Integer.parseInt(options.getOrDefault("concurrency", "50")),
+            ConcurrencyLoadBenchmark.parseDuration(options.getOrDefault("duration", "90s")),
+            ConcurrencyLoadBenchmark.parseDuration(options.getOrDefault("window", "5s"))
+        ).run();
+    }
+
+    /**
+     * Envía los parámetros {@code --sim.*} al simulador, lo que reinicia el escenario.
+     */
+    static void configureSimulator(String simulator, Map<String, String> options) throws Exception {
+        String query = options.entrySet().stream()
+            .filter(option -> option.getKey().startsWith("sim."))
+            .map(option -> option.getKey().substring(4) + "="
+                + URLEncoder.encode(option.getValue(), StandardCharsets.UTF_8))
+            .collect(Collectors.joining("&"));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(simulator + (query.isEmpty() ? "" : "?" + query)))
+            .timeout(Duration.ofSeconds(5))
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build();
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("El simulador rechazó la configuración: " + response.body());
+        }
+        System.out.println("Simulador: " + response.body());
+    }
+
+    public void run() {
+        System.out.printf("Objetivo: %s | concurrencia: %d | duración: %ds%n",
+            target, concurrency, duration.toSeconds());
+
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        List<CompletableFuture<Void>> users = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            next(start, deadline, done);
+            users.add(done);
+        }
+        CompletableFuture.allOf(users.toArray(new CompletableFuture[0])).join();
+
+        printReport();
+    }
+
+    private void next(long start, long deadline, CompletableFuture<Void> done) {
+        if (System.nanoTime() >= deadline) {
+            done.complete(null);
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(target).GET().build();
+        long begin = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+            .whenComplete((response, error) -> {
+                long end = System.nanoTime();
+                int index = (int) Math.min(windows.length - 1, (begin - start) / windowNanos);
+                windows[index].record(end - begin, response, error);
+                next(start, deadline, done);
+            });
+    }
+
+    private void printReport() {
+        double windowSeconds = windowNanos / 1e9;
+        System.out.println();
+        System.out.printf("%8s %9s %8s %8s %8s %8s %7s %7s %8s %8s%n",
+            "t(s)", "req/s", "p50 ms", "p90 ms", "p99 ms", "máx ms", "2xx", "otros", "CB OPEN", "estático");
+        for (int i = 0; i < windows.length; i++) {
+            Window window = windows[i];
+            LatencyRecorder latencies = window.latencies;
+            System.out.printf("%8.0f %9.1f %8.1f %8.1f %8.1f %8.1f %7d %7d %7.1f%% %7.1f%%%n",
+                i * windowSeconds,
+                latencies.count() / windowSeconds,
+                latencies.percentileMillis(50), latencies.percentileMillis(90),
+                latencies.percentileMillis(99), latencies.maxMillis(),
+                window.ok.sum(), window.other.sum(),
+                percent(window.circuitOpen.sum(), latencies.count()),
+                percent(window.staticFallback.sum(), latencies.count()));
+        }
+    }
+
+    private static double percent(long part, long total) {
+        return total == 0 ? 0 : part * 100.0 / total;
+    }
+
+    private static final class Window {
+        final LatencyRecorder latencies = new LatencyRecorder();
+        final LongAdder ok = new LongAdder();
+        final LongAdder other = new LongAdder();
+        final LongAdder circuitOpen = new LongAdder();
+        final LongAdder staticFallback = new LongAdder();
+
+        void record(long nanos, HttpResponse<String> response, Throwable error) {
+            latencies.record(nanos);
+            if (error != null || response.statusCode() / 100 != 2) {
+                other.increment();
+                return;
+            }
+            ok.increment();
+            String body = response.body();
+            if (body.contains("\"circuitBreakerState\":\"OPEN\"")) {
+                circuitOpen.increment();
+            }
+            if (body.contains("\"FALLBACK_STATIC\"")) {
+                staticFallback.increment();
+            }
+        }
+    }
+}
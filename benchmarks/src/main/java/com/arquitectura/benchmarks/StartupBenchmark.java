@@ -0,0 +1,174 @@
+package com.arquitectura.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el tiempo hasta la primera petición con éxito (2xx) de una aplicación, desde que se
+ * lanza el proceso, en varios modos de arranque:
+ *
+ * - {@code default}: arranque normal, con reflexión
+ * - {@code aot}: contexto generado por el procesado AOT ({@code -Dspring.aot.enabled=true})
+ * - {@code cds}: AOT más un archivo de Class Data Sharing. Si el archivo no existe se crea
+ *   antes con una ejecución de entrenamiento que sale al terminar de refrescar el contexto
+ *   ({@code -Dspring.context.exit=onRefresh})
+ *
+ * El jar debe ser el jar fino del perfil {@code fast-startup} de cada módulo (clases, código
+ * AOT y {@code lib/}): CDS no puede archivar clases cargadas desde jars anidados.
+ *
+ * Uso:
+ * <pre>
+ * java -cp target/classes com.arquitectura.benchmarks.StartupBenchmark \
+ *     --jar ../01-fallback-johan/target/circuit-breaker-demo-1.0.0.jar \
+ *     --url http://localhost:8081/api/demo/data --runs 5 --modes default,aot,cds
+ * </pre>
+ *
+ * Con {@code --app-args} se pasan argumentos a la aplicación (separados por espacios).
+ */
+public class StartupBenchmark {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(20);
+
+    private final Path jar;
+    private final URI target;
+    private final int runs;
+    private final List<String> modes;
+    private final Path archive;
+    private final List<String> appArgs;
+    private final Duration timeout;
+    private final String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(1))
+        .build();
+
+    public StartupBenchmark(Path jar, URI target, int runs, List<String> modes, Path archive,
+                            List<String> appArgs, Duration timeout) {
+        this.jar = jar;
+        this.target = target;
+        this.runs = runs;
+        this.modes = modes;
+        this.archive = archive;
+        this.appArgs = appArgs;
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = ConcurrencyLoadBenchmark.parseArgs(args);
+        Path jar = Path.of(options.getOrDefault("jar", "app.jar"));
+        String appArgs = options.getOrDefault("app-args", "").trim();
+        StartupBenchmark benchmark = new StartupBenchmark(
+            jar,
+            URI.create(options.getOrDefault("url", "http://localhost:8080/api/ok")),
+            Integer.parseInt(options.getOrDefault("runs", "5")),
+            List.of(options.getOrDefault("modes", "default,aot,cds").split(",")),
+            Path.of(options.getOrDefault("archive", jar + ".jsa")),
+            appArgs.isEmpty() ? List.of() : Arrays.asList(appArgs.split("\\s+")),
+            ConcurrencyLoadBenchmark.parseDuration(options.getOrDefault("timeout", "120s"))
+        );
+        benchmark.run();
+    }
+
+    public void run() throws Exception {
+        System.out.printf("Jar: %s | objetivo: %s | ejecuciones por modo: %d%n", jar, target, runs);
+        System.out.printf("%-8s %9s %9s %9s%n", "modo", "min ms", "p50 ms", "max ms");
+        for (String mode : modes) {
+            List<String> flags = flags(mode.trim());
+            long[] millis = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                millis[i] = timeToFirstSuccess(flags);
+            }
+            Arrays.sort(millis);
+            System.out.printf("%-8s %9d %9d %9d%n", mode, millis[0], millis[runs / 2], millis[runs - 1]);
+        }
+    }
+
+    private List<String> flags(String mode) throws Exception {
+        switch (mode) {
+            case "default":
+                return List.of();
+            case "aot":
+                return List.of("-Dspring.aot.enabled=true");
+            case "cds":
+                if (!Files.exists(archive)) {
+                    train();
+                }
+                return List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=" + archive, "-Xlog:cds=off");
+            default:
+                throw new IllegalArgumentException("Modo desconocido: " + mode + " (default, aot, cds)");
+        }
+    }
+
+    /**
+     * Ejecución de entrenamiento: arranca el contexto, sale y deja las clases cargadas en el
+     * archivo CDS.
+     */
+    private void train() throws Exception {
+        System.out.printf("Creando el archivo CDS %s...%n", archive);
+        Process process = start(List.of(
+            "-XX:ArchiveClassesAtExit=" + archive,
+            "-Dspring.aot.enabled=true",
+            "-Dspring.context.exit=onRefresh"
+        ));
+        if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("La ejecución de entrenamiento no terminó en " + timeout.toSeconds() + "s");
+        }
+        if (!Files.exists(archive)) {
+            throw new IllegalStateException("La ejecución de entrenamiento no creó " + archive);
+        }
+    }
+
+    private long timeToFirstSuccess(List<String> flags) throws Exception {
+        long start = System.nanoTime();
+        Process process = start(flags);
+        try {
+            HttpRequest request = HttpRequest.newBuilder(target).timeout(Duration.ofSeconds(5)).GET().build();
+            long deadline = start + timeout.toNanos();
+            while (System.nanoTime() - deadline < 0) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("La aplicación terminó con código " + process.exitValue());
+                }
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() / 100 == 2) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (IOException e) {
+                    // Todavía no escucha
+                }
+                Thread.sleep(POLL_INTERVAL.toMillis());
+            }
+            throw new IllegalStateException("Sin respuesta con éxito en " + timeout.toSeconds() + "s");
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private Process start(List<String> flags) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(flags);
+        command.add("-jar");
+        command.add(jar.toString());
+        command.addAll(appArgs);
+        return new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .start();
+    }
+}
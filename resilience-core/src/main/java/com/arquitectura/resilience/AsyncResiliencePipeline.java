@@ -0,0 +1,307 @@
+package com.arquitectura.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Variante no bloqueante de {@link ResiliencePipeline}: Circuit Breaker, Bulkhead,
+ * TimeLimiter y fallback alrededor de una operación que devuelve un {@link CompletionStage},
+ * construidos una sola vez.
+ *
+ * Sigue las mismas reglas que el síncrono: los rechazos son la {@link RejectedCallException}
+ * de cada etapa, el plazo vencido una {@link TimeoutException} sin traza y el fallback recibe
+ * un {@link CallResult}. Ningún hilo espera: el plazo se programa en un
+ * {@link ScheduledExecutorService} y se anula cuando la operación termina antes.
+ *
+ * No tiene Retry: reintentar sin bloquear necesita programar las esperas, y ninguno de los
+ * proyectos lo usa en este camino.
+ *
+ * Con los mismos componentes que el pipeline síncrono (p. ej. el Circuit Breaker del
+ * registro), las dos variantes cuentan sus llamadas en la misma ventana.
+ *
+ * @param <I> Entrada de cada llamada
+ * @param <O> Resultado
+ */
+public final class AsyncResiliencePipeline<I, O> {
+
+    private final Function<? super I, ? extends CompletionStage<O>> head;
+    private final BiFunction<? super I, ? super CallResult<O>, ? extends O> fallback;
+    private final String description;
+
+    private AsyncResiliencePipeline(Function<? super I, ? extends CompletionStage<O>> head,
+                                    BiFunction<? super I, ? super CallResult<O>, ? extends O> fallback,
+                                    String description) {
+        this.head = head;
+        this.fallback = fallback;
+        this.description = description;
+    }
+
+    /**
+     * Empieza un pipeline con componentes que se pasan explícitamente. Para tomarlos de los
+     * registros usar {@link ResiliencePipelines#asyncPipeline(String, Function)}.
+     */
+    public static <I, O> Builder<I, O> of(Function<? super I, ? extends CompletionStage<O>> operation) {
+        return new Builder<>(operation, null, null);
+    }
+
+    /**
+     * Lanza la operación a través de todas las etapas. El futuro se completa con su valor o,
+     * si no termina bien, con el del fallback (sin fallback, con el error).
+     */
+    public CompletableFuture<O> execute(I input) {
+        CompletableFuture<O> result = start(input);
+        if (fallback == null) {
+            return result;
+        }
+        return result.handle((value, error) -> error == null
+            ? value
+            : fallback.apply(input, CallResult.failure(unwrap(error))));
+    }
+
+    /**
+     * Lanza la operación sin fallback; el futuro nunca se completa con error.
+     */
+    public CompletableFuture<CallResult<O>> call(I input) {
+        return start(input).handle((value, error) -> error == null
+            ? CallResult.succeeded(value)
+            : CallResult.failure(unwrap(error)));
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    private CompletableFuture<O> start(I input) {
+        try {
+            return head.apply(input).toCompletableFuture();
+        } catch (VirtualMachineError e) {
+            throw e;
+        } catch (Throwable e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    static Throwable unwrap(Throwable error) {
+        if ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+
+    public static final class Builder<I, O> {
+
+        private final ResiliencePipelines registries;
+        private final String name;
+        private Function<? super I, ? extends CompletionStage<O>> current;
+        private BiFunction<? super I, ? super CallResult<O>, ? extends O> fallback;
+        private String description = "operation";
+
+        Builder(Function<? super I, ? extends CompletionStage<O>> operation, ResiliencePipelines registries, String name) {
+            this.current = operation;
+            this.registries = registries;
+            this.name = name;
+        }
+
+        /**
+         * Circuit Breaker con el nombre del pipeline, tomado del registro.
+         */
+        public Builder<I, O> withCircuitBreaker() {
+            return withCircuitBreaker(registries().circuitBreaker(name));
+        }
+
+        /**
+         * Registra el resultado cuando el futuro de la operación se completa. Un plazo vencido
+         * por dentro (TimeLimiter) cuenta como {@link TimeoutException}.
+         */
+        public Builder<I, O> withCircuitBreaker(CircuitBreaker circuitBreaker) {
+            return add(new CircuitBreakerStage<>(circuitBreaker, current), "CircuitBreaker[" + circuitBreaker.getName() + "]");
+        }
+
+        /**
+         * Bulkhead con el nombre del pipeline, tomado del registro.
+         */
+        public Builder<I, O> withBulkhead() {
+            return withBulkhead(registries().bulkhead(name));
+        }
+
+        /**
+         * El permiso se libera cuando el futuro de la operación se completa, también si se
+         * cancela al vencer el plazo de un TimeLimiter interior.
+         */
+        public Builder<I, O> withBulkhead(Bulkhead bulkhead) {
+            return add(new BulkheadStage<>(bulkhead, current), "Bulkhead[" + bulkhead.getName() + "]");
+        }
+
+        /**
+         * TimeLimiter con el nombre del pipeline, tomado del registro.
+         */
+        public Builder<I, O> withTimeLimiter(ScheduledExecutorService scheduler) {
+            return withTimeLimiter(registries().timeLimiter(name), scheduler);
+        }
+
+        /**
+         * Completa con su {@link TimeoutException} si la operación no termina a tiempo y, con
+         * {@code cancel-running-future}, cancela su futuro. El aviso se programa en
+         * {@code scheduler}.
+         */
+        public Builder<I, O> withTimeLimiter(TimeLimiter timeLimiter, ScheduledExecutorService scheduler) {
+            return add(new TimeLimiterStage<>(timeLimiter, scheduler, current), "TimeLimiter[" + timeLimiter.getName() + "]");
+        }
+
+        /**
+         * Igual que {@link ResiliencePipeline.Builder#withFallback}: envuelve siempre a toda la
+         * cadena y recibe el {@link CallResult} de la llamada.
+         */
+        public Builder<I, O> withFallback(BiFunction<? super I, ? super CallResult<O>, ? extends O> fallback) {
+            this.fallback = fallback;
+            return this;
+        }
+
+        public AsyncResiliencePipeline<I, O> build() {
+            return new AsyncResiliencePipeline<>(current, fallback,
+                fallback != null ? "Fallback(" + description + ")" : description);
+        }
+
+        private Builder<I, O> add(Function<? super I, ? extends CompletionStage<O>> stage, String label) {
+            current = stage;
+            description = label + "(" + description + ")";
+            return this;
+        }
+
+        private ResiliencePipelines registries() {
+            if (registries == null) {
+                throw new IllegalStateException("Pipeline sin registros: usa ResiliencePipelines.asyncPipeline(nombre, operación) "
+                    + "o pasa el componente explícitamente");
+            }
+            return registries;
+        }
+    }
+
+    /**
+     * Lanza la etapa siguiente; si lanza en lugar de devolver un futuro, el error se devuelve
+     * como futuro fallido (salvo los de la máquina virtual).
+     */
+    private static <I, O> CompletableFuture<O> next(Function<? super I, ? extends CompletionStage<O>> next, I input) {
+        try {
+            return next.apply(input).toCompletableFuture();
+        } catch (VirtualMachineError e) {
+            throw e;
+        } catch (Throwable e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static final class CircuitBreakerStage<I, O> implements Function<I, CompletionStage<O>> {
+
+        private final CircuitBreaker circuitBreaker;
+        private final Function<? super I, ? extends CompletionStage<O>> next;
+        private final RejectedCallException rejected;
+
+        CircuitBreakerStage(CircuitBreaker circuitBreaker, Function<? super I, ? extends CompletionStage<O>> next) {
+            this.circuitBreaker = circuitBreaker;
+            this.next = next;
+            this.rejected = new RejectedCallException("CircuitBreaker[" + circuitBreaker.getName() + "]",
+                CallResult.Rejection.CIRCUIT_BREAKER);
+        }
+
+        @Override
+        public CompletionStage<O> apply(I input) {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return CompletableFuture.failedFuture(rejected);
+            }
+            long start = circuitBreaker.getCurrentTimestamp();
+            return next(next, input).whenComplete((result, error) -> {
+                long duration = circuitBreaker.getCurrentTimestamp() - start;
+                if (error != null) {
+                    circuitBreaker.onError(duration, circuitBreaker.getTimestampUnit(), unwrap(error));
+                } else {
+                    circuitBreaker.onResult(duration, circuitBreaker.getTimestampUnit(), result);
+                }
+            });
+        }
+    }
+
+    private static final class BulkheadStage<I, O> implements Function<I, CompletionStage<O>> {
+
+        private final Bulkhead bulkhead;
+        private final Function<? super I, ? extends CompletionStage<O>> next;
+        private final RejectedCallException rejected;
+
+        BulkheadStage(Bulkhead bulkhead, Function<? super I, ? extends CompletionStage<O>> next) {
+            this.bulkhead = bulkhead;
+            this.next = next;
+            this.rejected = new RejectedCallException("Bulkhead[" + bulkhead.getName() + "]",
+                CallResult.Rejection.BULKHEAD);
+        }
+
+        @Override
+        public CompletionStage<O> apply(I input) {
+            if (!bulkhead.tryAcquirePermission()) {
+                return CompletableFuture.failedFuture(rejected);
+            }
+            return next(next, input).whenComplete((result, error) -> bulkhead.onComplete());
+        }
+    }
+
+    private static final class TimeLimiterStage<I, O> implements Function<I, CompletionStage<O>> {
+
+        private final TimeLimiter timeLimiter;
+        private final ScheduledExecutorService scheduler;
+        private final Function<? super I, ? extends CompletionStage<O>> next;
+        private final long timeoutNanos;
+        private final boolean cancelRunningFuture;
+        private final TimeoutException timeout;
+
+        TimeLimiterStage(TimeLimiter timeLimiter, ScheduledExecutorService scheduler,
+                         Function<? super I, ? extends CompletionStage<O>> next) {
+            this.timeLimiter = timeLimiter;
+            this.scheduler = scheduler;
+            this.next = next;
+            this.timeoutNanos = timeLimiter.getTimeLimiterConfig().getTimeoutDuration().toNanos();
+            this.cancelRunningFuture = timeLimiter.getTimeLimiterConfig().shouldCancelRunningFuture();
+            this.timeout = new ResiliencePipeline.StacklessTimeoutException(
+                TimeLimiter.createdTimeoutExceptionWithName(timeLimiter.getName(), null).getMessage());
+        }
+
+        @Override
+        public CompletionStage<O> apply(I input) {
+            CompletableFuture<O> source = next(next, input);
+            CompletableFuture<O> result = new CompletableFuture<>();
+            ScheduledFuture<?> timer = scheduler.schedule(() -> {
+                if (result.completeExceptionally(timeout)) {
+                    timeLimiter.onError(timeout);
+                    if (cancelRunningFuture) {
+                        source.cancel(true);
+                    }
+                }
+            }, timeoutNanos, TimeUnit.NANOSECONDS);
+            source.whenComplete((value, error) -> {
+                timer.cancel(false);
+                if (error == null) {
+                    if (result.complete(value)) {
+                        timeLimiter.onSuccess();
+                    }
+                } else {
+                    Throwable cause = unwrap(error);
+                    if (result.completeExceptionally(cause)) {
+                        timeLimiter.onError(cause);
+                    }
+                }
+            });
+            return result;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.arquitectura.resilience;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Resultado de una llamada sin excepciones de por medio: {@link ResiliencePipeline#call}
+ * lo devuelve y el fallback lo recibe.
+ *
+ * El fallback se elige por {@link #outcome()} y, si hace falta más detalle, por el tipo de
+ * {@link #cause()}, nunca por el texto del mensaje.
+ *
+ * @param <O> Resultado de la operación
+ */
+public final class CallResult<O> {
+
+    public enum Outcome {
+        /** La operación devolvió un valor */
+        SUCCEEDED,
+        /** Una etapa no dio permiso: la operación no llegó a ejecutarse */
+        REJECTED,
+        /** Venció el plazo del TimeLimiter */
+        TIMED_OUT,
+        /** La operación (o una etapa) terminó con error */
+        FAILED
+    }
+
+    /**
+     * Etapa que rechazó una llamada {@code REJECTED}.
+     */
+    public enum Rejection {
+        /** Circuit Breaker abierto */
+        CIRCUIT_BREAKER,
+        /** Bulkhead lleno */
+        BULKHEAD,
+        /** Limitador propio sin hueco (concurrencia adaptativa, cola de admisión...) */
+        LIMITER
+    }
+
+    private final Outcome outcome;
+    private final Rejection rejection;
+    private final O value;
+    private final Throwable cause;
+
+    private CallResult(Outcome outcome, Rejection rejection, O value, Throwable cause) {
+        this.outcome = outcome;
+        this.rejection = rejection;
+        this.value = value;
+        this.cause = cause;
+    }
+
+    public static <O> CallResult<O> succeeded(O value) {
+        return new CallResult<>(Outcome.SUCCEEDED, null, value, null);
+    }
+
+    /**
+     * Clasifica un error por su tipo: los rechazos propios ({@link RejectedCallException}) y los
+     * de Resilience4j ({@link CallNotPermittedException}, {@link BulkheadFullException}) son
+     * {@code REJECTED}, {@link TimeoutException} es {@code TIMED_OUT} y el resto {@code FAILED}.
+     * En los rechazos se guarda además la etapa ({@link #rejection()}).
+     *
+     * Sirve también para los caminos que siguen con excepciones (anotaciones,
+     * {@code decorateCompletionStage}), para que elijan el fallback igual que un pipeline.
+     */
+    public static <O> CallResult<O> failure(Throwable cause) {
+        if (cause instanceof RejectedCallException rejected) {
+            return new CallResult<>(Outcome.REJECTED, rejected.getRejection(), null, cause);
+        }
+        if (cause instanceof CallNotPermittedException) {
+            return new CallResult<>(Outcome.REJECTED, Rejection.CIRCUIT_BREAKER, null, cause);
+        }
+        if (cause instanceof BulkheadFullException) {
+            return new CallResult<>(Outcome.REJECTED, Rejection.BULKHEAD, null, cause);
+        }
+        Outcome outcome = cause instanceof TimeoutException ? Outcome.TIMED_OUT : Outcome.FAILED;
+        return new CallResult<>(outcome, null, null, cause);
+    }
+
+    public Outcome outcome() {
+        return outcome;
+    }
+
+    /**
+     * Etapa que rechazó la llamada; {@code null} si no es {@code REJECTED}.
+     */
+    public Rejection rejection() {
+        return rejection;
+    }
+
+    public boolean isSuccess() {
+        return outcome == Outcome.SUCCEEDED;
+    }
+
+    /**
+     * Valor de la operación; {@code null} si no terminó bien.
+     */
+    public O value() {
+        return value;
+    }
+
+    /**
+     * Error que produjo el resultado; {@code null} si terminó bien.
+     */
+    public Throwable cause() {
+        return cause;
+    }
+
+    /**
+     * Texto para logs y respuestas: el mensaje del error o, si no tiene, su tipo.
+     */
+    public String reason() {
+        if (cause == null) {
+            return outcome.name();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? "SUCCEEDED(" + value + ")" : outcome + "(" + reason() + ")";
+    }
+}
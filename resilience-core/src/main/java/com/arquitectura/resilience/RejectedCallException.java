@@ -0,0 +1,54 @@
+package com.arquitectura.resilience;
+
+/**
+ * Una etapa no dio permiso a la llamada: Circuit Breaker abierto, Bulkhead lleno o un
+ * limitador propio sin hueco.
+ *
+ * No tiene traza de pila ni excepciones suprimidas, así que no guarda estado de ninguna
+ * llamada: cada etapa crea la suya al construirse y lanza siempre la misma. Rechazar no
+ * reserva memoria ni recorre la pila, que es justo lo que pasa con todo el tráfico mientras
+ * un circuito está abierto.
+ */
+public class RejectedCallException extends RuntimeException {
+
+    private final String component;
+    private final CallResult.Rejection rejection;
+
+    /**
+     * Rechazo de un limitador propio ({@link CallResult.Rejection#LIMITER}).
+     *
+     * @param component Etapa que rechaza, con el formato de {@link ResiliencePipeline#toString()}
+     *                  (p. ej. {@code Limiter[miServicio]})
+     */
+    public RejectedCallException(String component) {
+        this(component, CallResult.Rejection.LIMITER);
+    }
+
+    /**
+     * @param component Etapa que rechaza, con el formato de {@link ResiliencePipeline#toString()}
+     *                  (p. ej. {@code Bulkhead[miServicio]})
+     * @param rejection Tipo de etapa, para que las métricas distingan un circuito abierto de
+     *                  una saturación
+     */
+    public RejectedCallException(String component, CallResult.Rejection rejection) {
+        this(component, rejection, "Llamada rechazada por " + component);
+    }
+
+    protected RejectedCallException(String component, String message) {
+        this(component, CallResult.Rejection.LIMITER, message);
+    }
+
+    protected RejectedCallException(String component, CallResult.Rejection rejection, String message) {
+        super(message, null, false, false);
+        this.component = component;
+        this.rejection = rejection;
+    }
+
+    public String getComponent() {
+        return component;
+    }
+
+    public CallResult.Rejection getRejection() {
+        return rejection;
+    }
+}
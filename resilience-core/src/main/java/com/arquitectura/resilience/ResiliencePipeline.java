@@ -0,0 +1,375 @@
+package com.arquitectura.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cadena de Circuit Breaker, Bulkhead, Retry, TimeLimiter y fallback construida una sola vez.
+ *
+ * Cada etapa es un objeto que guarda su componente de Resilience4j y la etapa siguiente, y
+ * llama directamente a sus primitivas ({@code tryAcquirePermission}, {@code onResult},
+ * {@code onComplete}...). Decorar en cada llamada ({@code Bulkhead.decorateSupplier(bulkhead,
+ * Retry.decorateSupplier(retry, ...))}) crea todas esas lambdas cada vez; aquí una llamada
+ * solo reserva lo que el propio componente necesita (el contexto del Retry, la tarea del
+ * TimeLimiter).
+ *
+ * Las etapas se añaden de dentro hacia fuera, como en los {@code Decorators} de
+ * Resilience4j: en {@code of(op).withRetry(r).withBulkhead(b)} el Bulkhead envuelve al Retry.
+ *
+ * Los rechazos no crean excepciones: el Circuit Breaker y el Bulkhead se consultan con
+ * {@code tryAcquirePermission} y, si no dan permiso, la etapa lanza su
+ * {@link RejectedCallException} sin traza, creada una vez. El plazo vencido del TimeLimiter
+ * es igualmente una {@link TimeoutException} sin traza. {@link #call} devuelve el resultado
+ * como {@link CallResult} sin lanzar nada y el fallback se elige por su
+ * {@link CallResult.Outcome}.
+ *
+ * @param <I> Entrada de cada llamada
+ * @param <O> Resultado
+ */
+public final class ResiliencePipeline<I, O> {
+
+    private final ResilientOperation<I, O> head;
+    private final BiFunction<? super I, ? super CallResult<O>, ? extends O> fallback;
+    private final String description;
+
+    private ResiliencePipeline(ResilientOperation<I, O> head,
+                               BiFunction<? super I, ? super CallResult<O>, ? extends O> fallback,
+                               String description) {
+        this.head = head;
+        this.fallback = fallback;
+        this.description = description;
+    }
+
+    /**
+     * Empieza un pipeline con componentes que se pasan explícitamente. Para tomarlos de los
+     * registros (configuración {@code resilience4j.*}) usar
+     * {@link ResiliencePipelines#pipeline(String, ResilientOperation)}.
+     */
+    public static <I, O> Builder<I, O> of(ResilientOperation<I, O> operation) {
+        return new Builder<>(operation, null, null);
+    }
+
+    /**
+     * Ejecuta la operación a través de todas las etapas y, si no termina bien, devuelve el
+     * fallback.
+     *
+     * Sin fallback el error se relanza: un rechazo como {@link RejectedCallException}, y las
+     * excepciones comprobadas envueltas en {@link UndeclaredThrowableException}. Los
+     * {@link VirtualMachineError} (sin memoria, desbordamiento de pila) se relanzan siempre;
+     * el resto de {@link Error} llega al fallback como {@code FAILED}.
+     */
+    public O execute(I input) {
+        try {
+            return head.apply(input);
+        } catch (VirtualMachineError e) {
+            throw e;
+        } catch (Throwable e) {
+            CallResult<O> failure = CallResult.failure(e);
+            if (fallback != null) {
+                return fallback.apply(input, failure);
+            }
+            if (e instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e instanceof Error error) {
+                throw error;
+            }
+            throw new UndeclaredThrowableException(e, description + ": " + e);
+        }
+    }
+
+    /**
+     * Ejecuta la operación a través de todas las etapas, sin fallback y sin lanzar: el
+     * resultado dice si terminó bien, fue rechazada, venció el plazo o falló. Solo los
+     * {@link VirtualMachineError} se relanzan.
+     */
+    public CallResult<O> call(I input) {
+        try {
+            return CallResult.succeeded(head.apply(input));
+        } catch (VirtualMachineError e) {
+            throw e;
+        } catch (Throwable e) {
+            return CallResult.failure(e);
+        }
+    }
+
+    /**
+     * Etapas de fuera hacia dentro, p. ej.
+     * {@code Fallback(CircuitBreaker[externalService](operation))}. {@link #call} no aplica
+     * el fallback.
+     */
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    public static final class Builder<I, O> {
+
+        private final ResiliencePipelines registries;
+        private final String name;
+        private ResilientOperation<I, O> current;
+        private BiFunction<? super I, ? super CallResult<O>, ? extends O> fallback;
+        private String description = "operation";
+
+        Builder(ResilientOperation<I, O> operation, ResiliencePipelines registries, String name) {
+            this.current = operation;
+            this.registries = registries;
+            this.name = name;
+        }
+
+        /**
+         * Circuit Breaker con el nombre del pipeline, tomado del registro.
+         */
+        public Builder<I, O> withCircuitBreaker() {
+            return withCircuitBreaker(registries().circuitBreaker(name));
+        }
+
+        public Builder<I, O> withCircuitBreaker(CircuitBreaker circuitBreaker) {
+            return add(new CircuitBreakerStage<>(circuitBreaker, current), "CircuitBreaker[" + circuitBreaker.getName() + "]");
+        }
+
+        /**
+         * Bulkhead con el nombre del pipeline, tomado del registro.
+         */
+        public Builder<I, O> withBulkhead() {
+            return withBulkhead(registries().bulkhead(name));
+        }
+
+        public Builder<I, O> withBulkhead(Bulkhead bulkhead) {
+            return add(new BulkheadStage<>(bulkhead, current), "Bulkhead[" + bulkhead.getName() + "]");
+        }
+
+        /**
+         * Retry con el nombre del pipeline, tomado del registro.
+         */
+        public Builder<I, O> withRetry() {
+            return withRetry(registries().retry(name));
+        }
+
+        public Builder<I, O> withRetry(Retry retry) {
+            return add(new RetryStage<>(retry, current), "Retry[" + retry.getName() + "]");
+        }
+
+        /**
+         * TimeLimiter con el nombre del pipeline, tomado del registro.
+         */
+        public Builder<I, O> withTimeLimiter(ExecutorService executor) {
+            return withTimeLimiter(registries().timeLimiter(name), executor);
+        }
+
+        /**
+         * Ejecuta el resto de la cadena en {@code executor} y espera como mucho el tiempo del
+         * TimeLimiter. Si vence lanza su {@link TimeoutException} y, si está configurado
+         * {@code cancel-running-future}, interrumpe la tarea.
+         */
+        public Builder<I, O> withTimeLimiter(TimeLimiter timeLimiter, ExecutorService executor) {
+            return add(new TimeLimiterStage<>(timeLimiter, executor, current), "TimeLimiter[" + timeLimiter.getName() + "]");
+        }
+
+        /**
+         * Etapa propia (p. ej. un limitador que no es de Resilience4j). Para que sus rechazos
+         * lleguen como {@code REJECTED} debe lanzar una {@link RejectedCallException}.
+         *
+         * @param label Nombre de la etapa en {@link ResiliencePipeline#toString()}
+         * @param decorator Recibe la cadena construida hasta ahora y devuelve la que la envuelve
+         */
+        public Builder<I, O> decorate(String label, UnaryOperator<ResilientOperation<I, O>> decorator) {
+            return add(decorator.apply(current), label);
+        }
+
+        /**
+         * Respuesta de {@link ResiliencePipeline#execute} cuando la llamada no termina bien.
+         * Recibe la entrada y el {@link CallResult} (rechazada, plazo vencido o fallida) para
+         * elegir la respuesta por su {@link CallResult#outcome()}. Envuelve siempre a toda la
+         * cadena, se añada donde se añada.
+         */
+        public Builder<I, O> withFallback(BiFunction<? super I, ? super CallResult<O>, ? extends O> fallback) {
+            this.fallback = fallback;
+            return this;
+        }
+
+        public ResiliencePipeline<I, O> build() {
+            return new ResiliencePipeline<>(current, fallback,
+                fallback != null ? "Fallback(" + description + ")" : description);
+        }
+
+        private Builder<I, O> add(ResilientOperation<I, O> stage, String label) {
+            current = stage;
+            description = label + "(" + description + ")";
+            return this;
+        }
+
+        private ResiliencePipelines registries() {
+            if (registries == null) {
+                throw new IllegalStateException("Pipeline sin registros: usa ResiliencePipelines.pipeline(nombre, operación) "
+                    + "o pasa el componente explícitamente");
+            }
+            return registries;
+        }
+    }
+
+    private static final class CircuitBreakerStage<I, O> implements ResilientOperation<I, O> {
+
+        private final CircuitBreaker circuitBreaker;
+        private final ResilientOperation<I, O> next;
+        private final RejectedCallException rejected;
+
+        CircuitBreakerStage(CircuitBreaker circuitBreaker, ResilientOperation<I, O> next) {
+            this.circuitBreaker = circuitBreaker;
+            this.next = next;
+            this.rejected = new RejectedCallException("CircuitBreaker[" + circuitBreaker.getName() + "]",
+                CallResult.Rejection.CIRCUIT_BREAKER);
+        }
+
+        @Override
+        public O apply(I input) throws Exception {
+            // Publica el evento NOT_PERMITTED y cuenta la llamada, igual que acquirePermission
+            if (!circuitBreaker.tryAcquirePermission()) {
+                throw rejected;
+            }
+            long start = circuitBreaker.getCurrentTimestamp();
+            try {
+                O result = next.apply(input);
+                circuitBreaker.onResult(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), result);
+                return result;
+            } catch (Throwable e) {
+                // También los Error: sin onError/onResult el permiso queda tomado y en
+                // HALF_OPEN se pierde una de las llamadas de prueba
+                circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), e);
+                throw e;
+            }
+        }
+    }
+
+    private static final class BulkheadStage<I, O> implements ResilientOperation<I, O> {
+
+        private final Bulkhead bulkhead;
+        private final ResilientOperation<I, O> next;
+        private final RejectedCallException rejected;
+
+        BulkheadStage(Bulkhead bulkhead, ResilientOperation<I, O> next) {
+            this.bulkhead = bulkhead;
+            this.next = next;
+            this.rejected = new RejectedCallException("Bulkhead[" + bulkhead.getName() + "]",
+                CallResult.Rejection.BULKHEAD);
+        }
+
+        @Override
+        public O apply(I input) throws Exception {
+            if (!bulkhead.tryAcquirePermission()) {
+                throw rejected;
+            }
+            try {
+                return next.apply(input);
+            } finally {
+                bulkhead.onComplete();
+            }
+        }
+    }
+
+    private static final class RetryStage<I, O> implements ResilientOperation<I, O> {
+
+        private final Retry retry;
+        private final ResilientOperation<I, O> next;
+
+        RetryStage(Retry retry, ResilientOperation<I, O> next) {
+            this.retry = retry;
+            this.next = next;
+        }
+
+        @Override
+        public O apply(I input) throws Exception {
+            Retry.Context<O> context = retry.context();
+            while (true) {
+                try {
+                    O result = next.apply(input);
+                    if (!context.onResult(result)) {
+                        context.onComplete();
+                        return result;
+                    }
+                } catch (Exception e) {
+                    // Espera y vuelve al bucle, o relanza si no se reintenta. Un Error sale sin
+                    // reintentar: el contexto del Retry no reserva nada que haya que liberar
+                    context.onError(e);
+                }
+            }
+        }
+    }
+
+    private static final class TimeLimiterStage<I, O> implements ResilientOperation<I, O> {
+
+        private final TimeLimiter timeLimiter;
+        private final ExecutorService executor;
+        private final ResilientOperation<I, O> next;
+        private final long timeoutNanos;
+        private final boolean cancelRunningFuture;
+        private final TimeoutException timeout;
+
+        TimeLimiterStage(TimeLimiter timeLimiter, ExecutorService executor, ResilientOperation<I, O> next) {
+            this.timeLimiter = timeLimiter;
+            this.executor = executor;
+            this.next = next;
+            this.timeoutNanos = timeLimiter.getTimeLimiterConfig().getTimeoutDuration().toNanos();
+            this.cancelRunningFuture = timeLimiter.getTimeLimiterConfig().shouldCancelRunningFuture();
+            this.timeout = new StacklessTimeoutException(
+                TimeLimiter.createdTimeoutExceptionWithName(timeLimiter.getName(), null).getMessage());
+        }
+
+        @Override
+        public O apply(I input) throws Exception {
+            Future<O> future = executor.submit(() -> next.apply(input));
+            try {
+                O result = future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+                timeLimiter.onSuccess();
+                return result;
+            } catch (TimeoutException e) {
+                timeLimiter.onError(timeout);
+                if (cancelRunningFuture) {
+                    future.cancel(true);
+                }
+                throw timeout;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                timeLimiter.onError(cause);
+                if (cause instanceof Exception exception) {
+                    throw exception;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * TimeoutException sin traza: la que lanza el TimeLimiter es siempre la misma y solo dice
+     * qué instancia venció. También la usa {@link AsyncResiliencePipeline}.
+     */
+    static final class StacklessTimeoutException extends TimeoutException {
+
+        StacklessTimeoutException(String message) {
+            super(message);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
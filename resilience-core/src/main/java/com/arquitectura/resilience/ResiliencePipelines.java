@@ -0,0 +1,92 @@
+package com.arquitectura.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Construye pipelines con los componentes de los registros de Resilience4j.
+ *
+ * En una aplicación Spring Boot los registros son los de {@code resilience4j-spring-boot3},
+ * configurados con {@code resilience4j.circuitbreaker|bulkhead|retry|timelimiter.instances.*},
+ * y este objeto es un bean ({@link ResiliencePipelinesAutoConfiguration}). Los componentes son
+ * las mismas instancias que usan las anotaciones, Actuator y las métricas.
+ *
+ * <pre>
+ * pipeline = pipelines.pipeline("externalService", input -> fetch())
+ *     .withCircuitBreaker()
+ *     .withFallback((input, failure) -> fallback(failure))
+ *     .build();
+ * </pre>
+ */
+public class ResiliencePipelines {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final RetryRegistry retryRegistry;
+    private final TimeLimiterRegistry timeLimiterRegistry;
+
+    public ResiliencePipelines(CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry,
+                               RetryRegistry retryRegistry, TimeLimiterRegistry timeLimiterRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.retryRegistry = retryRegistry;
+        this.timeLimiterRegistry = timeLimiterRegistry;
+    }
+
+    /**
+     * Registros con la configuración por defecto de Resilience4j (fuera de Spring).
+     */
+    public static ResiliencePipelines ofDefaults() {
+        return new ResiliencePipelines(CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(),
+            RetryRegistry.ofDefaults(), TimeLimiterRegistry.ofDefaults());
+    }
+
+    /**
+     * Empieza un pipeline cuyas etapas sin argumentos ({@code withCircuitBreaker()},
+     * {@code withRetry()}...) usan la instancia {@code name} de cada registro.
+     */
+    public <I, O> ResiliencePipeline.Builder<I, O> pipeline(String name, ResilientOperation<I, O> operation) {
+        return new ResiliencePipeline.Builder<>(operation, this, name);
+    }
+
+    /**
+     * Igual que {@link #pipeline} para una operación que devuelve un {@link CompletionStage}.
+     */
+    public <I, O> AsyncResiliencePipeline.Builder<I, O> asyncPipeline(String name,
+            Function<? super I, ? extends CompletionStage<O>> operation) {
+        return new AsyncResiliencePipeline.Builder<>(operation, this, name);
+    }
+
+    public CircuitBreaker circuitBreaker(String name) {
+        return circuitBreakerRegistry.circuitBreaker(name);
+    }
+
+    public Bulkhead bulkhead(String name) {
+        return bulkheadRegistry.bulkhead(name);
+    }
+
+    public Retry retry(String name) {
+        return retryRegistry.retry(name);
+    }
+
+    /**
+     * Retry con configuración propia, registrado para que aparezca en Actuator y en métricas.
+     */
+    public Retry retry(String name, RetryConfig config) {
+        return retryRegistry.retry(name, config);
+    }
+
+    public TimeLimiter timeLimiter(String name) {
+        return timeLimiterRegistry.timeLimiter(name);
+    }
+}
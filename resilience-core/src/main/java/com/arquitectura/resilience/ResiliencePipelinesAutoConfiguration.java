@@ -0,0 +1,38 @@
+package com.arquitectura.resilience;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Bean {@link ResiliencePipelines} con los registros que crea {@code resilience4j-spring-boot3}
+ * a partir de {@code resilience4j.*}. Si falta alguno (la aplicación no usa ese componente)
+ * se usa un registro con la configuración por defecto.
+ */
+@AutoConfiguration(afterName = {
+    "io.github.resilience4j.springboot3.circuitbreaker.autoconfigure.CircuitBreakerAutoConfiguration",
+    "io.github.resilience4j.springboot3.bulkhead.autoconfigure.BulkheadAutoConfiguration",
+    "io.github.resilience4j.springboot3.retry.autoconfigure.RetryAutoConfiguration",
+    "io.github.resilience4j.springboot3.timelimiter.autoconfigure.TimeLimiterAutoConfiguration"
+})
+public class ResiliencePipelinesAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ResiliencePipelines resiliencePipelines(ObjectProvider<CircuitBreakerRegistry> circuitBreakerRegistry,
+                                                   ObjectProvider<BulkheadRegistry> bulkheadRegistry,
+                                                   ObjectProvider<RetryRegistry> retryRegistry,
+                                                   ObjectProvider<TimeLimiterRegistry> timeLimiterRegistry) {
+        return new ResiliencePipelines(
+            circuitBreakerRegistry.getIfAvailable(CircuitBreakerRegistry::ofDefaults),
+            bulkheadRegistry.getIfAvailable(BulkheadRegistry::ofDefaults),
+            retryRegistry.getIfAvailable(RetryRegistry::ofDefaults),
+            timeLimiterRegistry.getIfAvailable(TimeLimiterRegistry::ofDefaults)
+        );
+    }
+}
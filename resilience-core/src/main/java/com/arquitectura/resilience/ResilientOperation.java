@@ -0,0 +1,17 @@
+package com.arquitectura.resilience;
+
+/**
+ * Operación protegida por un {@link ResiliencePipeline}, y también cada etapa del pipeline.
+ *
+ * Recibe la entrada de la llamada en lugar de capturarla: así el pipeline se construye una vez
+ * y cada llamada solo le pasa sus datos. Puede lanzar excepciones comprobadas (p. ej.
+ * {@link InterruptedException}); las etapas las tratan igual que las no comprobadas.
+ *
+ * @param <I> Entrada de cada llamada ({@link Void} si no hay)
+ * @param <O> Resultado
+ */
+@FunctionalInterface
+public interface ResilientOperation<I, O> {
+
+    O apply(I input) throws Exception;
+}
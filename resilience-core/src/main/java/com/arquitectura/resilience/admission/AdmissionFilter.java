@@ -0,0 +1,247 @@
+package com.arquitectura.resilience.admission;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Control de admisión delante de los endpoints lentos de cada proyecto.
+ *
+ * Sin él, las peticiones que no caben esperan en la cola de Tomcat sin límite y sin que nadie
+ * sepa cuánto llevan allí. Aquí, con todos los permisos ocupados la petición pasa a modo
+ * asíncrono (no retiene hilo de Tomcat) y espera en una {@link AdmissionQueue}; al liberarse
+ * un permiso se reanuda con {@code dispatch()} o, si esperó más de lo que CoDel admite, se
+ * responde 503 con {@code Retry-After} y el cuerpo que elija el proyecto.
+ *
+ * Las rutas prioritarias (salud, Actuator) nunca pasan por la cola, y como los permisos son
+ * menos que los hilos de Tomcat siempre les quedan hilos libres.
+ *
+ * Un hilo revisa la cola cada {@code target / 2} y descarta lo caducado aunque no se libere
+ * ningún permiso (todas las llamadas en curso pueden ser lentas).
+ *
+ * Cada proyecto lo registra con un {@code FilterRegistrationBean} (con soporte asíncrono) y
+ * publica las métricas de {@link #getQueue()} con sus propios nombres.
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionFilter.class);
+
+    private static final String ADMITTED = AdmissionFilter.class.getName() + ".ADMITTED";
+
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final List<String> paths;
+    private final List<String> priorityPaths;
+    private final long asyncTimeoutMillis;
+    private final AdmissionQueue<Pending> queue;
+    private final ScheduledExecutorService expiry;
+    private final String shedContentType;
+    private final byte[] shedBody;
+
+    /**
+     * @param paths Rutas que pasan por la cola
+     * @param priorityPaths Rutas que nunca esperan (tienen preferencia sobre {@code paths})
+     * @param maxConcurrent Peticiones de {@code paths} atendiéndose a la vez
+     * @param maxQueue Peticiones de {@code paths} en espera
+     * @param target Espera objetivo en cola (CoDel)
+     * @param interval Intervalo de CoDel
+     * @param shedContentType Tipo del cuerpo de la respuesta 503
+     * @param shedBody Cuerpo de la respuesta 503, en UTF-8
+     */
+    public AdmissionFilter(List<String> paths, List<String> priorityPaths, int maxConcurrent, int maxQueue,
+                           Duration target, Duration interval, String shedContentType, String shedBody) {
+        this.paths = paths;
+        this.priorityPaths = priorityPaths;
+        this.shedContentType = shedContentType;
+        this.shedBody = shedBody.getBytes(StandardCharsets.UTF_8);
+        this.asyncTimeoutMillis = interval.toMillis() * 2;
+        this.queue = new AdmissionQueue<>(maxConcurrent, maxQueue, target, interval, this::resume, this::shed);
+        this.expiry = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "admission-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(10, target.toMillis() / 2);
+        expiry.scheduleAtFixedRate(queue::expire, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public AdmissionQueue<?> getQueue() {
+        return queue;
+    }
+
+    @Override
+    public void destroy() {
+        expiry.shutdownNow();
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // El dispatch que reanuda una petición admitida vuelve a pasar por aquí
+        return false;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return matchesAny(priorityPaths, path) || !matchesAny(paths, path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            if (request.getAttribute(ADMITTED) != null) {
+                request.removeAttribute(ADMITTED);
+                runWithPermit(request, response, chain);
+            } else {
+                // Dispatch de Spring MVC para escribir un resultado asíncrono
+                chain.doFilter(request, response);
+            }
+            return;
+        }
+
+        if (queue.tryAcquire()) {
+            runWithPermit(request, response, chain);
+            return;
+        }
+
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(asyncTimeoutMillis);
+        Pending pending = new Pending(asyncContext);
+        asyncContext.addListener(pending);
+        if (!queue.enqueue(pending)) {
+            shed(pending);
+        }
+    }
+
+    private void runWithPermit(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean released = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // Controlador asíncrono: el permiso se devuelve al completar la respuesta
+                request.getAsyncContext().addListener(new ReleaseOnComplete());
+                released = true;
+            }
+        } finally {
+            if (!released) {
+                queue.release();
+            }
+        }
+    }
+
+    private void resume(Pending pending) {
+        if (!pending.settle()) {
+            queue.release();
+            return;
+        }
+        pending.asyncContext.getRequest().setAttribute(ADMITTED, Boolean.TRUE);
+        pending.asyncContext.dispatch();
+    }
+
+    private void shed(Pending pending) {
+        if (!pending.settle()) {
+            return;
+        }
+        try {
+            HttpServletResponse response = (HttpServletResponse) pending.asyncContext.getResponse();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(shedContentType);
+            response.setContentLength(shedBody.length);
+            response.getOutputStream().write(shedBody);
+        } catch (IOException | IllegalStateException e) {
+            logger.warn("No se pudo responder a una petición descartada", e);
+        } finally {
+            pending.asyncContext.complete();
+        }
+    }
+
+    private boolean matchesAny(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (matcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Petición en cola. Se resuelve una sola vez: admitida, descartada o abandonada.
+     */
+    private final class Pending implements AsyncListener {
+
+        private final AsyncContext asyncContext;
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        Pending(AsyncContext asyncContext) {
+            this.asyncContext = asyncContext;
+        }
+
+        boolean settle() {
+            return settled.compareAndSet(false, true);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            if (queue.remove(this)) {
+                shed(this);
+            }
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // Cliente desconectado mientras esperaba
+            if (queue.remove(this) && settle()) {
+                asyncContext.complete();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    private final class ReleaseOnComplete implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            queue.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.arquitectura.resilience.admission;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Cola de admisión con un número fijo de permisos y descarte CoDel por tiempo en cola.
+ *
+ * Una petición entra directamente si hay permiso libre y nadie esperando; si no, espera en
+ * cola (FIFO) hasta que otra libera su permiso. Al salir de la cola se mide cuánto esperó y se
+ * decide con CoDel (variante de "Fail at Scale"):
+ *
+ * - Se guarda la espera mínima de cada {@code interval}. Si en un intervalo completo ninguna
+ *   petición esperó menos de {@code target}, la cola no se está vaciando: hay sobrecarga.
+ * - Sin sobrecarga se admite cualquier petición que haya esperado menos de {@code interval}
+ *   (absorbe ráfagas); con sobrecarga solo las que esperaron menos de {@code target}.
+ *
+ * Así, ante una sobrecarga sostenida la cola se mantiene corta y se sirven peticiones cuyo
+ * cliente todavía espera la respuesta, en lugar de trabajar para clientes que ya se fueron.
+ * {@link #expire()} descarta también las que superan el límite mientras siguen en cola.
+ *
+ * Las operaciones toman un lock muy corto; los callbacks de admisión y descarte se ejecutan
+ * fuera de él.
+ *
+ * @param <T> Petición en espera
+ */
+public class AdmissionQueue<T> {
+
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long targetNanos;
+    private final long intervalNanos;
+    private final Consumer<T> admit;
+    private final Consumer<T> shed;
+
+    private final Object lock = new Object();
+    private final ArrayDeque<Waiter<T>> queue = new ArrayDeque<>();
+    private int inFlight;
+    private long minDelayNanos = Long.MAX_VALUE;
+    private long intervalEnd;
+    private boolean overloaded;
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong shedCount = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param maxConcurrent Peticiones atendiéndose a la vez
+     * @param maxQueue Peticiones en espera; con la cola llena se rechaza sin esperar
+     * @param target Espera aceptable en cola con sobrecarga
+     * @param interval Ventana de CoDel y espera máxima sin sobrecarga
+     * @param admit Recibe la petición que sale de la cola con un permiso
+     * @param shed Recibe la petición descartada por esperar demasiado
+     */
+    public AdmissionQueue(int maxConcurrent, int maxQueue, Duration target, Duration interval,
+                          Consumer<T> admit, Consumer<T> shed) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.targetNanos = target.toNanos();
+        this.intervalNanos = interval.toNanos();
+        this.admit = admit;
+        this.shed = shed;
+        this.intervalEnd = System.nanoTime() + intervalNanos;
+    }
+
+    /**
+     * Toma un permiso sin esperar si hay hueco y la cola está vacía.
+     */
+    public boolean tryAcquire() {
+        synchronized (lock) {
+            if (inFlight < maxConcurrent && queue.isEmpty()) {
+                inFlight++;
+                roll(System.nanoTime());
+                minDelayNanos = 0;
+                admitted.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Deja la petición en cola. La recibirá {@code admit} o {@code shed}.
+     *
+     * @return false si la cola está llena (la petición no se encola)
+     */
+    public boolean enqueue(T request) {
+        synchronized (lock) {
+            if (queue.size() >= maxQueue) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            queue.addLast(new Waiter<>(request, System.nanoTime()));
+            queued.incrementAndGet();
+        }
+        // Un permiso pudo quedar libre entre tryAcquire y enqueue
+        drain();
+        return true;
+    }
+
+    /**
+     * Quita una petición de la cola (p. ej. porque el cliente se desconectó).
+     *
+     * @return true si seguía en cola
+     */
+    public boolean remove(T request) {
+        synchronized (lock) {
+            return queue.removeIf(waiter -> waiter.request == request);
+        }
+    }
+
+    /**
+     * Devuelve un permiso y admite a las siguientes peticiones en cola.
+     */
+    public void release() {
+        synchronized (lock) {
+            inFlight--;
+        }
+        drain();
+    }
+
+    /**
+     * Descarta las peticiones que llevan en cola más de lo admisible. Pensado para llamarse
+     * periódicamente: con todos los permisos ocupados por llamadas lentas nadie saca
+     * peticiones de la cola.
+     */
+    public void expire() {
+        List<T> expired = new ArrayList<>();
+        synchronized (lock) {
+            long now = System.nanoTime();
+            long timeout = timeout(now);
+            Iterator<Waiter<T>> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                Waiter<T> waiter = iterator.next();
+                if (now - waiter.enqueuedAt <= timeout) {
+                    break;
+                }
+                iterator.remove();
+                expired.add(waiter.request);
+            }
+        }
+        shedAll(expired);
+    }
+
+    public int queueSize() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    public int inFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    public boolean isOverloaded() {
+        synchronized (lock) {
+            return overloaded;
+        }
+    }
+
+    public long admitted() {
+        return admitted.get();
+    }
+
+    public long queued() {
+        return queued.get();
+    }
+
+    public long shed() {
+        return shedCount.get();
+    }
+
+    public long rejected() {
+        return rejected.get();
+    }
+
+    private void drain() {
+        List<T> admittedNow = new ArrayList<>();
+        List<T> shedNow = new ArrayList<>();
+        synchronized (lock) {
+            while (inFlight < maxConcurrent && !queue.isEmpty()) {
+                long now = System.nanoTime();
+                long timeout = timeout(now);
+                Waiter<T> waiter = queue.pollFirst();
+                long delay = now - waiter.enqueuedAt;
+                minDelayNanos = Math.min(minDelayNanos, delay);
+                if (delay > timeout) {
+                    shedNow.add(waiter.request);
+                } else {
+                    inFlight++;
+                    admittedNow.add(waiter.request);
+                }
+            }
+        }
+        admitted.addAndGet(admittedNow.size());
+        shedAll(shedNow);
+        admittedNow.forEach(admit);
+    }
+
+    private void shedAll(List<T> requests) {
+        shedCount.addAndGet(requests.size());
+        requests.forEach(shed);
+    }
+
+    /**
+     * Cierra el intervalo de CoDel si ha vencido y decide si hay sobrecarga.
+     */
+    private void roll(long now) {
+        if (now - intervalEnd < 0) {
+            return;
+        }
+        if (minDelayNanos == Long.MAX_VALUE) {
+            // Nadie entró en todo el intervalo: sobrecarga solo si alguien lleva esperando
+            Waiter<T> oldest = queue.peekFirst();
+            overloaded = oldest != null && now - oldest.enqueuedAt > targetNanos;
+        } else {
+            overloaded = minDelayNanos > targetNanos;
+        }
+        minDelayNanos = Long.MAX_VALUE;
+        intervalEnd = now + intervalNanos;
+    }
+
+    private long timeout(long now) {
+        roll(now);
+        return overloaded ? targetNanos : intervalNanos;
+    }
+
+    private record Waiter<T>(T request, long enqueuedAt) {
+    }
+}
@@ -0,0 +1,142 @@
+package com.arquitectura.resilience.events;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Canal asíncrono de eventos: los hilos que atienden peticiones publican en un
+ * {@link EventRingBuffer} sin esperar y un único hilo en segundo plano los entrega a un
+ * {@link Handler}, que decide qué escribir.
+ *
+ * El hilo vacía el buffer, duerme 10 ms si no había nada y, cada {@code summaryInterval},
+ * pide al handler un resumen con los eventos descartados desde el anterior. Al cerrar vacía
+ * lo pendiente y escribe un último resumen.
+ *
+ * Si el buffer se llena el evento se descarta y se cuenta en lugar de frenar a quien publica:
+ * cada evento cuenta como publicado o como descartado, nunca como los dos.
+ *
+ * @param <E> Tipo de los eventos
+ */
+public class EventChannel<E> implements AutoCloseable {
+
+    /**
+     * Recibe los eventos en el hilo del canal, uno cada vez, así que su estado no necesita
+     * sincronización.
+     */
+    public interface Handler<E> {
+
+        /**
+         * @param event Evento publicado
+         * @param sequence Posición del evento entre los procesados, desde 1 (para muestrear)
+         */
+        void onEvent(E event, long sequence);
+
+        /**
+         * @param droppedSinceLastSummary Eventos descartados por buffer lleno desde el resumen
+         *                                anterior
+         */
+        void onSummary(long droppedSinceLastSummary);
+    }
+
+    private final EventRingBuffer<E> buffer;
+    private final Handler<? super E> handler;
+    private final long summaryIntervalNanos;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    // Estado del hilo del canal; no se comparte
+    private long processed;
+    private long droppedAtLastSummary;
+
+    /**
+     * Arranca el hilo del canal.
+     *
+     * @param name Nombre del hilo
+     * @param capacity Capacidad del buffer, redondeada hacia arriba a potencia de dos
+     * @param summaryInterval Cada cuánto se pide un resumen
+     */
+    public EventChannel(String name, int capacity, Duration summaryInterval, Handler<? super E> handler) {
+        this.buffer = new EventRingBuffer<>(capacity);
+        this.handler = handler;
+        this.summaryIntervalNanos = summaryInterval.toNanos();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Publica un evento sin bloquear.
+     *
+     * @return false si el buffer estaba lleno y el evento se descartó
+     */
+    public boolean publish(E event) {
+        if (buffer.offer(event)) {
+            published.increment();
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    public long published() {
+        return published.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Eventos pendientes de procesar (aproximado).
+     */
+    public int pending() {
+        return buffer.size();
+    }
+
+    /**
+     * Detiene el hilo del canal, que vacía lo pendiente antes de terminar.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        long nextSummary = System.nanoTime() + summaryIntervalNanos;
+        while (running) {
+            boolean drained = drain();
+            long now = System.nanoTime();
+            if (now - nextSummary >= 0) {
+                summarize();
+                nextSummary = now + summaryIntervalNanos;
+            }
+            if (!drained) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+        }
+        drain();
+        summarize();
+    }
+
+    private boolean drain() {
+        boolean any = false;
+        E event;
+        while ((event = buffer.poll()) != null) {
+            any = true;
+            handler.onEvent(event, ++processed);
+        }
+        return any;
+    }
+
+    private void summarize() {
+        long droppedTotal = dropped.sum();
+        long droppedNow = droppedTotal - droppedAtLastSummary;
+        droppedAtLastSummary = droppedTotal;
+        handler.onSummary(droppedNow);
+    }
+}
@@ -0,0 +1,79 @@
+package com.arquitectura.resilience.events;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Recuento de eventos por clave entre dos resúmenes de un {@link EventChannel}, con la
+ * latencia media y máxima de los que la tienen. Solo lo usa el hilo del canal.
+ */
+public class EventSummary {
+
+    private final Map<String, Stats> byKey = new TreeMap<>();
+
+    /**
+     * Cuenta un evento sin duración.
+     */
+    public void add(String key) {
+        add(key, -1);
+    }
+
+    /**
+     * @param elapsedNanos Duración de la llamada del evento; negativa si no tiene
+     */
+    public void add(String key, long elapsedNanos) {
+        byKey.computeIfAbsent(key, k -> new Stats()).add(elapsedNanos);
+    }
+
+    public boolean isEmpty() {
+        return byKey.isEmpty();
+    }
+
+    /**
+     * Recorre las claves en orden alfabético.
+     */
+    public void forEach(BiConsumer<String, Stats> action) {
+        byKey.forEach(action);
+    }
+
+    public void clear() {
+        byKey.clear();
+    }
+
+    public static final class Stats {
+
+        private long count;
+        private long timed;
+        private long totalNanos;
+        private long maxNanos;
+
+        public long count() {
+            return count;
+        }
+
+        /**
+         * Eventos con duración.
+         */
+        public long timed() {
+            return timed;
+        }
+
+        public long averageNanos() {
+            return timed > 0 ? totalNanos / timed : 0;
+        }
+
+        public long maxNanos() {
+            return maxNanos;
+        }
+
+        private void add(long elapsedNanos) {
+            count++;
+            if (elapsedNanos >= 0) {
+                timed++;
+                totalNanos += elapsedNanos;
+                maxNanos = Math.max(maxNanos, elapsedNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.arquitectura.resilience.metrics;
+
+import com.arquitectura.resilience.CallResult;
+
+/**
+ * Resultado de una petición, usado como etiqueta {@code outcome} de las métricas por endpoint.
+ */
+public enum CallOutcome {
+    SUCCESS("success"),
+    RETRIED("retried"),
+    BULKHEAD_REJECTED("bulkhead_rejected"),
+    FALLBACK("fallback"),
+    NOT_PERMITTED("not_permitted"),
+    TIMEOUT("timeout"),
+    RETRY_BUDGET_EXHAUSTED("retry_budget_exhausted");
+
+    private final String tag;
+
+    CallOutcome(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * Etiqueta de una llamada que acabó en fallback según la etapa que la rechazó:
+     * {@code not_permitted} con el circuito abierto, {@code bulkhead_rejected} si la rechazó un
+     * Bulkhead o un limitador por saturación, {@code timeout} si venció el plazo del TimeLimiter
+     * y {@code fallback} en el resto de casos.
+     */
+    public static CallOutcome ofFailure(CallResult<?> failure) {
+        return switch (failure.outcome()) {
+            case REJECTED -> failure.rejection() == CallResult.Rejection.CIRCUIT_BREAKER ? NOT_PERMITTED : BULKHEAD_REJECTED;
+            case TIMED_OUT -> TIMEOUT;
+            default -> FALLBACK;
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package com.arquitectura.resilience.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Latencia y número de peticiones por endpoint y por resultado ({@code demo.endpoint.requests}
+ * con las etiquetas {@code endpoint} y {@code outcome}).
+ *
+ * Todos los timers se registran al crear el objeto, así que medir una petición es un acceso a
+ * un array y una escritura en el timer: no se reserva memoria ni se buscan medidores por
+ * nombre. Micrometer cuenta con LongAdder y el histograma tiene cubetas fijas entre 1 ms y
+ * 30 s, con memoria constante.
+ *
+ * Cada proyecto define sus endpoints como un enum y crea un bean con él.
+ *
+ * @param <E> Enum de los endpoints instrumentados
+ */
+public class EndpointMetrics<E extends Enum<E>> {
+
+    public static final String METRIC_NAME = "demo.endpoint.requests";
+
+    private final Timer[][] timers;
+
+    /**
+     * @param endpoints Clase del enum de endpoints
+     * @param tag Valor de la etiqueta {@code endpoint} de cada uno
+     */
+    public EndpointMetrics(MeterRegistry meterRegistry, Class<E> endpoints, Function<E, String> tag) {
+        E[] values = endpoints.getEnumConstants();
+        CallOutcome[] outcomes = CallOutcome.values();
+        timers = new Timer[values.length][outcomes.length];
+        for (E endpoint : values) {
+            for (CallOutcome outcome : outcomes) {
+                timers[endpoint.ordinal()][outcome.ordinal()] = Timer.builder(METRIC_NAME)
+                    .description("Latencia de las peticiones por endpoint y resultado")
+                    .tag("endpoint", tag.apply(endpoint))
+                    .tag("outcome", outcome.getTag())
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(meterRegistry);
+            }
+        }
+    }
+
+    /**
+     * Registra una petición terminada.
+     *
+     * @param startNanos Valor de {@link System#nanoTime()} al empezar la petición
+     */
+    public void record(E endpoint, CallOutcome outcome, long startNanos) {
+        timers[endpoint.ordinal()][outcome.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,132 @@
+package com.arquitectura.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncResiliencePipelineTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void succeededCallCompletesWithValue() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("test");
+        AsyncResiliencePipeline<String, String> pipeline = AsyncResiliencePipeline.<String, String>of(CompletableFuture::completedFuture)
+            .withCircuitBreaker(circuitBreaker)
+            .build();
+
+        CallResult<String> result = pipeline.call("hola").join();
+
+        assertEquals(CallResult.Outcome.SUCCEEDED, result.outcome());
+        assertEquals("hola", result.value());
+        assertEquals(1, circuitBreaker.getMetrics().getNumberOfSuccessfulCalls());
+    }
+
+    @Test
+    void openCircuitBreakerRejects() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("test");
+        circuitBreaker.transitionToOpenState();
+        AsyncResiliencePipeline<String, String> pipeline = AsyncResiliencePipeline.<String, String>of(CompletableFuture::completedFuture)
+            .withCircuitBreaker(circuitBreaker)
+            .build();
+
+        assertEquals(CallResult.Outcome.REJECTED, pipeline.call("hola").join().outcome());
+    }
+
+    @Test
+    void bulkheadPermitIsReleasedWhenTheFutureCompletes() {
+        Bulkhead bulkhead = Bulkhead.of("test", BulkheadConfig.custom()
+            .maxConcurrentCalls(1)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        AsyncResiliencePipeline<CompletableFuture<String>, String> pipeline =
+            AsyncResiliencePipeline.<CompletableFuture<String>, String>of(future -> future)
+                .withBulkhead(bulkhead)
+                .build();
+
+        CompletableFuture<CallResult<String>> first = pipeline.call(pending);
+        CallResult<String> rejected = pipeline.call(CompletableFuture.completedFuture("otra")).join();
+        pending.complete("hola");
+
+        assertEquals(CallResult.Outcome.REJECTED, rejected.outcome());
+        assertEquals(CallResult.Outcome.SUCCEEDED, first.join().outcome());
+        assertEquals(1, bulkhead.getMetrics().getAvailableConcurrentCalls());
+    }
+
+    @Test
+    void expiredTimeLimiterTimesOutAndCancelsTheOperation() {
+        TimeLimiter timeLimiter = TimeLimiter.of("test", TimeLimiterConfig.custom()
+            .timeoutDuration(Duration.ofMillis(50))
+            .build());
+        CompletableFuture<String> never = new CompletableFuture<>();
+        AsyncResiliencePipeline<String, String> pipeline = AsyncResiliencePipeline.<String, String>of(input -> never)
+            .withTimeLimiter(timeLimiter, scheduler)
+            .build();
+
+        CallResult<String> result = pipeline.call("hola").join();
+
+        assertEquals(CallResult.Outcome.TIMED_OUT, result.outcome());
+        assertTrue(result.cause() instanceof TimeoutException);
+        // Se cancela justo después de completar el resultado: join espera a que ocurra
+        assertThrows(CancellationException.class, never::join);
+    }
+
+    @Test
+    void failedFutureFailsWithItsCause() {
+        IllegalStateException error = new IllegalStateException("caído");
+        AsyncResiliencePipeline<String, String> pipeline =
+            AsyncResiliencePipeline.<String, String>of(input -> CompletableFuture.failedFuture(error))
+                .withCircuitBreaker(CircuitBreaker.ofDefaults("test"))
+                .build();
+
+        CallResult<String> result = pipeline.call("hola").join();
+
+        assertEquals(CallResult.Outcome.FAILED, result.outcome());
+        assertSame(error, result.cause());
+    }
+
+    @Test
+    void operationThatThrowsFailsInsteadOfThrowing() {
+        AsyncResiliencePipeline<String, String> pipeline = AsyncResiliencePipeline.<String, String>of(input -> {
+                throw new IllegalStateException();
+            })
+            .withFallback((input, result) -> result.outcome().name())
+            .build();
+
+        assertEquals("FAILED", pipeline.execute("hola").join());
+    }
+
+    @Test
+    void fallbackReceivesTheOutcome() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("test");
+        circuitBreaker.transitionToOpenState();
+        AsyncResiliencePipeline<String, String> pipeline = AsyncResiliencePipeline.<String, String>of(CompletableFuture::completedFuture)
+            .withCircuitBreaker(circuitBreaker)
+            .withFallback((input, result) -> result.outcome().name())
+            .build();
+
+        assertEquals("REJECTED", pipeline.execute("hola").join());
+    }
+}
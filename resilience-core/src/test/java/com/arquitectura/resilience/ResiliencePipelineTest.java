@@ -0,0 +1,228 @@
+package com.arquitectura.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResiliencePipelineTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void succeededCallReturnsValue() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("test");
+        ResiliencePipeline<String, String> pipeline = ResiliencePipeline.<String, String>of(this::echo)
+            .withCircuitBreaker(circuitBreaker)
+            .build();
+
+        CallResult<String> result = pipeline.call("hola");
+
+        assertEquals(CallResult.Outcome.SUCCEEDED, result.outcome());
+        assertEquals("hola", result.value());
+        assertNull(result.cause());
+        assertEquals(1, circuitBreaker.getMetrics().getNumberOfSuccessfulCalls());
+    }
+
+    @Test
+    void openCircuitBreakerRejectsWithoutRunningTheOperation() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("test");
+        circuitBreaker.transitionToOpenState();
+        ResiliencePipeline<String, String> pipeline = ResiliencePipeline.<String, String>of(this::echo)
+            .withCircuitBreaker(circuitBreaker)
+            .build();
+
+        CallResult<String> result = pipeline.call("hola");
+
+        assertEquals(CallResult.Outcome.REJECTED, result.outcome());
+        assertEquals("CircuitBreaker[test]", ((RejectedCallException) result.cause()).getComponent());
+        assertEquals(0, invocations.get());
+    }
+
+    @Test
+    void fullBulkheadRejects() {
+        Bulkhead bulkhead = Bulkhead.of("test", BulkheadConfig.custom()
+            .maxConcurrentCalls(1)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+        ResiliencePipeline<String, String> pipeline = ResiliencePipeline.<String, String>of(this::echo)
+            .withBulkhead(bulkhead)
+            .build();
+
+        bulkhead.acquirePermission();
+        CallResult<String> rejected = pipeline.call("hola");
+        bulkhead.onComplete();
+        CallResult<String> admitted = pipeline.call("hola");
+
+        assertEquals(CallResult.Outcome.REJECTED, rejected.outcome());
+        assertEquals("Bulkhead[test]", ((RejectedCallException) rejected.cause()).getComponent());
+        assertEquals(CallResult.Outcome.SUCCEEDED, admitted.outcome());
+        // El permiso se devuelve al terminar
+        assertEquals(1, bulkhead.getMetrics().getAvailableConcurrentCalls());
+    }
+
+    @Test
+    void expiredTimeLimiterTimesOut() {
+        TimeLimiter timeLimiter = TimeLimiter.of("test", TimeLimiterConfig.custom()
+            .timeoutDuration(Duration.ofMillis(50))
+            .build());
+        ResiliencePipeline<String, String> pipeline = ResiliencePipeline.<String, String>of(input -> {
+                Thread.sleep(5_000);
+                return input;
+            })
+            .withTimeLimiter(timeLimiter, executor)
+            .build();
+
+        CallResult<String> result = pipeline.call("hola");
+
+        assertEquals(CallResult.Outcome.TIMED_OUT, result.outcome());
+        assertTrue(result.cause() instanceof TimeoutException);
+    }
+
+    @Test
+    void failingOperationFails() {
+        IllegalStateException error = new IllegalStateException("caído");
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("test");
+        ResiliencePipeline<String, String> pipeline = ResiliencePipeline.<String, String>of(input -> {
+                throw error;
+            })
+            .withCircuitBreaker(circuitBreaker)
+            .build();
+
+        CallResult<String> result = pipeline.call("hola");
+
+        assertEquals(CallResult.Outcome.FAILED, result.outcome());
+        assertSame(error, result.cause());
+        assertEquals("caído", result.reason());
+        assertEquals(1, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void customStageRejectsWithRejectedCallException() {
+        RejectedCallException limited = new RejectedCallException("Limiter[test]");
+        ResiliencePipeline<String, String> pipeline = ResiliencePipeline.<String, String>of(this::echo)
+            .decorate("Limiter[test]", next -> input -> {
+                throw limited;
+            })
+            .build();
+
+        assertEquals(CallResult.Outcome.REJECTED, pipeline.call("hola").outcome());
+    }
+
+    @Test
+    void fallbackReceivesTheOutcome() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("test");
+        ResiliencePipeline<Boolean, String> pipeline = ResiliencePipeline.<Boolean, String>of(fail -> {
+                if (fail) {
+                    throw new IllegalStateException();
+                }
+                return "ok";
+            })
+            .withCircuitBreaker(circuitBreaker)
+            .withFallback((input, result) -> switch (result.outcome()) {
+                case REJECTED -> "rechazada";
+                case TIMED_OUT -> "plazo";
+                case FAILED -> "fallida";
+                case SUCCEEDED -> throw new AssertionError("El fallback no recibe éxitos");
+            })
+            .build();
+
+        assertEquals("ok", pipeline.execute(false));
+        assertEquals("fallida", pipeline.execute(true));
+        circuitBreaker.transitionToOpenState();
+        assertEquals("rechazada", pipeline.execute(false));
+    }
+
+    @Test
+    void fallbackSelectsTimeout() {
+        TimeLimiter timeLimiter = TimeLimiter.of("test", TimeLimiterConfig.custom()
+            .timeoutDuration(Duration.ofMillis(50))
+            .build());
+        ResiliencePipeline<String, String> pipeline = ResiliencePipeline.<String, String>of(input -> {
+                Thread.sleep(5_000);
+                return input;
+            })
+            .withTimeLimiter(timeLimiter, executor)
+            .withFallback((input, result) -> result.outcome().name())
+            .build();
+
+        assertEquals("TIMED_OUT", pipeline.execute("hola"));
+    }
+
+    @Test
+    void withoutFallbackErrorsAreRethrown() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("test");
+        circuitBreaker.transitionToOpenState();
+        ResiliencePipeline<String, String> rejecting = ResiliencePipeline.<String, String>of(this::echo)
+            .withCircuitBreaker(circuitBreaker)
+            .build();
+        ResiliencePipeline<String, String> checked = ResiliencePipeline.<String, String>of(input -> {
+                throw new IOException("sin red");
+            })
+            .build();
+
+        assertThrows(RejectedCallException.class, () -> rejecting.execute("hola"));
+        UndeclaredThrowableException error = assertThrows(UndeclaredThrowableException.class, () -> checked.execute("hola"));
+        assertTrue(error.getUndeclaredThrowable() instanceof IOException);
+    }
+
+    @Test
+    void retryRunsTheOperationAgain() {
+        Retry retry = Retry.of("test", RetryConfig.custom()
+            .maxAttempts(3)
+            .waitDuration(Duration.ofMillis(1))
+            .build());
+        ResiliencePipeline<String, String> pipeline = ResiliencePipeline.<String, String>of(input -> {
+                if (invocations.incrementAndGet() < 3) {
+                    throw new IllegalStateException();
+                }
+                return input;
+            })
+            .withRetry(retry)
+            .build();
+
+        assertEquals(CallResult.Outcome.SUCCEEDED, pipeline.call("hola").outcome());
+        assertEquals(3, invocations.get());
+    }
+
+    @Test
+    void describesStagesFromOutsideIn() {
+        ResiliencePipeline<String, String> pipeline = ResiliencePipeline.<String, String>of(this::echo)
+            .withRetry(Retry.ofDefaults("r"))
+            .withCircuitBreaker(CircuitBreaker.ofDefaults("cb"))
+            .withFallback((input, result) -> input)
+            .build();
+
+        assertEquals("Fallback(CircuitBreaker[cb](Retry[r](operation)))", pipeline.toString());
+    }
+
+    private String echo(String input) {
+        invocations.incrementAndGet();
+        return input;
+    }
+}
@@ -0,0 +1,87 @@
+package com.arquitectura.resilience.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionQueueTest {
+
+    private final List<String> admitted = new CopyOnWriteArrayList<>();
+    private final List<String> shed = new CopyOnWriteArrayList<>();
+
+    @Test
+    void admitsDirectlyUpToMaxConcurrent() {
+        AdmissionQueue<String> queue = queue(2, 10, Duration.ofSeconds(1));
+
+        assertTrue(queue.tryAcquire());
+        assertTrue(queue.tryAcquire());
+        assertFalse(queue.tryAcquire());
+        assertEquals(2, queue.inFlight());
+        assertEquals(2, queue.admitted());
+    }
+
+    @Test
+    void releaseAdmitsQueuedRequestsInOrder() {
+        AdmissionQueue<String> queue = queue(1, 10, Duration.ofSeconds(1));
+        queue.tryAcquire();
+
+        assertTrue(queue.enqueue("a"));
+        assertTrue(queue.enqueue("b"));
+        assertEquals(2, queue.queueSize());
+
+        queue.release();
+        assertEquals(List.of("a"), admitted);
+        queue.release();
+        assertEquals(List.of("a", "b"), admitted);
+        assertEquals(0, queue.queueSize());
+        assertEquals(2, queue.queued());
+    }
+
+    @Test
+    void fullQueueRejects() {
+        AdmissionQueue<String> queue = queue(1, 1, Duration.ofSeconds(1));
+        queue.tryAcquire();
+
+        assertTrue(queue.enqueue("a"));
+        assertFalse(queue.enqueue("b"));
+        assertEquals(1, queue.rejected());
+    }
+
+    @Test
+    void requestsWaitingLongerThanTheIntervalAreShed() throws InterruptedException {
+        AdmissionQueue<String> queue = queue(1, 10, Duration.ofMillis(20));
+        queue.tryAcquire();
+        queue.enqueue("a");
+
+        Thread.sleep(50);
+        queue.expire();
+
+        assertEquals(List.of("a"), shed);
+        assertEquals(1, queue.shed());
+        assertEquals(0, queue.queueSize());
+        assertTrue(admitted.isEmpty());
+    }
+
+    @Test
+    void removedRequestIsNeitherAdmittedNorShed() {
+        AdmissionQueue<String> queue = queue(1, 10, Duration.ofSeconds(1));
+        queue.tryAcquire();
+        queue.enqueue("a");
+
+        assertTrue(queue.remove("a"));
+        queue.release();
+
+        assertTrue(admitted.isEmpty());
+        assertTrue(shed.isEmpty());
+    }
+
+    private AdmissionQueue<String> queue(int maxConcurrent, int maxQueue, Duration interval) {
+        return new AdmissionQueue<>(maxConcurrent, maxQueue, interval.dividedBy(2), interval, admitted::add, shed::add);
+    }
+}
@@ -0,0 +1,90 @@
+package com.arquitectura.resilience.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventChannelTest {
+
+    @Test
+    void deliversEventsInOrderWithTheirSequence() throws InterruptedException {
+        RecordingHandler handler = new RecordingHandler(3);
+        EventChannel<String> channel = new EventChannel<>("test-events", 8, Duration.ofHours(1), handler);
+
+        channel.publish("a");
+        channel.publish("b");
+        channel.publish("c");
+
+        assertTrue(handler.delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("1:a", "2:b", "3:c"), handler.events);
+        assertEquals(3, channel.published());
+        channel.close();
+    }
+
+    @Test
+    void dropsWhenFullAndReportsTheDropsOnClose() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingHandler handler = new RecordingHandler(1) {
+            @Override
+            public void onEvent(String event, long sequence) {
+                super.onEvent(event, sequence);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        EventChannel<String> channel = new EventChannel<>("test-events", 4, Duration.ofHours(1), handler);
+
+        // El primero bloquea al handler; los cuatro siguientes llenan el buffer
+        channel.publish("busy");
+        assertTrue(handler.delivered.await(5, TimeUnit.SECONDS));
+        for (String event : List.of("a", "b", "c", "d")) {
+            assertTrue(channel.publish(event));
+        }
+        assertFalse(channel.publish("e"));
+
+        assertEquals(5, channel.published());
+        assertEquals(1, channel.dropped());
+        assertEquals(4, channel.pending());
+
+        channel.close();
+        release.countDown();
+        assertTrue(handler.summarized.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("1:busy", "2:a", "3:b", "4:c", "5:d"), handler.events);
+        assertEquals(List.of(1L), handler.summaries);
+    }
+
+    private static class RecordingHandler implements EventChannel.Handler<String> {
+
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final List<Long> summaries = new CopyOnWriteArrayList<>();
+        final CountDownLatch delivered;
+        final CountDownLatch summarized = new CountDownLatch(1);
+
+        RecordingHandler(int expected) {
+            this.delivered = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void onEvent(String event, long sequence) {
+            events.add(sequence + ":" + event);
+            delivered.countDown();
+        }
+
+        @Override
+        public void onSummary(long droppedSinceLastSummary) {
+            summaries.add(droppedSinceLastSummary);
+            summarized.countDown();
+        }
+    }
+}
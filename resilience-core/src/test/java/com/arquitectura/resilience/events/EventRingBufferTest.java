@@ -0,0 +1,102 @@
+package com.arquitectura.resilience.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventRingBufferTest {
+
+    @Test
+    void pollsInPublicationOrder() {
+        EventRingBuffer<String> buffer = new EventRingBuffer<>(4);
+
+        buffer.offer("a");
+        buffer.offer("b");
+
+        assertEquals(2, buffer.size());
+        assertEquals("a", buffer.poll());
+        assertEquals("b", buffer.poll());
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    void rejectsWhenFullAndAcceptsOnceDrained() {
+        // Se redondea a 4
+        EventRingBuffer<Integer> buffer = new EventRingBuffer<>(3);
+        assertEquals(4, buffer.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        assertFalse(buffer.offer(4));
+
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4));
+        assertEquals(List.of(1, 2, 3, 4), pollAll(buffer));
+    }
+
+    @Test
+    void concurrentProducersNeitherLoseNorDuplicate() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 10_000;
+        EventRingBuffer<Integer> buffer = new EventRingBuffer<>(64);
+        AtomicInteger published = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                    published.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        boolean[] seen = new boolean[producers * perProducer];
+        int polled = 0;
+        while (polled < seen.length) {
+            Integer element = buffer.poll();
+            if (element == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            assertFalse(seen[element], "Duplicado: " + element);
+            seen[element] = true;
+            polled++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(seen.length, published.get());
+        assertNull(buffer.poll());
+    }
+
+    private static List<Integer> pollAll(EventRingBuffer<Integer> buffer) {
+        List<Integer> elements = new ArrayList<>();
+        Integer element;
+        while ((element = buffer.poll()) != null) {
+            elements.add(element);
+        }
+        return elements;
+    }
+}
@@ -0,0 +1,77 @@
+package com.arquitectura.resilience.metrics;
+
+import com.arquitectura.resilience.CallResult;
+import com.arquitectura.resilience.ResiliencePipeline;
+import com.arquitectura.resilience.RejectedCallException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CallOutcomeTest {
+
+    @Test
+    void openCircuitBreakerIsNotPermitted() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("test");
+        circuitBreaker.transitionToOpenState();
+        ResiliencePipeline<String, String> pipeline = ResiliencePipeline.<String, String>of(input -> input)
+            .withCircuitBreaker(circuitBreaker)
+            .build();
+
+        CallResult<String> rejected = pipeline.call("hola");
+
+        assertEquals(CallResult.Rejection.CIRCUIT_BREAKER, rejected.rejection());
+        assertEquals(CallOutcome.NOT_PERMITTED, CallOutcome.ofFailure(rejected));
+        assertEquals(CallOutcome.NOT_PERMITTED,
+            CallOutcome.ofFailure(CallResult.failure(CallNotPermittedException.createCallNotPermittedException(circuitBreaker))));
+    }
+
+    @Test
+    void fullBulkheadIsBulkheadRejected() {
+        Bulkhead bulkhead = Bulkhead.of("test", BulkheadConfig.custom()
+            .maxConcurrentCalls(1)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+        ResiliencePipeline<String, String> pipeline = ResiliencePipeline.<String, String>of(input -> input)
+            .withBulkhead(bulkhead)
+            .build();
+
+        bulkhead.acquirePermission();
+        CallResult<String> rejected = pipeline.call("hola");
+        bulkhead.onComplete();
+
+        assertEquals(CallResult.Rejection.BULKHEAD, rejected.rejection());
+        assertEquals(CallOutcome.BULKHEAD_REJECTED, CallOutcome.ofFailure(rejected));
+        assertEquals(CallOutcome.BULKHEAD_REJECTED,
+            CallOutcome.ofFailure(CallResult.failure(BulkheadFullException.createBulkheadFullException(bulkhead))));
+    }
+
+    @Test
+    void customLimiterIsBulkheadRejected() {
+        CallResult<String> rejected = CallResult.failure(new RejectedCallException("Limiter[test]"));
+
+        assertEquals(CallResult.Rejection.LIMITER, rejected.rejection());
+        assertEquals(CallOutcome.BULKHEAD_REJECTED, CallOutcome.ofFailure(rejected));
+    }
+
+    @Test
+    void expiredTimeLimiterIsTimeout() {
+        CallResult<String> timedOut = CallResult.failure(new TimeoutException());
+
+        assertNull(timedOut.rejection());
+        assertEquals(CallOutcome.TIMEOUT, CallOutcome.ofFailure(timedOut));
+    }
+
+    @Test
+    void errorsAreFallback() {
+        assertEquals(CallOutcome.FALLBACK, CallOutcome.ofFailure(CallResult.failure(new IllegalStateException("boom"))));
+    }
+}